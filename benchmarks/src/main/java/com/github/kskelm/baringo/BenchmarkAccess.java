@@ -0,0 +1,48 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.util.BaringoApiException;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+
+import java.util.Date;
+
+/**
+ * BENCHMARKS ONLY.
+ * <p>
+ * Lives in Baringo's own package so the benchmarks can get at the
+ * exact Gson a client parses with, type adapters and all, rather
+ * than a look-alike that could drift from it.  Building the client
+ * touches no network.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public final class BenchmarkAccess {
+
+    private BenchmarkAccess() {
+    } // constructor
+
+    /**
+     * Returns the Gson a freshly built client uses
+     * @return the Gson
+     * @throws BaringoApiException the client couldn't be built
+     */
+    public static Gson clientGson() throws BaringoApiException {
+        BaringoClient client = new BaringoClient.Builder()
+                .clientAuth("benchmark", "benchmark")
+                .coalesceRequests(false)
+                .build();
+        return client.getGson();
+    } // clientGson
+
+    /**
+     * Returns the adapter the client reads and writes dates with
+     * @return the adapter
+     */
+    public static TypeAdapter<Date> dateAdapter() {
+        return new BaringoClient.DateAdapter();
+    } // dateAdapter
+
+} // class BenchmarkAccess
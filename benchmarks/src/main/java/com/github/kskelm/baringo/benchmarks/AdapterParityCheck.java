@@ -0,0 +1,200 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.benchmarks;
+
+import com.github.kskelm.baringo.BenchmarkAccess;
+import com.github.kskelm.baringo.model.Comment;
+import com.github.kskelm.baringo.model.ImgurResponseWrapper;
+import com.github.kskelm.baringo.model.gallery.GalleryAlbum;
+import com.github.kskelm.baringo.model.gallery.GalleryImage;
+import com.github.kskelm.baringo.model.gallery.GalleryItem;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks the hand-written gallery and comment adapters against Gson's
+ * plain reflective adapter, which is how these models were read before
+ * (the gallery through GalleryItemProxy, whose JSON names were the
+ * same @SerializedName and field names the models carry now).
+ * <p>
+ * Each recorded payload under fixtures/ is decoded both ways, and the
+ * results are compared field by field, nested comments and album
+ * images included.  The payloads also have to give every model field
+ * a non-default value at least once, so a field the hand-written
+ * adapter reads under the wrong name can't slip by just because the
+ * fixture never sent it.  That's why they carry the camelCase names
+ * (coverId, gifvLink...) the models map, beside the snake_case ones
+ * Imgur sends today.
+ * <p>
+ * Runs as part of the benchmarks build, and on its own with
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.github.kskelm.baringo.benchmarks.AdapterParityCheck
+ * </pre>
+ * Exits non-zero on any difference.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class AdapterParityCheck {
+
+    private final Gson handWritten;
+    private final Gson reflective;
+    private final List<String> problems = new ArrayList<>();
+    // Class.field names that have held something other than the default
+    private final Set<String> exercised = new LinkedHashSet<>();
+
+    private AdapterParityCheck() throws Exception {
+        this.handWritten = BenchmarkAccess.clientGson();
+        // the same date handling, and nothing else
+        this.reflective = new GsonBuilder()
+                .registerTypeAdapter(Date.class, BenchmarkAccess.dateAdapter())
+                .create();
+    } // constructor
+
+    public static void main(String[] args) throws Exception {
+        AdapterParityCheck check = new AdapterParityCheck();
+        check.checkGallery("fixtures/gallery-page.json");
+        check.checkComments("fixtures/comments.json");
+        check.checkExercised(GalleryImage.class, GalleryAlbum.class, Comment.class);
+
+        if (!check.problems.isEmpty()) {
+            for (String problem : check.problems) {
+                System.err.println(problem);
+            } // for
+            System.err.println(check.problems.size() + " adapter parity problem(s)");
+            System.exit(1);
+        } // if
+        System.out.println("Adapter parity OK: " + check.exercised.size() + " fields checked");
+    } // main
+
+    private void checkGallery(String resource) throws IOException {
+        String json = load(resource);
+        List<GalleryItem> actual = handWritten.<ImgurResponseWrapper<List<GalleryItem>>>fromJson(json,
+                new TypeToken<ImgurResponseWrapper<List<GalleryItem>>>() {
+                }.getType()).getData();
+
+        // the old way: is_album picks the class, reflection does the rest
+        List<GalleryItem> expected = new ArrayList<>();
+        for (JsonElement element : JsonParser.parseString(json).getAsJsonObject().getAsJsonArray("data")) {
+            JsonObject object = element.getAsJsonObject();
+            boolean album = object.has("is_album") && object.get("is_album").getAsBoolean();
+            expected.add(reflective.fromJson(object, album ? GalleryAlbum.class : GalleryImage.class));
+        } // for
+
+        compare(resource, expected, actual);
+    } // checkGallery
+
+    private void checkComments(String resource) throws IOException {
+        String json = load(resource);
+        TypeToken<ImgurResponseWrapper<List<Comment>>> type = new TypeToken<>() {
+        };
+        List<Comment> actual = handWritten.<ImgurResponseWrapper<List<Comment>>>fromJson(json,
+                type.getType()).getData();
+        List<Comment> expected = reflective.<ImgurResponseWrapper<List<Comment>>>fromJson(json,
+                type.getType()).getData();
+
+        compare(resource, expected, actual);
+    } // checkComments
+
+    private void compare(String path, Object expected, Object actual) {
+        if (expected == null || actual == null) {
+            if (expected != actual) {
+                problems.add(path + ": expected " + expected + " but got " + actual);
+            } // if
+            return;
+        } // if
+        if (expected.getClass() != actual.getClass()) {
+            problems.add(path + ": expected a " + expected.getClass().getSimpleName()
+                    + " but got a " + actual.getClass().getSimpleName());
+            return;
+        } // if
+        if (expected instanceof List) {
+            List<?> e = (List<?>) expected;
+            List<?> a = (List<?>) actual;
+            if (e.size() != a.size()) {
+                problems.add(path + ": expected " + e.size() + " elements but got " + a.size());
+                return;
+            } // if
+            for (int i = 0; i < e.size(); i++) {
+                compare(path + "[" + i + "]", e.get(i), a.get(i));
+            } // for
+            return;
+        } // if
+        if (!expected.getClass().getName().startsWith("com.github.kskelm.baringo.model")
+                || expected.getClass().isEnum()) {
+            if (!expected.equals(actual)) {
+                problems.add(path + ": expected " + expected + " but got " + actual);
+            } // if
+            return;
+        } // if
+
+        for (Class<?> c = expected.getClass(); c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                } // if
+                field.setAccessible(true);
+                Object e;
+                Object a;
+                try {
+                    e = field.get(expected);
+                    a = field.get(actual);
+                } catch (IllegalAccessException ex) {
+                    throw new IllegalStateException(ex);
+                } // try-catch
+                if (!isDefault(e)) {
+                    exercised.add(c.getSimpleName() + "." + field.getName());
+                } // if
+                compare(path + "." + field.getName(), e, a);
+            } // for
+        } // for
+    } // compare
+
+    private void checkExercised(Class<?>... types) {
+        for (Class<?> type : types) {
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                        continue;
+                    } // if
+                    String name = c.getSimpleName() + "." + field.getName();
+                    if (!exercised.contains(name)) {
+                        problems.add("fixtures never set " + name);
+                    } // if
+                } // for
+            } // for
+        } // for
+    } // checkExercised
+
+    private static boolean isDefault(Object value) {
+        return value == null
+                || Boolean.FALSE.equals(value)
+                || (value instanceof Number && ((Number) value).doubleValue() == 0)
+                || (value instanceof List && ((List<?>) value).isEmpty());
+    } // isDefault
+
+    private static String load(String resource) throws IOException {
+        try (InputStream in = AdapterParityCheck.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("No resource " + resource);
+            } // if
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } // try
+    } // load
+
+} // class AdapterParityCheck
@@ -0,0 +1,86 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.benchmarks;
+
+import com.github.kskelm.baringo.BenchmarkAccess;
+import com.github.kskelm.baringo.CommentService.CommentListWrapper;
+import com.github.kskelm.baringo.model.CommentAdapterFactory;
+import com.github.kskelm.baringo.model.ImgurResponseWrapper;
+import com.github.kskelm.baringo.util.BaringoApiException;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding comment threads, both into a tree through CommentListWrapper
+ * and streamed one comment at a time.  maxDepth sets how far down
+ * the one very deep thread in each fixture goes.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommentDecodeBenchmark {
+
+    /**
+     * a busy post, and a front-page one
+     */
+    @Param({"500", "5000"})
+    public int comments;
+
+    /**
+     * everyday threads, and one about as deep as Gson's nesting limit
+     * of 255 (two per level) will read
+     */
+    @Param({"10", "100"})
+    public int maxDepth;
+
+    private String envelope;
+    private String array;
+    private Gson gson;
+    private TypeAdapter<ImgurResponseWrapper<CommentListWrapper>> adapter;
+
+    @Setup
+    public void setup() throws BaringoApiException {
+        envelope = Fixtures.commentThread(comments, maxDepth);
+        array = Fixtures.commentArray(comments, maxDepth);
+        gson = BenchmarkAccess.clientGson();
+        adapter = gson.getAdapter(new TypeToken<ImgurResponseWrapper<CommentListWrapper>>() {
+        });
+    } // setup
+
+    @Benchmark
+    public CommentListWrapper decodeTree() throws IOException {
+        return adapter.fromJson(new StringReader(envelope)).getData();
+    } // decodeTree
+
+    @Benchmark
+    public int stream(Blackhole bh) throws IOException, BaringoApiException {
+        try (JsonReader in = new JsonReader(new StringReader(array))) {
+            return CommentAdapterFactory.stream(gson, in, bh::consume);
+        } // try
+    } // stream
+
+} // class CommentDecodeBenchmark
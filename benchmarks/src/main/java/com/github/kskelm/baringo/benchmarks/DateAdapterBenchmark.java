@@ -0,0 +1,85 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.benchmarks;
+
+import com.github.kskelm.baringo.BenchmarkAccess;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing the unix timestamps every model object carries,
+ * a thousand at a time.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateAdapterBenchmark {
+
+    private static final int COUNT = 1000;
+
+    private String json;
+    private Date[] dates;
+    private TypeAdapter<Date> adapter;
+
+    @Setup
+    public void setup() throws IOException {
+        json = Fixtures.timestamps(COUNT);
+        adapter = BenchmarkAccess.dateAdapter();
+        dates = new Date[COUNT];
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            in.beginArray();
+            for (int i = 0; i < COUNT; i++) {
+                dates[i] = adapter.read(in);
+            } // for
+        } // try
+    } // setup
+
+    @Benchmark
+    public void read(Blackhole bh) throws IOException {
+        try (JsonReader in = new JsonReader(new StringReader(json))) {
+            in.beginArray();
+            while (in.hasNext()) {
+                bh.consume(adapter.read(in));
+            } // while
+            in.endArray();
+        } // try
+    } // read
+
+    @Benchmark
+    public String write() throws IOException {
+        StringWriter sw = new StringWriter();
+        try (JsonWriter out = new JsonWriter(sw)) {
+            out.beginArray();
+            for (Date date : dates) {
+                adapter.write(out, date);
+            } // for
+            out.endArray();
+        } // try
+        return sw.toString();
+    } // write
+
+} // class DateAdapterBenchmark
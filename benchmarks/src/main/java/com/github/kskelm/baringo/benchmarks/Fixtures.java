@@ -0,0 +1,361 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.benchmarks;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * Builds the JSON the benchmarks parse, shaped and sized like what
+ * Imgur actually sends: the same fields in the same order, a mix of
+ * images and albums on a gallery page, comment threads that are
+ * mostly shallow with the odd very deep one.  Generated from a fixed
+ * seed rather than checked in, so every run parses exactly the same
+ * bytes and a fixture's size is just a parameter.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public final class Fixtures {
+
+    private static final long SEED = 0x1badb002L;
+    private static final String[] WORDS = {
+            "cat", "dog", "when", "my", "the", "finally", "OC", "this", "is",
+            "fine", "everything", "friday", "mfw", "TIL", "imgur", "album",
+            "sunset", "coffee", "monday", "again", "why", "look", "at", "him"
+    };
+    private static final long NOW = 1_700_000_000L;
+
+    private Fixtures() {
+    } // constructor
+
+    /**
+     * A page of gallery items in its response envelope.  About one
+     * item in three is an album carrying its first few images.
+     *
+     * @param items the number of items on the page
+     * @return the JSON
+     */
+    public static String galleryPage(int items) {
+        Random rnd = new Random(SEED);
+        return write(out -> {
+            out.beginObject();
+            out.name("data").beginArray();
+            for (int i = 0; i < items; i++) {
+                if (rnd.nextInt(3) == 0) {
+                    galleryAlbum(out, rnd, 1 + rnd.nextInt(10));
+                } else {
+                    galleryImage(out, rnd);
+                } // if-else
+            } // for
+            out.endArray();
+            out.name("success").value(true);
+            out.name("status").value(200);
+            out.endObject();
+        });
+    } // galleryPage
+
+    /**
+     * A gallery item's comment list in its response envelope
+     *
+     * @param comments the total number of comments, replies included
+     * @param maxDepth how deep the deepest thread goes
+     * @return the JSON
+     */
+    public static String commentThread(int comments, int maxDepth) {
+        return write(out -> {
+            out.beginObject();
+            out.name("data");
+            commentArray(out, comments, maxDepth);
+            out.name("success").value(true);
+            out.name("status").value(200);
+            out.endObject();
+        });
+    } // commentThread
+
+    /**
+     * The bare comment list, as the streaming reader sees it once
+     * it's inside the envelope
+     *
+     * @param comments the total number of comments, replies included
+     * @param maxDepth how deep the deepest thread goes
+     * @return the JSON
+     */
+    public static String commentArray(int comments, int maxDepth) {
+        return write(out -> commentArray(out, comments, maxDepth));
+    } // commentArray
+
+    /**
+     * An album with its images, as returned by the album endpoint
+     * without the envelope
+     *
+     * @param images the number of images
+     * @return the JSON
+     */
+    public static String album(int images) {
+        Random rnd = new Random(SEED);
+        return write(out -> {
+            out.beginObject();
+            albumFields(out, rnd, images);
+            out.name("images").beginArray();
+            for (int i = 0; i < images; i++) {
+                out.beginObject();
+                imageFields(out, rnd);
+                out.endObject();
+            } // for
+            out.endArray();
+            out.endObject();
+        });
+    } // album
+
+    /**
+     * A single image, as returned by the image endpoint without the
+     * envelope
+     *
+     * @param id the image id
+     * @return the JSON
+     */
+    public static String image(String id) {
+        Random rnd = new Random(SEED ^ id.hashCode());
+        return write(out -> {
+            out.beginObject();
+            imageFields(out, rnd, id);
+            out.endObject();
+        });
+    } // image
+
+    /**
+     * A single comment with a few replies, as returned by the comment
+     * endpoint without the envelope
+     *
+     * @param id the comment id
+     * @return the JSON
+     */
+    public static String comment(long id) {
+        Random rnd = new Random(SEED ^ id);
+        return write(out -> comment(out, rnd, new int[]{5}, new long[]{id}, 0, 0, 3, false));
+    } // comment
+
+    /**
+     * A bare array of unix timestamps
+     *
+     * @param count how many
+     * @return the JSON
+     */
+    public static String timestamps(int count) {
+        Random rnd = new Random(SEED);
+        return write(out -> {
+            out.beginArray();
+            for (int i = 0; i < count; i++) {
+                out.value(NOW - rnd.nextInt(100_000_000));
+            } // for
+            out.endArray();
+        });
+    } // timestamps
+
+    // =========================================================
+
+    private static void commentArray(JsonWriter out, int comments, int maxDepth) throws IOException {
+        Random rnd = new Random(SEED);
+        int[] budget = {comments};
+        long[] nextId = {1_000_000_000L};
+        out.beginArray();
+        // one thread that goes all the way down, the rest bushy and shallow
+        if (budget[0] > 0) {
+            comment(out, rnd, budget, nextId, 0, 0, maxDepth, true);
+        } // if
+        while (budget[0] > 0) {
+            comment(out, rnd, budget, nextId, 0, 0, maxDepth, false);
+        } // while
+        out.endArray();
+    } // commentArray
+
+    private static void comment(JsonWriter out, Random rnd, int[] budget, long[] nextId,
+                                long parentId, int depth, int maxDepth, boolean chain) throws IOException {
+        budget[0]--;
+        long id = nextId[0]++;
+        out.beginObject();
+        out.name("id").value(id);
+        out.name("image_id").value(hash(rnd, 7));
+        out.name("comment").value(sentence(rnd, 3 + rnd.nextInt(25)));
+        out.name("author").value(word(rnd) + rnd.nextInt(10_000));
+        out.name("author_id").value(rnd.nextInt(50_000_000));
+        out.name("on_album").value(rnd.nextBoolean());
+        out.name("album_cover").value(hash(rnd, 7));
+        int ups = rnd.nextInt(500);
+        int downs = rnd.nextInt(50);
+        out.name("ups").value(ups);
+        out.name("downs").value(downs);
+        out.name("points").value(ups - downs);
+        out.name("datetime").value(NOW - rnd.nextInt(1_000_000));
+        out.name("parent_id").value(parentId);
+        out.name("deleted").value(false);
+        out.name("vote").nullValue();
+        out.name("platform").value("desktop");
+        out.name("children").beginArray();
+        if (depth + 1 < maxDepth) {
+            if (chain) {
+                if (budget[0] > 0) {
+                    comment(out, rnd, budget, nextId, id, depth + 1, maxDepth, true);
+                } // if
+            } else {
+                // replies thin out quickly the deeper a thread goes
+                int replies = rnd.nextInt(Math.max(1, 4 - depth));
+                for (int i = 0; i < replies && budget[0] > 0; i++) {
+                    comment(out, rnd, budget, nextId, id, depth + 1, maxDepth, false);
+                } // for
+            } // if-else
+        } // if
+        out.endArray();
+        out.endObject();
+    } // comment
+
+    private static void galleryImage(JsonWriter out, Random rnd) throws IOException {
+        out.beginObject();
+        imageFields(out, rnd);
+        galleryFields(out, rnd);
+        out.name("is_album").value(false);
+        out.endObject();
+    } // galleryImage
+
+    private static void galleryAlbum(JsonWriter out, Random rnd, int images) throws IOException {
+        out.beginObject();
+        String cover = hash(rnd, 7);
+        out.name("id").value(hash(rnd, 7));
+        out.name("title").value(sentence(rnd, 2 + rnd.nextInt(8)));
+        out.name("description").nullValue();
+        out.name("datetime").value(NOW - rnd.nextInt(1_000_000));
+        out.name("cover").value(cover);
+        out.name("cover_width").value(640 + rnd.nextInt(1280));
+        out.name("cover_height").value(480 + rnd.nextInt(1280));
+        out.name("account_url").value(word(rnd) + rnd.nextInt(10_000));
+        out.name("account_id").value(rnd.nextInt(50_000_000));
+        out.name("privacy").value("public");
+        out.name("layout").value("blog");
+        out.name("views").value(rnd.nextInt(1_000_000));
+        out.name("link").value("https://imgur.com/a/" + hash(rnd, 7));
+        galleryFields(out, rnd);
+        out.name("is_album").value(true);
+        out.name("images_count").value(images + rnd.nextInt(20));
+        out.name("images").beginArray();
+        for (int i = 0; i < images; i++) {
+            out.beginObject();
+            imageFields(out, rnd);
+            out.endObject();
+        } // for
+        out.endArray();
+        out.endObject();
+    } // galleryAlbum
+
+    private static void galleryFields(JsonWriter out, Random rnd) throws IOException {
+        int ups = rnd.nextInt(20_000);
+        int downs = rnd.nextInt(1_000);
+        out.name("ups").value(ups);
+        out.name("downs").value(downs);
+        out.name("points").value(ups - downs);
+        out.name("score").value(ups - downs + rnd.nextInt(1_000));
+        out.name("comment_count").value(rnd.nextInt(2_000));
+        out.name("topic").value("No Topic");
+        out.name("topic_id").value(29);
+        out.name("favorite").value(false);
+        out.name("nsfw").value(rnd.nextInt(20) == 0);
+        out.name("vote").nullValue();
+        out.name("in_most_viral").value(rnd.nextBoolean());
+        out.name("tags").beginArray().endArray();
+    } // galleryFields
+
+    private static void imageFields(JsonWriter out, Random rnd) throws IOException {
+        imageFields(out, rnd, hash(rnd, 7));
+    } // imageFields
+
+    private static void imageFields(JsonWriter out, Random rnd, String id) throws IOException {
+        boolean animated = rnd.nextInt(4) == 0;
+        out.name("id").value(id);
+        out.name("title").value(rnd.nextBoolean() ? sentence(rnd, 2 + rnd.nextInt(8)) : null);
+        out.name("description").value(rnd.nextInt(4) == 0 ? sentence(rnd, 10 + rnd.nextInt(40)) : null);
+        out.name("datetime").value(NOW - rnd.nextInt(1_000_000));
+        out.name("type").value(animated ? "image/gif" : "image/jpeg");
+        out.name("animated").value(animated);
+        out.name("width").value(320 + rnd.nextInt(3000));
+        out.name("height").value(240 + rnd.nextInt(3000));
+        out.name("size").value(10_000 + rnd.nextInt(5_000_000));
+        out.name("views").value(rnd.nextInt(1_000_000));
+        out.name("bandwidth").value(rnd.nextLong() & 0xffffffffffL);
+        out.name("vote").nullValue();
+        out.name("favorite").value(false);
+        out.name("nsfw").nullValue();
+        out.name("section").nullValue();
+        out.name("account_url").nullValue();
+        out.name("account_id").nullValue();
+        out.name("in_gallery").value(true);
+        out.name("link").value("https://i.imgur.com/" + id + (animated ? ".gif" : ".jpg"));
+        if (animated) {
+            out.name("gifv").value("https://i.imgur.com/" + id + ".gifv");
+            out.name("mp4").value("https://i.imgur.com/" + id + ".mp4");
+            out.name("looping").value(true);
+        } // if
+    } // imageFields
+
+    private static void albumFields(JsonWriter out, Random rnd, int images) throws IOException {
+        out.name("id").value(hash(rnd, 7));
+        out.name("title").value(sentence(rnd, 4));
+        out.name("description").value(sentence(rnd, 20));
+        out.name("datetime").value(NOW);
+        out.name("cover").value(hash(rnd, 7));
+        out.name("cover_width").value(1024);
+        out.name("cover_height").value(768);
+        out.name("account_url").value("benchmark");
+        out.name("account_id").value(12345);
+        out.name("privacy").value("hidden");
+        out.name("layout").value("grid");
+        out.name("views").value(rnd.nextInt(100_000));
+        out.name("link").value("https://imgur.com/a/" + hash(rnd, 7));
+        out.name("favorite").value(false);
+        out.name("nsfw").value(false);
+        out.name("images_count").value(images);
+    } // albumFields
+
+    private static String hash(Random rnd, int length) {
+        String chars = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(chars.charAt(rnd.nextInt(chars.length())));
+        } // for
+        return sb.toString();
+    } // hash
+
+    private static String word(Random rnd) {
+        return WORDS[rnd.nextInt(WORDS.length)];
+    } // word
+
+    private static String sentence(Random rnd, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            } // if
+            sb.append(word(rnd));
+        } // for
+        return sb.toString();
+    } // sentence
+
+    @FunctionalInterface
+    private interface Body {
+        void write(JsonWriter out) throws IOException;
+    }
+
+    private static String write(Body body) {
+        StringWriter sw = new StringWriter();
+        try (JsonWriter out = new JsonWriter(sw)) {
+            body.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } // try-catch
+        return sw.toString();
+    } // write
+
+} // class Fixtures
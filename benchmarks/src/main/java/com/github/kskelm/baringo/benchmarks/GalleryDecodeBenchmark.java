@@ -0,0 +1,67 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.benchmarks;
+
+import com.github.kskelm.baringo.BenchmarkAccess;
+import com.github.kskelm.baringo.model.ImgurResponseWrapper;
+import com.github.kskelm.baringo.model.gallery.GalleryItem;
+import com.github.kskelm.baringo.util.BaringoApiException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a page of gallery items, the response behind every gallery,
+ * favorites and search listing.  Images and albums come mixed in one
+ * array and are told apart as they're read.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GalleryDecodeBenchmark {
+
+    /**
+     * 60 is a normal gallery page; 300 a big search
+     */
+    @Param({"60", "300"})
+    public int items;
+
+    private String json;
+    private TypeAdapter<ImgurResponseWrapper<List<GalleryItem>>> adapter;
+
+    @Setup
+    public void setup() throws BaringoApiException {
+        json = Fixtures.galleryPage(items);
+        // the converter looks its adapter up once, so that's left out
+        adapter = BenchmarkAccess.clientGson()
+                .getAdapter(new TypeToken<ImgurResponseWrapper<List<GalleryItem>>>() {
+                });
+    } // setup
+
+    @Benchmark
+    public List<GalleryItem> decodePage() throws IOException {
+        return adapter.fromJson(new StringReader(json)).getData();
+    } // decodePage
+
+} // class GalleryDecodeBenchmark
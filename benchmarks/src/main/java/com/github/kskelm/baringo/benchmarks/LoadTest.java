@@ -0,0 +1,261 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.benchmarks;
+
+import com.github.kskelm.baringo.BaringoClient;
+import com.github.kskelm.baringo.InMemoryMetrics;
+import com.github.kskelm.baringo.model.Comment;
+import com.github.kskelm.baringo.model.gallery.GalleryItem;
+import com.github.kskelm.baringo.util.BaringoApiException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a client with N concurrent callers for a while and reports
+ * the end-to-end throughput and latency of each operation, plus what
+ * the client's own metrics saw on the wire.  Runs against a
+ * {@link MockImgurServer} started on the spot unless given a URL.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.github.kskelm.baringo.benchmarks.LoadTest \
+ *     --callers 32 --seconds 30 --latency 20-80 --errors 0.01 --throttle 0.01
+ * </pre>
+ * Options:
+ * <ul>
+ * <li>--callers N: concurrent callers (16)</li>
+ * <li>--seconds N: how long to measure (30), after --warmup N seconds (5)</li>
+ * <li>--latency MIN-MAX: mock server delay in milliseconds (0-0)</li>
+ * <li>--errors RATE, --throttle RATE: mock 500 and 429 rates (0)</li>
+ * <li>--credits N: mock credits per hour, user and application (12500)</li>
+ * <li>--user: log a user in through the token endpoint first</li>
+ * <li>--url URL: hit this server instead of a mock</li>
+ * </ul>
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class LoadTest {
+
+    private final Map<String, String> options;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+    } // constructor
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i]);
+            } // if
+            String name = args[i].substring(2);
+            boolean flag = i + 1 >= args.length || args[i + 1].startsWith("--");
+            options.put(name, flag ? "true" : args[++i]);
+        } // for
+        new LoadTest(options).run();
+    } // main
+
+    private void run() throws Exception {
+        int callers = intOption("callers", 16);
+        int warmup = intOption("warmup", 5);
+        int seconds = intOption("seconds", 30);
+
+        MockImgurServer server = null;
+        String url = options.get("url");
+        if (url == null) {
+            String[] latency = options.getOrDefault("latency", "0-0").split("-");
+            int credits = intOption("credits", 12_500);
+            server = new MockImgurServer()
+                    .latency(Long.parseLong(latency[0]),
+                            Long.parseLong(latency[latency.length - 1]), TimeUnit.MILLISECONDS)
+                    .errorRate(Double.parseDouble(options.getOrDefault("errors", "0")))
+                    .throttleRate(Double.parseDouble(options.getOrDefault("throttle", "0")), 1)
+                    .quota(credits, credits, 1, TimeUnit.HOURS)
+                    .start();
+            url = server.getUrl();
+        } // if
+
+        try {
+            InMemoryMetrics metrics = new InMemoryMetrics();
+            BaringoClient client = new BaringoClient.Builder()
+                    .clientAuth(options.getOrDefault("client-id", "load-test"),
+                            options.getOrDefault("client-secret", "load-test"))
+                    .apiEndpoint(url)
+                    .maxRequests(Math.max(64, callers))
+                    .maxRequestsPerHost(callers)
+                    .connectionPool(callers, 5, TimeUnit.MINUTES)
+                    .metrics(metrics)
+                    .build();
+            if (options.containsKey("user")) {
+                client.authService().setRefreshToken(options.getOrDefault("refresh-token", "mock-refresh"));
+            } // if
+
+            System.out.printf("%d callers against %s: %ds warmup, %ds measured%n",
+                    callers, url, warmup, seconds);
+            drive(client, callers, warmup);
+            metrics.reset();
+            List<Operation> results = drive(client, callers, seconds);
+
+            report(results, seconds);
+            System.out.println();
+            System.out.println(metrics.snapshot());
+            System.out.println(client.getQuota());
+            if (server != null) {
+                System.out.println("mock server saw " + server.getRequestCount() + " requests");
+            } // if
+        } finally {
+            if (server != null) {
+                server.close();
+            } // if
+        } // try-finally
+    } // run
+
+    /**
+     * Runs every caller until the time's up, each picking operations
+     * at random, and returns their latencies merged by operation.
+     */
+    private List<Operation> drive(BaringoClient client, int callers, int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService pool = Executors.newFixedThreadPool(callers, r -> {
+            Thread t = new Thread(r, "baringo-load");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<List<Operation>>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(pool.submit(() -> {
+                    List<Operation> ops = operations(client);
+                    while (System.nanoTime() < deadline) {
+                        ops.get(ThreadLocalRandom.current().nextInt(ops.size())).runOnce();
+                    } // while
+                    return ops;
+                }));
+            } // for
+
+            List<Operation> merged = operations(client);
+            for (Future<List<Operation>> future : futures) {
+                List<Operation> ops = future.get();
+                for (int i = 0; i < merged.size(); i++) {
+                    merged.get(i).merge(ops.get(i));
+                } // for
+            } // for
+            return merged;
+        } finally {
+            pool.shutdownNow();
+        } // try-finally
+    } // drive
+
+    // the mix each caller draws from, evenly
+    private static List<Operation> operations(BaringoClient client) {
+        return Arrays.asList(
+                new Operation("listGallery", () -> {
+                    List<GalleryItem> items = client.galleryService().listGallery(
+                            GalleryItem.Section.Hot, GalleryItem.Sort.Viral,
+                            GalleryItem.Window.Day, true, ThreadLocalRandom.current().nextInt(10));
+                    return items.size();
+                }),
+                new Operation("getImageInfo", () -> {
+                    client.imageService().getImageInfo("img" + ThreadLocalRandom.current().nextInt(1000));
+                    return 1;
+                }),
+                new Operation("getAlbum", () -> {
+                    client.albumService().getAlbum("alb" + ThreadLocalRandom.current().nextInt(100));
+                    return 1;
+                }),
+                new Operation("getComment", () -> {
+                    Comment c = client.commentService().getComment(
+                            1_000_000_000L + ThreadLocalRandom.current().nextInt(1000));
+                    return c.getChildren().size() + 1;
+                }),
+                new Operation("getItemComments", () -> {
+                    List<Comment> comments = client.galleryService().getItemComments(
+                            "item" + ThreadLocalRandom.current().nextInt(100), Comment.Sort.Best);
+                    return comments.size();
+                }));
+    } // operations
+
+    private static void report(List<Operation> results, int seconds) {
+        long total = 0;
+        System.out.printf("%n%-16s %9s %8s %9s %8s %8s %8s %8s%n",
+                "operation", "calls", "errors", "calls/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Operation op : results) {
+            total += op.count;
+            long[] sorted = Arrays.copyOf(op.latencies, op.count);
+            Arrays.sort(sorted);
+            System.out.printf("%-16s %9d %8d %9.1f %8.1f %8.1f %8.1f %8.1f%n",
+                    op.name, op.count, op.errors, (double) op.count / seconds,
+                    millis(sorted, 0.50), millis(sorted, 0.95), millis(sorted, 0.99), millis(sorted, 1));
+        } // for
+        System.out.printf("%-16s %9d %8s %9.1f%n", "total", total, "", (double) total / seconds);
+    } // report
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        } // if
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    } // millis
+
+    private int intOption(String name, int fallback) {
+        String value = options.get(name);
+        return value == null ? fallback : Integer.parseInt(value);
+    } // intOption
+
+    @FunctionalInterface
+    private interface Call {
+        int call() throws BaringoApiException;
+    }
+
+    /**
+     * One kind of call and the latencies of every time it ran, kept
+     * whole so the percentiles are exact.  Each caller has its own,
+     * merged at the end, so nothing is shared while measuring.
+     */
+    private static class Operation {
+        private final String name;
+        private final Call call;
+        private long[] latencies = new long[1024];
+        private int count = 0;
+        private int errors = 0;
+
+        Operation(String name, Call call) {
+            this.name = name;
+            this.call = call;
+        } // constructor
+
+        void runOnce() {
+            long start = System.nanoTime();
+            try {
+                call.call();
+            } catch (BaringoApiException e) {
+                errors++;
+            } // try-catch
+            record(System.nanoTime() - start);
+        } // runOnce
+
+        void merge(Operation other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i]);
+            } // for
+            errors += other.errors;
+        } // merge
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            } // if
+            latencies[count++] = nanos;
+        } // record
+    } // class Operation
+
+} // class LoadTest
@@ -0,0 +1,402 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A stand-in for the Imgur API on localhost, for load testing the
+ * client without spending real credits.  Point a client at it with
+ * {@link com.github.kskelm.baringo.BaringoClient.Builder#apiEndpoint}.
+ * <p>
+ * It answers the gallery, image, album and comment reads and the
+ * OAuth2 token exchange with the same fixtures the benchmarks parse,
+ * wrapped in Imgur's envelope.  Every response carries X-RateLimit
+ * headers counting down from a quota that resets on a window, and
+ * the quota running out gets a 429 like the real thing.  On top of
+ * that it can be made slow and unreliable:
+ * <ul>
+ * <li>{@link #latency} delays every response by a random amount in a range</li>
+ * <li>{@link #errorRate} answers a fraction of requests with a 500</li>
+ * <li>{@link #throttleRate} answers a fraction with a 429 and a Retry-After</li>
+ * </ul>
+ * Anything else gets a 404 in Imgur's error format.
+ * <pre>
+ * try (MockImgurServer server = new MockImgurServer().latency(20, 80, TimeUnit.MILLISECONDS).start()) {
+ *     BaringoClient client = new BaringoClient.Builder()
+ *         .clientAuth("id", "secret")
+ *         .apiEndpoint(server.getUrl())
+ *         .build();
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class MockImgurServer implements AutoCloseable {
+
+    private static final Logger log = Logger.getLogger("baringo.mock");
+
+    private static final Pattern GALLERY_COMMENTS = Pattern.compile("/3/gallery/([^/]+)/comments(?:/([^/]+))?/?");
+    private static final Pattern GALLERY = Pattern.compile("/3/gallery/.*");
+    private static final Pattern IMAGE = Pattern.compile("/3/image/([^/]+)/?");
+    private static final Pattern ALBUM = Pattern.compile("/3/album/([^/]+)(/images)?/?");
+    private static final Pattern COMMENT = Pattern.compile("/3/comment/(\\d+)(/replies)?/?");
+
+    private final Map<String, String> fixtures = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicInteger userCredits = new AtomicInteger();
+    private final AtomicInteger applicationCredits = new AtomicInteger();
+    private final AtomicLong quotaResetAt = new AtomicLong();
+
+    private int port = 0;
+    private long minLatencyMillis = 0;
+    private long maxLatencyMillis = 0;
+    private double errorRate = 0;
+    private double throttleRate = 0;
+    private int retryAfterSeconds = 1;
+    private int userCreditLimit = 12_500;
+    private int applicationCreditLimit = 12_500;
+    private long quotaWindowMillis = TimeUnit.HOURS.toMillis(1);
+    private int galleryPageSize = 60;
+    private int commentsPerItem = 200;
+
+    private HttpServer server = null;
+    private ExecutorService executor = null;
+
+    /**
+     * Sets the port to listen on.  Defaults to any free port.
+     * @param port the port, or 0 for any
+     * @return this server
+     */
+    public MockImgurServer port(int port) {
+        this.port = port;
+
+        return this;
+    }
+
+    /**
+     * Delays every response by a random time in the given range
+     * @param min  the least delay
+     * @param max  the most delay
+     * @param unit the unit of min and max
+     * @return this server
+     */
+    public MockImgurServer latency(long min, long max, TimeUnit unit) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("need 0 <= min <= max");
+        } // if
+        this.minLatencyMillis = unit.toMillis(min);
+        this.maxLatencyMillis = unit.toMillis(max);
+
+        return this;
+    }
+
+    /**
+     * Answers this fraction of requests with a 500
+     * @param rate from 0 to 1
+     * @return this server
+     */
+    public MockImgurServer errorRate(double rate) {
+        this.errorRate = rate;
+
+        return this;
+    }
+
+    /**
+     * Answers this fraction of requests with a 429, as if Imgur were
+     * shedding load, telling the client to come back after a while
+     * @param rate              from 0 to 1
+     * @param retryAfterSeconds the Retry-After to send
+     * @return this server
+     */
+    public MockImgurServer throttleRate(double rate, int retryAfterSeconds) {
+        this.throttleRate = rate;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        return this;
+    }
+
+    /**
+     * Sets the credits handed out per quota window.  Each request
+     * costs one of each; once either runs out, everything gets a 429
+     * until the window resets.  Defaults to Imgur's 12,500 per hour.
+     * @param userCredits        the user credits per window
+     * @param applicationCredits the application credits per window
+     * @param window             how long a window lasts
+     * @param unit               the unit of window
+     * @return this server
+     */
+    public MockImgurServer quota(int userCredits, int applicationCredits, long window, TimeUnit unit) {
+        this.userCreditLimit = userCredits;
+        this.applicationCreditLimit = applicationCredits;
+        this.quotaWindowMillis = unit.toMillis(window);
+
+        return this;
+    }
+
+    /**
+     * Sets how big the fixtures served are
+     * @param galleryPageSize  items per gallery page; defaults to 60
+     * @param commentsPerItem  comments on each gallery item; defaults to 200
+     * @return this server
+     */
+    public MockImgurServer fixtureSizes(int galleryPageSize, int commentsPerItem) {
+        this.galleryPageSize = galleryPageSize;
+        this.commentsPerItem = commentsPerItem;
+        fixtures.clear();
+
+        return this;
+    }
+
+    /**
+     * Starts listening on the loopback interface
+     * @return this server
+     * @throws IOException the port couldn't be bound
+     */
+    public synchronized MockImgurServer start() throws IOException {
+        if (server != null) {
+            return this;
+        } // if
+        resetQuota(System.currentTimeMillis());
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "baringo-mock-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    } // start
+
+    /**
+     * Stops the server, dropping anything in flight
+     */
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+        } // if
+    } // close
+
+    /**
+     * Returns the base URL to give a client
+     * @return the URL, e.g. http://127.0.0.1:54321/
+     */
+    public synchronized String getUrl() {
+        if (server == null) {
+            throw new IllegalStateException("not started");
+        } // if
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort() + "/";
+    }
+
+    /**
+     * Returns the number of requests received since starting
+     * @return the count
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    // =========================================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requestCount.incrementAndGet();
+            try (InputStream in = exchange.getRequestBody()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            } // try
+
+            long delay = minLatencyMillis == maxLatencyMillis
+                    ? minLatencyMillis
+                    : ThreadLocalRandom.current().nextLong(minLatencyMillis, maxLatencyMillis + 1);
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } // try-catch
+            } // if
+
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            boolean chargeable = path.startsWith("/3/");
+            if (chargeable && !spendCredit()) {
+                long resetSeconds = Math.max(1, (quotaResetAt.get() - System.currentTimeMillis() + 999) / 1000);
+                exchange.getResponseHeaders().set("Retry-After", Long.toString(resetSeconds));
+                respond(exchange, 429, error(path, method, 429, "Imgur is temporarily over capacity. Please try again later."));
+                return;
+            } // if
+
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < errorRate) {
+                respond(exchange, 500, error(path, method, 500, "Internal server error"));
+                return;
+            } else if (roll < errorRate + throttleRate) {
+                exchange.getResponseHeaders().set("Retry-After", Integer.toString(retryAfterSeconds));
+                respond(exchange, 429, error(path, method, 429, "Too Many Requests"));
+                return;
+            } // if-else
+
+            route(exchange, method, path);
+        } catch (RuntimeException e) {
+            log.warning("Mock server failed on " + exchange.getRequestURI() + ": " + e);
+            respond(exchange, 500, error(exchange.getRequestURI().getPath(),
+                    exchange.getRequestMethod(), 500, e.toString()));
+        } finally {
+            exchange.close();
+        } // try-catch
+    } // handle
+
+    private void route(HttpExchange exchange, String method, String path) throws IOException {
+        if (path.equals("/oauth2/token") && method.equals("POST")) {
+            respond(exchange, 200, token());
+            return;
+        } else if (path.equals("/oauth2/secret")) {
+            respond(exchange, 200, "");
+            return;
+        } else if (!method.equals("GET")) {
+            respond(exchange, 404, error(path, method, 404, "Mock only serves reads"));
+            return;
+        } // if-else
+
+        Matcher m;
+        if ((m = GALLERY_COMMENTS.matcher(path)).matches()) {
+            String tail = m.group(2);
+            if ("ids".equals(tail)) {
+                respond(exchange, 200, envelope(fixture("ids", () -> commentIds(commentsPerItem))));
+            } else if ("count".equals(tail)) {
+                respond(exchange, 200, envelope(Integer.toString(commentsPerItem)));
+            } else {
+                respond(exchange, 200, envelope(fixture("comments",
+                        () -> Fixtures.commentArray(commentsPerItem, 10))));
+            } // if-else
+        } else if (GALLERY.matcher(path).matches()) {
+            respond(exchange, 200, fixture("gallery", () -> Fixtures.galleryPage(galleryPageSize)));
+        } else if ((m = IMAGE.matcher(path)).matches()) {
+            String id = m.group(1);
+            respond(exchange, 200, envelope(fixture("image/" + id, () -> Fixtures.image(id))));
+        } else if ((m = ALBUM.matcher(path)).matches()) {
+            String album = fixture("album", () -> Fixtures.album(20));
+            if (m.group(2) != null) {
+                respond(exchange, 200, envelope(album.substring(album.indexOf("\"images\":[") + 9,
+                        album.length() - 1)));
+            } else {
+                respond(exchange, 200, envelope(album));
+            } // if-else
+        } else if ((m = COMMENT.matcher(path)).matches()) {
+            long id = Long.parseLong(m.group(1));
+            if (m.group(2) != null) {
+                respond(exchange, 200, envelope(fixture("replies", () -> Fixtures.commentArray(5, 3))));
+            } else {
+                respond(exchange, 200, envelope(fixture("comment/" + id, () -> Fixtures.comment(id))));
+            } // if-else
+        } else {
+            respond(exchange, 404, error(path, method, 404, "Unable to find the requested route"));
+        } // if-else
+    } // route
+
+    // one credit of each kind, unless there isn't one; resets the
+    // window when it has passed
+    private boolean spendCredit() {
+        long now = System.currentTimeMillis();
+        long resetAt = quotaResetAt.get();
+        if (now >= resetAt && quotaResetAt.compareAndSet(resetAt, now + quotaWindowMillis)) {
+            userCredits.set(userCreditLimit);
+            applicationCredits.set(applicationCreditLimit);
+        } // if
+        if (userCredits.getAndUpdate(c -> Math.max(0, c - 1)) <= 0) {
+            return false;
+        } // if
+        if (applicationCredits.getAndUpdate(c -> Math.max(0, c - 1)) <= 0) {
+            return false;
+        } // if
+        return true;
+    } // spendCredit
+
+    private void resetQuota(long now) {
+        quotaResetAt.set(now + quotaWindowMillis);
+        userCredits.set(userCreditLimit);
+        applicationCredits.set(applicationCreditLimit);
+    } // resetQuota
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        exchange.getResponseHeaders().set("X-RateLimit-UserLimit", Integer.toString(userCreditLimit));
+        exchange.getResponseHeaders().set("X-RateLimit-UserRemaining", Integer.toString(userCredits.get()));
+        exchange.getResponseHeaders().set("X-RateLimit-UserReset", Long.toString(quotaResetAt.get() / 1000));
+        exchange.getResponseHeaders().set("X-RateLimit-ClientLimit", Integer.toString(applicationCreditLimit));
+        exchange.getResponseHeaders().set("X-RateLimit-ClientRemaining", Integer.toString(applicationCredits.get()));
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (exchange.getRequestMethod().equals("HEAD") || bytes.length == 0) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        } // if
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        } // try
+    } // respond
+
+    private String fixture(String key, Supplier<String> maker) {
+        return fixtures.computeIfAbsent(key, k -> maker.get());
+    } // fixture
+
+    private static String envelope(String data) {
+        return "{\"data\":" + data + ",\"success\":true,\"status\":200}";
+    } // envelope
+
+    private static String error(String path, String method, int status, String message) {
+        return "{\"data\":{\"error\":\"" + message + "\",\"request\":\"" + path
+                + "\",\"method\":\"" + method + "\"},\"success\":false,\"status\":" + status + "}";
+    } // error
+
+    private static String token() {
+        String access = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        return "{\"access_token\":\"" + access + "\",\"expires_in\":2419200,"
+                + "\"token_type\":\"bearer\",\"scope\":null,"
+                + "\"refresh_token\":\"mock-refresh\",\"account_id\":12345,"
+                + "\"account_username\":\"mock\"}";
+    } // token
+
+    private static String commentIds(int count) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            } // if
+            sb.append(1_000_000_000L + i);
+        } // for
+        return sb.append(']').toString();
+    } // commentIds
+
+} // class MockImgurServer
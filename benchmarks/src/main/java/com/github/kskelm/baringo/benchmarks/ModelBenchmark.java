@@ -0,0 +1,79 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.benchmarks;
+
+import com.github.kskelm.baringo.BenchmarkAccess;
+import com.github.kskelm.baringo.model.Album;
+import com.github.kskelm.baringo.model.search.CompoundSearchQuery;
+import com.github.kskelm.baringo.util.BaringoApiException;
+import com.github.kskelm.baringo.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The model-side work around a call: the reflective toString every
+ * model uses, readying an album to be saved, copying one album over
+ * another after an update, and rendering a compound search query.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    @Param({"10", "100"})
+    public int images;
+
+    private Album album;
+    private CompoundSearchQuery query;
+
+    @Setup
+    public void setup() throws BaringoApiException {
+        album = BenchmarkAccess.clientGson().fromJson(Fixtures.album(images), Album.class);
+        query = new CompoundSearchQuery()
+                .title("cat").and("sunset").and("coffee")
+                .user("benchmark")
+                .extension("gif").or("mp4")
+                .subreddit("aww");
+    } // setup
+
+    @Benchmark
+    public String utilsToString() {
+        return Utils.toString(album);
+    } // utilsToString
+
+    @Benchmark
+    public Album prepareForSave() {
+        album.prepareForSave();
+        return album;
+    } // prepareForSave
+
+    @Benchmark
+    public Album copyFrom() {
+        Album copy = new Album();
+        copy.copyFrom(album);
+        return copy;
+    } // copyFrom
+
+    @Benchmark
+    public String compoundQueryToString() {
+        return query.toString();
+    } // compoundQueryToString
+
+} // class ModelBenchmark
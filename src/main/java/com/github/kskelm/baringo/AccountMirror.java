@@ -0,0 +1,572 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.model.Album;
+import com.github.kskelm.baringo.model.Comment;
+import com.github.kskelm.baringo.model.Image;
+import com.github.kskelm.baringo.util.BaringoApiException;
+import com.github.kskelm.baringo.util.BaringoPagingException;
+import com.github.kskelm.baringo.util.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Copies a user's albums, images and comments into a local directory,
+ * and on later runs fetches only what's changed since.
+ * <p>
+ * The directory ends up laid out like this, with metadata written
+ * as Imgur's own JSON:
+ * <pre>
+ * albums/&lt;id&gt;.json     each album, images included
+ * images/&lt;id&gt;.json     each image
+ * comments/&lt;id&gt;.json   each comment
+ * media/              the image files themselves
+ * checkpoint.json     where the last run left off
+ * </pre>
+ * Albums, images and comments are walked at the same time.  The
+ * checkpoint remembers the newest image upload date and comment id
+ * seen, plus a fingerprint of each album's listing, so the next run
+ * stops paging at the first image or comment it already has and only
+ * reloads albums whose title, cover, image count and so on have
+ * changed.  Albums that have gone away are removed locally.  Media
+ * that fails to download is remembered and retried next time.
+ * <p>
+ * An incremental run can't notice an album whose images were merely
+ * reordered, or images and comments that were edited or deleted;
+ * run with {@link #fullSync(boolean)} now and then to catch those.
+ * Imgur only lists images outside of albums for the logged-in user,
+ * so those are skipped when mirroring someone else.
+ * <p>
+ * Get one from {@link AccountService#mirror(String)}:
+ * <pre>
+ * AccountMirror.Report report = client.accountService().mirror("someuser")
+ *     .parallelism(8)
+ *     .mirror(new File("/backups/someuser"));
+ * </pre>
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class AccountMirror {
+
+    private static final Logger log = Logger.getLogger(BaringoClient.LOG_NAME);
+
+    private static final String CHECKPOINT_FILE = "checkpoint.json";
+    private static final String JSON_SUFFIX = ".json";
+
+    private final BaringoClient client;
+    private final String userName;
+    private int parallelism = 4;
+    private boolean downloadMedia = true;
+    private boolean includeComments = true;
+    private boolean fullSync = false;
+
+    protected AccountMirror(BaringoClient client, String userName) {
+        this.client = client;
+        this.userName = userName;
+    } // constructor
+
+    /**
+     * Sets how many album and image requests run at once.  Defaults to 4.
+     * @param parallelism the number of worker threads
+     * @return this mirror
+     */
+    public AccountMirror parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        } // if
+        this.parallelism = parallelism;
+
+        return this;
+    }
+
+    /**
+     * Sets whether the image files are downloaded, or just their
+     * metadata.  Defaults to true.  Media skipped while this is off
+     * is remembered in the checkpoint and downloaded by the next run
+     * that has it on.
+     * @param downloadMedia true to download image files
+     * @return this mirror
+     */
+    public AccountMirror downloadMedia(boolean downloadMedia) {
+        this.downloadMedia = downloadMedia;
+
+        return this;
+    }
+
+    /**
+     * Sets whether the user's comments are mirrored.  Defaults to true.
+     * @param includeComments true to mirror comments
+     * @return this mirror
+     */
+    public AccountMirror comments(boolean includeComments) {
+        this.includeComments = includeComments;
+
+        return this;
+    }
+
+    /**
+     * Sets whether to ignore the checkpoint and walk everything again.
+     * Files already downloaded are still kept.  Defaults to false.
+     * @param fullSync true for a full crawl
+     * @return this mirror
+     */
+    public AccountMirror fullSync(boolean fullSync) {
+        this.fullSync = fullSync;
+
+        return this;
+    }
+
+    /**
+     * Brings the directory up to date with the account.  Blocks until
+     * done.  A part that fails (say, the comments) doesn't stop the
+     * others; it's reported in {@link Report#getErrors()} and its place
+     * in the checkpoint is left where it was so the next run covers it.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b> or <b>AUTHENTICATED USER</b>
+     *
+     * @param directory where to keep the mirror; created if need be
+     * @return what was fetched
+     * @throws IOException          the directory or checkpoint couldn't be read or written
+     * @throws InterruptedException the calling thread was interrupted
+     */
+    public Report mirror(File directory) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        File checkpointFile = new File(directory, CHECKPOINT_FILE);
+        Checkpoint prior = fullSync ? null : readCheckpoint(checkpointFile);
+        if (prior == null) {
+            prior = new Checkpoint();
+        } // if
+        Checkpoint next = new Checkpoint();
+        next.lastImageUpload = prior.lastImageUpload;
+        next.lastCommentId = prior.lastCommentId;
+        Report report = new Report(prior.timestamp != null);
+
+        File albumDir = mkdir(directory, "albums");
+        File imageDir = mkdir(directory, "images");
+        File commentDir = mkdir(directory, "comments");
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService walkers = Executors.newFixedThreadPool(3, r -> {
+            Thread t = new Thread(r, "baringo-mirror-walk-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "baringo-mirror-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // everything whose metadata got written, even by a walk that
+        // later failed, so its media isn't skipped over next time
+        List<Image> toDownload = Collections.synchronizedList(new ArrayList<>());
+        try {
+            Checkpoint from = prior;
+            List<Future<?>> walks = new ArrayList<>();
+            walks.add(walkers.submit(() -> {
+                mirrorImages(imageDir, from, next, report, toDownload);
+                return null;
+            }));
+            walks.add(walkers.submit(() -> {
+                mirrorAlbums(albumDir, imageDir, from, next, report, toDownload, workers);
+                return null;
+            }));
+            walks.add(walkers.submit(() -> {
+                mirrorComments(commentDir, from, next, report);
+                return null;
+            }));
+            for (Future<?> walk : walks) {
+                try {
+                    walk.get();
+                } catch (ExecutionException e) {
+                    report.addError(e.getCause());
+                } // try-catch
+            } // for
+        } finally {
+            walkers.shutdownNow();
+            workers.shutdownNow();
+        } // try-finally
+
+        if (downloadMedia) {
+            downloadMedia(new File(directory, "media"), imageDir, toDownload, prior, next, report);
+        } else {
+            // still owed; a later run with media on picks them up
+            next.pendingMedia.addAll(prior.pendingMedia);
+            for (Image image : toDownload) {
+                next.pendingMedia.add(image.getId());
+            } // for
+        } // if-else
+
+        next.timestamp = new Date(start);
+        writeJson(checkpointFile, next);
+        report.elapsedMillis = System.currentTimeMillis() - start;
+        return report;
+    } // mirror
+
+    /**
+     * Pages through the user's own images, newest first, until it
+     * reaches one uploaded before the checkpoint.
+     */
+    private void mirrorImages(File imageDir, Checkpoint prior, Checkpoint next, Report report,
+                              List<Image> toDownload) throws BaringoApiException, IOException {
+        if (userName == null || !userName.equalsIgnoreCase(client.getAuthenticatedUserName())) {
+            return;
+        } // if
+
+        Date since = prior.lastImageUpload;
+        Date newest = since;
+        try {
+            for (Image image : client.accountService().pageImages()) {
+                Date uploaded = image.getUploadDate();
+                if (since != null && uploaded != null && uploaded.before(since)) {
+                    break;
+                } // if
+                if (newest == null || (uploaded != null && uploaded.after(newest))) {
+                    newest = uploaded;
+                } // if
+                File file = jsonFile(imageDir, image.getId());
+                if (since != null && file.exists()) {
+                    continue; // uploaded the same second as the last one we saw
+                } // if
+                writeJson(file, image);
+                toDownload.add(image);
+                report.imagesFetched.incrementAndGet();
+            } // for
+        } catch (BaringoPagingException e) {
+            throw e.getApiException();
+        } // try-catch
+        next.lastImageUpload = newest;
+    } // mirrorImages
+
+    /**
+     * Lists every album, which is cheap, and reloads the images of
+     * those that are new or whose listing differs from last time.
+     */
+    private void mirrorAlbums(File albumDir, File imageDir, Checkpoint prior, Checkpoint next,
+                              Report report, List<Image> toDownload, ExecutorService workers)
+            throws BaringoApiException, InterruptedException {
+        List<Album> changed = new ArrayList<>();
+        Set<String> listed = new HashSet<>();
+        try {
+            for (Album album : client.accountService().pageAlbums(userName)) {
+                listed.add(album.getId());
+                String fingerprint = fingerprint(album);
+                next.albums.put(album.getId(), fingerprint);
+                if (fingerprint.equals(prior.albums.get(album.getId()))
+                        && jsonFile(albumDir, album.getId()).exists()) {
+                    report.albumsUnchanged.incrementAndGet();
+                } else {
+                    changed.add(album);
+                } // if-else
+            } // for
+        } catch (BaringoPagingException e) {
+            // keep what we knew; nothing below runs without a full listing
+            next.albums.putAll(prior.albums);
+            throw e.getApiException();
+        } // try-catch
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (Album album : changed) {
+            futures.add(workers.submit(() -> {
+                List<Image> images = client.albumService().getAlbumImages(album.getId());
+                album.setImages(images);
+                for (Image image : images) {
+                    writeJson(jsonFile(imageDir, image.getId()), image);
+                } // for
+                toDownload.addAll(images);
+                // written last, since its existence means the album's done
+                writeJson(jsonFile(albumDir, album.getId()), album);
+                return null;
+            }));
+        } // for
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+                report.albumsFetched.incrementAndGet();
+            } catch (ExecutionException e) {
+                // forget its fingerprint so the next run tries it again
+                next.albums.remove(changed.get(i).getId());
+                report.addError(e.getCause());
+            } // try-catch
+        } // for
+
+        // anything left on disk that Imgur didn't list is gone; an
+        // album that failed to reload was listed, so its old copy stays
+        File[] files = albumDir.listFiles((dir, name) -> name.endsWith(JSON_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String id = file.getName().substring(0, file.getName().length() - JSON_SUFFIX.length());
+                if (!listed.contains(id) && file.delete()) {
+                    report.albumsRemoved.incrementAndGet();
+                } // if
+            } // for
+        } // if
+    } // mirrorAlbums
+
+    /**
+     * Pages through the user's comments, newest first, until it
+     * reaches one at or below the checkpoint's id.
+     */
+    private void mirrorComments(File commentDir, Checkpoint prior, Checkpoint next, Report report)
+            throws BaringoApiException, IOException {
+        if (!includeComments) {
+            return;
+        } // if
+
+        long since = prior.lastCommentId;
+        long newest = since;
+        try {
+            for (Comment comment : client.accountService().pageComments(userName, Comment.Sort.Newest)) {
+                if (comment.getId() <= since) {
+                    break;
+                } // if
+                newest = Math.max(newest, comment.getId());
+                writeJson(jsonFile(commentDir, String.valueOf(comment.getId())), comment);
+                report.commentsFetched.incrementAndGet();
+            } // for
+        } catch (BaringoPagingException e) {
+            throw e.getApiException();
+        } // try-catch
+        next.lastCommentId = newest;
+    } // mirrorComments
+
+    /**
+     * Downloads the media for everything new, plus whatever failed
+     * last time, and remembers what fails now.
+     */
+    private void downloadMedia(File mediaDir, File imageDir, List<Image> images,
+                               Checkpoint prior, Checkpoint next, Report report)
+            throws IOException, InterruptedException {
+        LinkedHashMap<String, Image> wanted = new LinkedHashMap<>();
+        for (String id : prior.pendingMedia) {
+            File file = jsonFile(imageDir, id);
+            if (file.exists()) {
+                wanted.put(id, readJson(file, Image.class));
+            } // if
+        } // for
+        for (Image image : images) {
+            wanted.put(image.getId(), image);
+        } // for
+        if (wanted.isEmpty()) {
+            return;
+        } // if
+
+        List<Image> list = new ArrayList<>(wanted.values());
+        BulkDownloader.Report downloads = client.imageService().bulkDownloader()
+                .parallelism(parallelism)
+                .downloadImages(list, mediaDir);
+        List<BulkDownloader.Outcome> outcomes = downloads.getOutcomes();
+        for (int i = 0; i < outcomes.size(); i++) {
+            if (outcomes.get(i).getStatus() == BulkDownloader.Status.FAILED) {
+                next.pendingMedia.add(list.get(i).getId());
+            } // if
+        } // for
+        report.downloads = downloads;
+    } // downloadMedia
+
+    // the parts of an album listing that change when its contents do;
+    // not the view count, which changes all the time
+    private static String fingerprint(Album album) {
+        return album.getImageCount() + "|" + album.getCoverId() + "|" + album.getPrivacy()
+                + "|" + album.getLayout() + "|" + album.isNsfw()
+                + "|" + album.getTitle() + "|" + album.getDescription();
+    } // fingerprint
+
+    private static File mkdir(File parent, String name) throws IOException {
+        File dir = new File(parent, name);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        } // if
+        return dir;
+    } // mkdir
+
+    private static File jsonFile(File dir, String id) {
+        return new File(dir, id + JSON_SUFFIX);
+    } // jsonFile
+
+    // written beside and moved into place, so neither a crash nor two
+    // walks writing the same image can leave half a file behind
+    private void writeJson(File file, Object value) throws IOException {
+        Path temp = Files.createTempFile(file.getParentFile().toPath(), file.getName() + ".", ".part");
+        try {
+            try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                client.getGson().toJson(value, out);
+            } // try
+            Files.move(temp, file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        } // try-finally
+    } // writeJson
+
+    private <T> T readJson(File file, Class<T> cls) throws IOException {
+        try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return client.getGson().fromJson(in, cls);
+        } // try
+    } // readJson
+
+    private Checkpoint readCheckpoint(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        } // if
+        try {
+            return readJson(file, Checkpoint.class);
+        } catch (RuntimeException e) {
+            log.warning("Ignoring unreadable checkpoint " + file + ": " + e.getMessage());
+            return null;
+        } // try-catch
+    } // readCheckpoint
+
+    /**
+     * Where a mirror left off, kept in checkpoint.json
+     */
+    private static class Checkpoint {
+        private Date timestamp = null;
+        private Date lastImageUpload = null;
+        private long lastCommentId = 0;
+        private HashMap<String, String> albums = new HashMap<>();
+        private LinkedHashSet<String> pendingMedia = new LinkedHashSet<>();
+    } // class Checkpoint
+
+    /**
+     * What a mirror run fetched
+     */
+    public static class Report {
+        private final boolean incremental;
+        private final AtomicInteger albumsFetched = new AtomicInteger();
+        private final AtomicInteger albumsUnchanged = new AtomicInteger();
+        private final AtomicInteger albumsRemoved = new AtomicInteger();
+        private final AtomicInteger imagesFetched = new AtomicInteger();
+        private final AtomicInteger commentsFetched = new AtomicInteger();
+        private final List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+        private BulkDownloader.Report downloads = null;
+        private long elapsedMillis = 0;
+
+        protected Report(boolean incremental) {
+            this.incremental = incremental;
+        } // constructor
+
+        private void addError(Throwable error) {
+            if (error instanceof BaringoPagingException) {
+                error = ((BaringoPagingException) error).getApiException();
+            } // if
+            log.warning("Part of an account mirror failed: " + error);
+            errors.add(error instanceof Exception ? (Exception) error : new RuntimeException(error));
+        } // addError
+
+        /**
+         * Returns true if this run picked up from a checkpoint
+         * @return true if incremental
+         */
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        /**
+         * Returns the number of new or changed albums that were reloaded
+         * @return the count
+         */
+        public int getAlbumsFetched() {
+            return albumsFetched.get();
+        }
+
+        /**
+         * Returns the number of albums left alone since they hadn't changed
+         * @return the count
+         */
+        public int getAlbumsUnchanged() {
+            return albumsUnchanged.get();
+        }
+
+        /**
+         * Returns the number of albums removed locally because
+         * they're gone from Imgur
+         * @return the count
+         */
+        public int getAlbumsRemoved() {
+            return albumsRemoved.get();
+        }
+
+        /**
+         * Returns the number of new images found outside of albums
+         * @return the count
+         */
+        public int getImagesFetched() {
+            return imagesFetched.get();
+        }
+
+        /**
+         * Returns the number of new comments
+         * @return the count
+         */
+        public int getCommentsFetched() {
+            return commentsFetched.get();
+        }
+
+        /**
+         * Returns how the media downloads went, or null if there
+         * was nothing to download
+         * @return the download report
+         */
+        public BulkDownloader.Report getDownloads() {
+            return downloads;
+        }
+
+        /**
+         * Returns whatever went wrong along the way.  Empty if the
+         * whole account was brought up to date.
+         * @return the errors
+         */
+        public List<Exception> getErrors() {
+            return Collections.unmodifiableList(new ArrayList<>(errors));
+        }
+
+        /**
+         * Returns how long the whole run took
+         * @return elapsed milliseconds
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            HashMap<String, Object> fields = new HashMap<>();
+            fields.put("incremental", incremental);
+            fields.put("albumsFetched", getAlbumsFetched());
+            fields.put("albumsUnchanged", getAlbumsUnchanged());
+            fields.put("albumsRemoved", getAlbumsRemoved());
+            fields.put("imagesFetched", getImagesFetched());
+            fields.put("commentsFetched", getCommentsFetched());
+            fields.put("downloads", downloads);
+            fields.put("errors", errors.size());
+            fields.put("elapsedMillis", elapsedMillis);
+            return Utils.toString(fields, Report.class.getSimpleName());
+        } // toString
+    } // class Report
+
+} // class AccountMirror
@@ -5,16 +5,17 @@ package com.github.kskelm.baringo;
 
 import com.github.kskelm.baringo.model.*;
 import com.github.kskelm.baringo.model.gallery.GalleryItem;
-import com.github.kskelm.baringo.model.gallery.GalleryItemProxy;
 import com.github.kskelm.baringo.model.gallery.GalleryProfile;
 import com.github.kskelm.baringo.util.BaringoApiException;
 import com.github.kskelm.baringo.util.BaringoAuthException;
+import com.github.kskelm.baringo.util.Pager;
 import com.google.gson.GsonBuilder;
 import retrofit2.Call;
 import retrofit2.Response;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -27,9 +28,22 @@ import java.util.List;
  */
 public class AccountService {
     private BaringoClient client = null;
+    private final Async async = new Async();
+    private final EntityCache<String, Account> cache;
 
     protected AccountService(BaringoClient imgurClient, GsonBuilder gsonBuilder) {
         this.client = imgurClient;
+        this.cache = imgurClient.newEntityCache("account", Account.class);
+    }
+
+    /**
+     * Returns the non-blocking flavor of this service.  Every method
+     * mirrors its blocking counterpart but returns a CompletableFuture.
+     *
+     * @return the async account service
+     */
+    public Async async() {
+        return async;
     }
 
     /**
@@ -41,6 +55,11 @@ public class AccountService {
      * @throws BaringoApiException something went pear-shaped
      */
     public Account getAccount(String userName) throws BaringoApiException {
+        Account cached = cache.get(userName);
+        if (cached != null) {
+            return cached;
+        } // if
+
         Call<ImgurResponseWrapper<Account>> call =
                 client.getApi().getAccount(userName);
 
@@ -49,9 +68,10 @@ public class AccountService {
             ImgurResponseWrapper<Account> out = res.body();
             client.throwOnWrapperError(res);
 
+            cache.put(userName, out.getData());
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // getAccount
 
@@ -92,21 +112,38 @@ public class AccountService {
                                                   int page,
                                                   Account.GallerySort sort
     ) throws BaringoApiException {
-        Call<ImgurResponseWrapper<List<GalleryItemProxy>>> call =
+        Call<ImgurResponseWrapper<List<GalleryItem>>> call =
                 client.getApi().listAccountGalleryFavorites(userName, page, sort);
 
         try {
-            Response<ImgurResponseWrapper<List<GalleryItemProxy>>> res = call.execute();
-            ImgurResponseWrapper<List<GalleryItemProxy>> out = res.body();
+            Response<ImgurResponseWrapper<List<GalleryItem>>> res = call.execute();
+            ImgurResponseWrapper<List<GalleryItem>> out = res.body();
 
             client.throwOnWrapperError(res);
 
-            return client.galleryService().convertToGalleryItems(out.getData());
+            return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listFavorites
 
+    /**
+     * Lazily pages through a user's gallery favorites, page 0 onward.
+     * The next page is requested in the background while the current
+     * one is being consumed.  Iteration stops at the first empty page,
+     * or see {@link Pager#maxItems}.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param userName name of the user to get favorites for
+     * @param sort the sort direction for results
+     * @return a Pager of GalleryItem objects
+     */
+    public Pager<GalleryItem> pageGalleryFavorites(
+            String userName,
+            Account.GallerySort sort) {
+        return new Pager<>(page -> async.listGalleryFavorites(userName, page, sort));
+    } // pageGalleryFavorites
+
     /**
      * Return a list of GalleryItems this user has favorited.
      * GalleryItem is the superclass for GalleryImage and
@@ -123,18 +160,18 @@ public class AccountService {
             throw new BaringoAuthException("No user logged in", 401);
         } // if
 
-        Call<ImgurResponseWrapper<List<GalleryItemProxy>>> call =
+        Call<ImgurResponseWrapper<List<GalleryItem>>> call =
                 client.getApi().listAccountFavorites(userName);
 
         try {
-            Response<ImgurResponseWrapper<List<GalleryItemProxy>>> res = call.execute();
-            ImgurResponseWrapper<List<GalleryItemProxy>> out = res.body();
+            Response<ImgurResponseWrapper<List<GalleryItem>>> res = call.execute();
+            ImgurResponseWrapper<List<GalleryItem>> out = res.body();
 
             client.throwOnWrapperError(res);
 
-            return client.galleryService().convertToGalleryItems(out.getData());
+            return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listFavorites
 
@@ -153,21 +190,35 @@ public class AccountService {
      */
     public List<GalleryItem> listSubmissions(String userName,
                                              int page) throws BaringoApiException {
-        Call<ImgurResponseWrapper<List<GalleryItemProxy>>> call =
+        Call<ImgurResponseWrapper<List<GalleryItem>>> call =
                 client.getApi().listAccountSubmissions(userName, page);
 
         try {
-            Response<ImgurResponseWrapper<List<GalleryItemProxy>>> res = call.execute();
-            ImgurResponseWrapper<List<GalleryItemProxy>> out = res.body();
+            Response<ImgurResponseWrapper<List<GalleryItem>>> res = call.execute();
+            ImgurResponseWrapper<List<GalleryItem>> out = res.body();
 
             client.throwOnWrapperError(res);
 
-            return client.galleryService().convertToGalleryItems(out.getData());
+            return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listSubmissions
 
+    /**
+     * Lazily pages through the items a user has submitted to the
+     * gallery, page 0 onward.  The next page is requested in the
+     * background while the current one is being consumed.  Iteration
+     * stops at the first empty page, or see {@link Pager#maxItems}.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param userName the user whose submissions to return
+     * @return a Pager of GalleryItem objects
+     */
+    public Pager<GalleryItem> pageSubmissions(String userName) {
+        return new Pager<>(page -> async.listSubmissions(userName, page));
+    } // pageSubmissions
+
     /**
      * Return the settings on the currently authenticated account.
      * <p>
@@ -192,7 +243,7 @@ public class AccountService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // getAccountSettings
 
@@ -208,6 +259,7 @@ public class AccountService {
         if (userName == null) {
             throw new BaringoAuthException("No user logged in", 403);
         } // if
+        cache.invalidate(userName); // bio and friends live on Account
 
         Call<ImgurResponseWrapper<Object>> call =
                 client.getApi().setAccountSettings(userName, settings);
@@ -217,7 +269,9 @@ public class AccountService {
             client.throwOnWrapperError(res);
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            cache.invalidate(userName);
         }
     } // setAccountSettings
 
@@ -241,7 +295,7 @@ public class AccountService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // getGalleryProfile
 
@@ -269,7 +323,7 @@ public class AccountService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // isVerified
 
@@ -297,7 +351,7 @@ public class AccountService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // sendVerificationEmail
 
@@ -325,10 +379,24 @@ public class AccountService {
             return out.getData();
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listAlbums
 
+    /**
+     * Lazily pages through a user's albums, page 0 onward.  The next
+     * page is requested in the background while the current one is
+     * being consumed.  Iteration stops at the first empty page, or
+     * see {@link Pager#maxItems}.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param userName the user whose albums to return
+     * @return a Pager of Album objects
+     */
+    public Pager<Album> pageAlbums(String userName) {
+        return new Pager<>(page -> async.listAlbums(userName, page));
+    } // pageAlbums
+
     /**
      * Returns a list of album IDs associated with the given
      * userName, paged 50 at a time
@@ -351,7 +419,7 @@ public class AccountService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listAlbumIds
 
@@ -377,7 +445,7 @@ public class AccountService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // getAlbumCount
 
@@ -423,10 +491,27 @@ public class AccountService {
             return out.getData();
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listComments
 
+    /**
+     * Lazily pages through the comments a user has made, page 0
+     * onward.  The next page is requested in the background while
+     * the current one is being consumed.  Iteration stops at the first
+     * empty page, or see {@link Pager#maxItems}.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param userName the user whose comments to return
+     * @param sort the sort order for the comments
+     * @return a Pager of Comment objects
+     */
+    public Pager<Comment> pageComments(
+            String userName,
+            Comment.Sort sort) {
+        return new Pager<>(page -> async.listComments(userName, sort, page));
+    } // pageComments
+
     /**
      * Returns a list of comment IDs associated with the given
      * userName, paged 50 at a time
@@ -451,7 +536,7 @@ public class AccountService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listCommentIds
 
@@ -476,7 +561,7 @@ public class AccountService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // getCommentCount
 
@@ -505,10 +590,35 @@ public class AccountService {
             return out.getData();
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listImages
 
+    /**
+     * Lazily pages through the authenticated user's images, page 0
+     * onward.  The next page is requested in the background while
+     * the current one is being consumed.  Iteration stops at the first
+     * empty page, or see {@link Pager#maxItems}.
+     * <p>
+     * <b>ACCESS: AUTHENTICATED USER</b>
+     * @return a Pager of Image objects
+     */
+    public Pager<Image> pageImages() {
+        return new Pager<>(async::listImages);
+    } // pageImages
+
+
+    /**
+     * Returns a new job for copying a user's albums, images and
+     * comments to a local directory, fetching only what's changed
+     * since the last run.
+     *
+     * @param userName the user to mirror
+     * @return an AccountMirror with default settings
+     */
+    public AccountMirror mirror(String userName) {
+        return new AccountMirror(client, userName);
+    } // mirror
 
     // ================================================
 
@@ -535,7 +645,7 @@ public class AccountService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listImageIds
 
@@ -562,8 +672,288 @@ public class AccountService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // getImageCount
 
+    /**
+     * Non-blocking versions of the AccountService calls.  Failures
+     * complete the future exceptionally with a BaringoApiException.
+     */
+    public class Async {
+
+        /**
+         * Asynchronous version of {@link AccountService#getAccount}.
+         *
+         * @param userName the name of the account
+         * @return a future Account
+         */
+        public CompletableFuture<Account> getAccount(String userName) {
+            Account cached = cache.get(userName);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            } // if
+            return client.enqueue(client.getApi().getAccount(userName))
+                    .thenApply(account -> {
+                        cache.put(userName, account);
+                        return account;
+                    });
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listGalleryFavorites(String, int)}.
+         *
+         * @param userName the userName to return gallery items for
+         * @param page     page number of results to return, starting at 0
+         * @return a future list of gallery items
+         */
+        public CompletableFuture<List<GalleryItem>> listGalleryFavorites(
+                String userName,
+                int page) {
+            return listGalleryFavorites(userName, page, Account.GallerySort.newest);
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listGalleryFavorites(String, int, Account.GallerySort)}.
+         *
+         * @param userName name of the user to get favorites for
+         * @param page     the page number to return starting at 0
+         * @param sort     the sort direction for results
+         * @return a future list of gallery items
+         */
+        public CompletableFuture<List<GalleryItem>> listGalleryFavorites(
+                String userName,
+                int page,
+                Account.GallerySort sort) {
+            return client.enqueue(client.getApi().listAccountGalleryFavorites(userName, page, sort));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listFavorites}.
+         *
+         * @return a future list of gallery items
+         */
+        public CompletableFuture<List<GalleryItem>> listFavorites() {
+            String userName = client.getAuthenticatedUserName();
+            if (userName == null) {
+                return notLoggedIn(401);
+            } // if
+            return client.enqueue(client.getApi().listAccountFavorites(userName));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listSubmissions}.
+         *
+         * @param userName name of the user to get submissions for
+         * @param page     the page number to return starting at 0
+         * @return a future list of gallery items
+         */
+        public CompletableFuture<List<GalleryItem>> listSubmissions(
+                String userName,
+                int page) {
+            return client.enqueue(client.getApi().listAccountSubmissions(userName, page));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#getAccountSettings}.
+         *
+         * @return a future for the account's settings
+         */
+        public CompletableFuture<AccountSettings> getAccountSettings() {
+            String userName = client.getAuthenticatedUserName();
+            if (userName == null) {
+                return notLoggedIn(403);
+            } // if
+            return client.enqueue(client.getApi().getAccountSettings(userName));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#setAccountSettings}.
+         *
+         * @param settings the settings to save
+         * @return a future that completes when the settings are saved
+         */
+        public CompletableFuture<Void> setAccountSettings(ChangedAccountSettings settings) {
+            String userName = client.getAuthenticatedUserName();
+            if (userName == null) {
+                return notLoggedIn(403);
+            } // if
+            cache.invalidate(userName); // bio and friends live on Account
+            return client.enqueue(client.getApi().setAccountSettings(userName, settings))
+                    .thenAccept(out -> {
+                    })
+                    .whenComplete((r, e) -> cache.invalidate(userName));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#getGalleryProfile}.
+         *
+         * @param userName the userName for the account to return the profile of
+         * @return a future GalleryProfile
+         */
+        public CompletableFuture<GalleryProfile> getGalleryProfile(String userName) {
+            return client.enqueue(client.getApi().getAccountGalleryProfile(userName));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#isVerified}.
+         *
+         * @return a future that is true if the email address is verified
+         */
+        public CompletableFuture<Boolean> isVerified() {
+            String userName = client.getAuthenticatedUserName();
+            if (userName == null) {
+                return notLoggedIn(403);
+            } // if
+            return client.enqueue(client.getApi().isAccountVerified(userName));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#sendVerificationEmail}.
+         *
+         * @return a future that is true if a verification email was sent
+         */
+        public CompletableFuture<Boolean> sendVerificationEmail() {
+            String userName = client.getAuthenticatedUserName();
+            if (userName == null) {
+                return notLoggedIn(403);
+            } // if
+            return client.enqueue(client.getApi().sendAccountVerificationEmail(userName));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listAlbums}.
+         *
+         * @param userName the name of the user to fetch albums for
+         * @param page     the page number, starting at 0
+         * @return a future list of Album objects
+         */
+        public CompletableFuture<List<Album>> listAlbums(
+                String userName,
+                int page) {
+            return client.enqueue(client.getApi().listAccountAlbums(userName, page));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listAlbumIds}.
+         *
+         * @param userName the name of the user to fetch album ids for
+         * @param page     the page number to fetch, starting at 0
+         * @return a future list of album IDs
+         */
+        public CompletableFuture<List<String>> listAlbumIds(
+                String userName,
+                int page) {
+            return client.enqueue(client.getApi().listAccountAlbumIds(userName, page));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#getAlbumCount}.
+         *
+         * @param userName the name of the user to fetch an album count for
+         * @return a future for the number of albums the user owns
+         */
+        public CompletableFuture<Integer> getAlbumCount(String userName) {
+            return client.enqueue(client.getApi().getAccountAlbumCount(userName));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listComments(String, int)}.
+         *
+         * @param userName the name of the user to fetch comments for
+         * @param page     the page number, starting at 0
+         * @return a future list of Comment objects
+         */
+        public CompletableFuture<List<Comment>> listComments(
+                String userName,
+                int page) {
+            return listComments(userName, Comment.Sort.Newest, page);
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listComments(String, Comment.Sort, int)}.
+         *
+         * @param userName the name of the user to fetch comments for
+         * @param sort     a sort direction
+         * @param page     the page number, starting at 0
+         * @return a future list of Comment objects
+         */
+        public CompletableFuture<List<Comment>> listComments(
+                String userName,
+                Comment.Sort sort,
+                int page) {
+            return client.enqueue(client.getApi().listAccountComments(userName, sort, page));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listCommentIds}.
+         *
+         * @param userName the name of the user to fetch comment ids for
+         * @param sort     a sort direction
+         * @param page     the page number to fetch, starting at 0
+         * @return a future list of comment IDs
+         */
+        public CompletableFuture<List<Integer>> listCommentIds(
+                String userName,
+                Comment.Sort sort,
+                int page) {
+            return client.enqueue(client.getApi().listAccountCommentIds(userName, sort, page));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#getCommentCount}.
+         *
+         * @param userName the name of the user to fetch a comment count for
+         * @return a future for the number of comments the user owns
+         */
+        public CompletableFuture<Integer> getCommentCount(String userName) {
+            return client.enqueue(client.getApi().getAccountCommentCount(userName));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listImages}.
+         *
+         * @param page the page number, starting at 0
+         * @return a future list of Image objects
+         */
+        public CompletableFuture<List<Image>> listImages(int page) {
+            String userName = client.getAuthenticatedUserName();
+            if (userName == null) {
+                return notLoggedIn(401);
+            } // if
+            return client.enqueue(client.getApi().listAccountImages(userName, page));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#listImageIds}.
+         *
+         * @param page the page number to fetch, starting at 0
+         * @return a future list of image IDs
+         */
+        public CompletableFuture<List<String>> listImageIds(int page) {
+            String userName = client.getAuthenticatedUserName();
+            if (userName == null) {
+                return notLoggedIn(401);
+            } // if
+            return client.enqueue(client.getApi().listAccountImageIds(userName, page));
+        }
+
+        /**
+         * Asynchronous version of {@link AccountService#getImageCount}.
+         *
+         * @return a future for the number of images the user owns
+         */
+        public CompletableFuture<Integer> getImageCount() {
+            String userName = client.getAuthenticatedUserName();
+            if (userName == null) {
+                return notLoggedIn(401);
+            } // if
+            return client.enqueue(client.getApi().getAccountImageCount(userName));
+        }
+
+        private <T> CompletableFuture<T> notLoggedIn(int code) {
+            return CompletableFuture.failedFuture(new BaringoAuthException("No user logged in", code));
+        }
+    } // class Async
+
 }
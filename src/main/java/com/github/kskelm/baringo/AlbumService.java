@@ -15,8 +15,10 @@ import retrofit2.Response;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -27,9 +29,22 @@ import java.util.Map;
 public class AlbumService {
 
     private BaringoClient client = null;
+    private final Async async = new Async();
+    private final EntityCache<String, Album> cache;
 
     protected AlbumService(BaringoClient imgurClient, GsonBuilder gsonBuilder) {
         this.client = imgurClient;
+        this.cache = imgurClient.newEntityCache("album", Album.class);
+    }
+
+    /**
+     * Returns the non-blocking flavor of this service.  Every method
+     * mirrors its blocking counterpart but returns a CompletableFuture.
+     *
+     * @return the async album service
+     */
+    public Async async() {
+        return async;
     }
 
     /**
@@ -42,6 +57,11 @@ public class AlbumService {
      * @throws BaringoApiException something went pear-shaped
      */
     public Album getAlbum(String albumId) throws BaringoApiException {
+        Album cached = cache.get(albumId);
+        if (cached != null) {
+            return cached;
+        } // if
+
         Call<ImgurResponseWrapper<Album>> call =
                 client.getApi().getAlbum(albumId);
 
@@ -50,9 +70,10 @@ public class AlbumService {
             ImgurResponseWrapper<Album> out = res.body();
             client.throwOnWrapperError(res);
 
+            cache.put(albumId, out.getData());
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // getAlbum
 
@@ -78,7 +99,7 @@ public class AlbumService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // getAlbumImages
 
@@ -118,7 +139,7 @@ public class AlbumService {
 
             return album;
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // addAlbum
 
@@ -149,6 +170,7 @@ public class AlbumService {
      * @throws BaringoApiException oops
      */
     public boolean updateAlbum(Album album) throws BaringoApiException {
+        forget(album);
 
         album.prepareForSave(); // create imageid array for saving
 
@@ -162,7 +184,9 @@ public class AlbumService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            forget(album);
         }
     } // updateAlbum
 
@@ -182,6 +206,8 @@ public class AlbumService {
      * @throws BaringoApiException something bad
      */
     public boolean deleteAlbum(Album album) throws BaringoApiException {
+        forget(album);
+
         Call<ImgurResponseWrapper<Boolean>> call =
                 client.getApi().deleteAlbum(album.getAPIReferenceKey());
 
@@ -191,7 +217,9 @@ public class AlbumService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            forget(album);
         }
 
     } // deleteAlbum
@@ -222,6 +250,8 @@ public class AlbumService {
             return; // already done
         } // if
 
+        forget(album);
+
         Call<ImgurResponseWrapper<Object>> call =
                 client.getApi().toggleAlbumFavorite(album.getId());
 
@@ -230,7 +260,9 @@ public class AlbumService {
             client.throwOnWrapperError(res);
             album.setFavorite(true);
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            forget(album);
         }
     } // favoriteAlbum
 
@@ -260,6 +292,8 @@ public class AlbumService {
             return; // already done
         } // if
 
+        forget(album);
+
         Call<ImgurResponseWrapper<Object>> call =
                 client.getApi().toggleAlbumFavorite(album.getId());
 
@@ -268,7 +302,9 @@ public class AlbumService {
             client.throwOnWrapperError(res);
             album.setFavorite(false);
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            forget(album);
         }
     } // unfavoriteAlbum
 
@@ -297,8 +333,9 @@ public class AlbumService {
 
     /**
      * Adds the given list of image id's to the album.
-     * Though expensive, the album is reloaded from Imgur
-     * so that getImages() returns the right data.
+     * Only the images the album didn't already have are
+     * loaded from Imgur, all at once, and appended so that
+     * getImages() returns the right data.
      * <p>
      * <b>ACCESS: ANONYMOUS</b> or <b>AUTHENTICATED USER</b>
      * <p>
@@ -313,6 +350,31 @@ public class AlbumService {
     public Album addAlbumImageIds(
             Album album,
             List<String> imageIds) throws BaringoApiException {
+        return addAlbumImageIds(album, imageIds, true);
+    } // addAlbumImageIds
+
+    /**
+     * Adds the given list of image id's to the album, optionally
+     * without loading the new images.  Skipping that saves a request
+     * per image when the caller doesn't need getImages() to be
+     * current, e.g. when the album object is about to be thrown away.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b> or <b>AUTHENTICATED USER</b>
+     * <p>
+     * If anonymous, the album id must be the delete hash.
+     * <p>
+     *
+     * @param album         the album to add images to
+     * @param imageIds      a list of image ids to add
+     * @param refreshImages whether to load the new images into the album's image list
+     * @return If successful, the updated album, else null
+     * @throws BaringoApiException ugh
+     */
+    public Album addAlbumImageIds(
+            Album album,
+            List<String> imageIds,
+            boolean refreshImages) throws BaringoApiException {
+        forget(album);
 
         Call<ImgurResponseWrapper<Boolean>> call =
                 client.getApi().addAlbumImageIds(album.getAPIReferenceKey(), imageIds);
@@ -322,21 +384,18 @@ public class AlbumService {
             ImgurResponseWrapper<Boolean> out = res.body();
             client.throwOnWrapperError(res);
             if (out.getData()) { // success!
-                if (imageIds.size() == 1) { // faster just to load the one image
-                    Image img = client.imageService().getImageInfo(imageIds.get(0));
-                    album.getImages().add(img);
+                if (!refreshImages) {
                     return album;
-                } else {
-                    Album album2 = getAlbum(album.getId());
-                    album.setImages(album2.getImages());
-                    return album;
-                } // if-else
+                } // if
+                return client.await(appendImages(album, imageIds));
             } else {
                 return null;
             } // if
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            forget(album);
         }
     } // addAlbumImageIds
 
@@ -379,7 +438,7 @@ public class AlbumService {
     public Album deleteAlbumImageIds(
             Album album,
             List<String> imageIds) throws BaringoApiException {
-
+        forget(album);
 
         String joinedIds = Utils.joinCSV(imageIds);
 
@@ -391,22 +450,288 @@ public class AlbumService {
             ImgurResponseWrapper<Boolean> out = res.body();
             client.throwOnWrapperError(res);
             if (out.getData()) { // success!
-                List<Image> newList = new ArrayList<>();
-                for (Image image : album.getImages()) {
-                    if (!imageIds.contains(image.getId())) {
-                        newList.add(image);
-                    } // if
-                } // for
-                album.setImages(newList);
+                removeImages(album, imageIds);
                 return album;
             } else {
                 return null;
             } // if-else
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            forget(album);
         }
 
     } // deleteAlbumImageIds
 
+    /**
+     * Fetches the images an album doesn't have yet, in parallel, and
+     * appends them in the order given.  Unchanged images are kept
+     * as they are rather than being fetched again.
+     */
+    private CompletableFuture<Album> appendImages(Album album, List<String> imageIds) {
+        List<Image> current = album.getImages() == null
+                ? new ArrayList<>() : album.getImages();
+        HashSet<String> have = new HashSet<>();
+        for (Image image : current) {
+            have.add(image.getId());
+        } // for
+
+        List<CompletableFuture<Image>> fetches = new ArrayList<>();
+        for (String id : imageIds) {
+            if (have.add(id)) {
+                fetches.add(client.imageService().async().getImageInfo(id));
+            } // if
+        } // for
+
+        return CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0]))
+                .thenApply(v -> {
+                    List<Image> images = new ArrayList<>(current.size() + fetches.size());
+                    images.addAll(current);
+                    for (CompletableFuture<Image> fetch : fetches) {
+                        images.add(fetch.join());
+                    } // for
+                    album.setImages(images);
+                    return album;
+                });
+    } // appendImages
+
+    private void removeImages(Album album, List<String> imageIds) {
+        if (album.getImages() == null) {
+            return;
+        } // if
+        HashSet<String> gone = new HashSet<>(imageIds);
+        List<Image> newList = new ArrayList<>(album.getImages().size());
+        for (Image image : album.getImages()) {
+            if (!gone.contains(image.getId())) {
+                newList.add(image);
+            } // if
+        } // for
+        album.setImages(newList);
+    } // removeImages
+
+    /**
+     * Drops an album from the entity cache after it's been changed,
+     * for instance by uploading an image into it.
+     *
+     * @param idOrDeleteHash the album's id, or its delete hash if anonymous
+     */
+    protected void forget(String idOrDeleteHash) {
+        if (idOrDeleteHash == null) {
+            return;
+        } // if
+        cache.invalidate(idOrDeleteHash);
+        cache.invalidateIf(album -> idOrDeleteHash.equals(album.getDeleteHash()));
+    } // forget
+
+    private void forget(Album album) {
+        cache.invalidate(album.getId());
+        forget(album.getDeleteHash());
+    } // forget
+
+    /**
+     * Non-blocking versions of the AlbumService calls.  Failures
+     * complete the future exceptionally with a BaringoApiException.
+     */
+    public class Async {
+
+        /**
+         * Asynchronous version of {@link AlbumService#getAlbum}.
+         *
+         * @param albumId the id of the album to fetch
+         * @return a future Album
+         */
+        public CompletableFuture<Album> getAlbum(String albumId) {
+            Album cached = cache.get(albumId);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            } // if
+            return client.enqueue(client.getApi().getAlbum(albumId))
+                    .thenApply(album -> {
+                        cache.put(albumId, album);
+                        return album;
+                    });
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#getAlbumImages}.
+         *
+         * @param albumId the album id to fetch images for
+         * @return a future list of Image objects
+         */
+        public CompletableFuture<List<Image>> getAlbumImages(String albumId) {
+            return client.enqueue(client.getApi().getAlbumImages(albumId));
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#addAlbum}.
+         *
+         * @param album the new album to save to Imgur
+         * @return a future for the new album
+         */
+        public CompletableFuture<Album> addAlbum(Album album) {
+            album.prepareForSave(); // create imageid array for saving
+
+            return client.enqueue(client.getApi().createAlbum(album))
+                    .thenCompose(data -> getAlbum(data.get("id"))
+                            .thenApply(saved -> {
+                                album.copyFrom(saved);
+                                album.setDeleteHash(data.get("deletehash"));
+                                return album;
+                            }));
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#updateAlbum}.
+         *
+         * @param album the album to update
+         * @return a future that is true on a successful update
+         */
+        public CompletableFuture<Boolean> updateAlbum(Album album) {
+            forget(album);
+            album.prepareForSave(); // create imageid array for saving
+
+            return client.enqueue(client.getApi().updateAlbum(album.getAPIReferenceKey(), album))
+                    .whenComplete((r, e) -> forget(album));
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#deleteAlbum}.
+         *
+         * @param album the album to delete
+         * @return a future that is true on success
+         */
+        public CompletableFuture<Boolean> deleteAlbum(Album album) {
+            forget(album);
+            return client.enqueue(client.getApi().deleteAlbum(album.getAPIReferenceKey()))
+                    .whenComplete((r, e) -> forget(album));
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#favoriteAlbum}.
+         *
+         * @param album the album to mark as a favorite
+         * @return a future that completes once the album is updated
+         */
+        public CompletableFuture<Void> favoriteAlbum(Album album) {
+            return toggleFavorite(album, true);
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#unfavoriteAlbum}.
+         *
+         * @param album the album to unmark as a favorite
+         * @return a future that completes once the album is updated
+         */
+        public CompletableFuture<Void> unfavoriteAlbum(Album album) {
+            return toggleFavorite(album, false);
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#addAlbumImageId}.
+         *
+         * @param album   the album to add images to
+         * @param imageId the image to add
+         * @return a future for the updated Album
+         */
+        public CompletableFuture<Album> addAlbumImageId(
+                Album album,
+                String imageId) {
+            List<String> imageIds = new ArrayList<>();
+            imageIds.add(imageId);
+            return addAlbumImageIds(album, imageIds);
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#addAlbumImageIds(Album, List)}.
+         *
+         * @param album    the album to add images to
+         * @param imageIds a list of image ids to add
+         * @return a future for the updated album, or null if Imgur declined
+         */
+        public CompletableFuture<Album> addAlbumImageIds(
+                Album album,
+                List<String> imageIds) {
+            return addAlbumImageIds(album, imageIds, true);
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#addAlbumImageIds(Album, List, boolean)}.
+         *
+         * @param album         the album to add images to
+         * @param imageIds      a list of image ids to add
+         * @param refreshImages whether to load the new images into the album's image list
+         * @return a future for the updated album, or null if Imgur declined
+         */
+        public CompletableFuture<Album> addAlbumImageIds(
+                Album album,
+                List<String> imageIds,
+                boolean refreshImages) {
+            forget(album);
+            return client.enqueue(client.getApi().addAlbumImageIds(album.getAPIReferenceKey(), imageIds))
+                    .thenCompose(ok -> {
+                        if (!ok) {
+                            return CompletableFuture.completedFuture(null);
+                        } // if
+                        if (!refreshImages) {
+                            return CompletableFuture.completedFuture(album);
+                        } // if
+                        return appendImages(album, imageIds);
+                    })
+                    .whenComplete((r, e) -> forget(album));
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#deleteAlbumImageId}.
+         *
+         * @param album   the album to delete images from
+         * @param imageId the id of the image to delete from the album
+         * @return a future for the updated album, or null if Imgur declined
+         */
+        public CompletableFuture<Album> deleteAlbumImageId(
+                Album album,
+                String imageId) {
+            List<String> list = new ArrayList<>();
+            list.add(imageId);
+            return deleteAlbumImageIds(album, list);
+        }
+
+        /**
+         * Asynchronous version of {@link AlbumService#deleteAlbumImageIds}.
+         *
+         * @param album    the album to delete images from
+         * @param imageIds a list of image ids to delete from the album
+         * @return a future for the updated album, or null if Imgur declined
+         */
+        public CompletableFuture<Album> deleteAlbumImageIds(
+                Album album,
+                List<String> imageIds) {
+            forget(album);
+            String joinedIds = Utils.joinCSV(imageIds);
+
+            return client.enqueue(client.getApi().deleteAlbumImageIds(album.getAPIReferenceKey(), joinedIds))
+                    .thenApply(ok -> {
+                        if (!ok) {
+                            return null;
+                        } // if
+                        removeImages(album, imageIds);
+                        return album;
+                    })
+                    .whenComplete((r, e) -> forget(album));
+        }
+
+        private CompletableFuture<Void> toggleFavorite(Album album, boolean favorite) {
+            if (!client.authService().isUserAuthenticated()) {
+                return CompletableFuture.failedFuture(new BaringoAuthException("No user logged in", 401));
+            } // if
+            if (album.isFavorite() == favorite) {
+                return CompletableFuture.completedFuture(null); // already done
+            } // if
+            forget(album);
+            return client.enqueue(client.getApi().toggleAlbumFavorite(album.getId()))
+                    .thenAccept(out -> album.setFavorite(favorite))
+                    .whenComplete((r, e) -> forget(album));
+        }
+    } // class Async
+
 } // class AlbumService
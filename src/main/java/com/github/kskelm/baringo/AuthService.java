@@ -13,15 +13,41 @@ import retrofit2.Call;
 import retrofit2.Response;
 
 import java.io.IOException;
-
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 /**
  * Manages the API's authentication for a specific user.
+ * <p>
+ * This is safe to share between threads.  When the access token
+ * gets close to expiring, the first request to notice refreshes it
+ * and any others arriving meanwhile wait for that one refresh rather
+ * than starting their own.  A refresh is also scheduled in the
+ * background ahead of expiry so requests normally never wait at all,
+ * and a request that comes back 401 is retried once with a freshly
+ * refreshed token.
  *
  * @author Kevin Kelm (triggur@gmail.com)
  */
 public class AuthService {
 
+    private static final Logger log = Logger.getLogger(BaringoClient.LOG_NAME);
+
+    // renew in the background this many seconds before the token
+    // would be considered expiring, so requests don't have to
+    private static final int RENEW_AHEAD_SECS = OAuth2.MIN_EXPIRE_THRESHOLD;
+
+    private static final ScheduledExecutorService renewer =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "baringo-token-renewer");
+                t.setDaemon(true);
+                return t;
+            });
+
     // ================================================
     private BaringoClient client = null;
     private String clientId = null;
@@ -29,9 +55,13 @@ public class AuthService {
 
 
     // =======================================================
-    private OAuth2 oAuth2 = null;
-    private Account authenticatedAccount = null;
-    private String refreshToken = null;
+    private volatile OAuth2 oAuth2 = null;
+    private volatile Account authenticatedAccount = null;
+    private volatile String refreshToken = null;
+
+    // held for the whole of any token exchange with Imgur
+    private final Object tokenLock = new Object();
+    private ScheduledFuture<?> renewal = null;
 
     protected AuthService(BaringoClient client, String clientId, String clientSecret) {
         this.client = client;
@@ -56,11 +86,16 @@ public class AuthService {
      * @throws BaringoAuthException unable to refresh tokens
      */
     public String setAuthorizationCode(String authCode) throws BaringoAuthException {
-        this.oAuth2 = null;
-        this.authenticatedAccount = null;
-
-        tradeAuthCodeForTokens(authCode);
-        return oAuth2.getRefreshToken();
+        synchronized (tokenLock) {
+            cancelRenewal();
+            this.oAuth2 = null;
+            this.refreshToken = null;
+            this.authenticatedAccount = null;
+            client.invalidateEntityCaches();
+
+            tradeAuthCodeForTokens(authCode);
+            return oAuth2.getRefreshToken();
+        } // synchronized
     } // setAuthorizationCode
 
     /**
@@ -92,31 +127,83 @@ public class AuthService {
      * @throws BaringoApiException the account couldn't be loaded
      */
     public Account getAuthenticatedAccount() throws BaringoApiException {
-        if (oAuth2 == null) {
+        OAuth2 current = oAuth2;
+        if (current == null) {
             return null;
         } // if
-        if (authenticatedAccount != null) {
-            return authenticatedAccount;
+        Account account = authenticatedAccount;
+        if (account != null) {
+            return account;
         } // if
 
-        authenticatedAccount = client.accountService().getAccount(oAuth2.getUserName());
-        return authenticatedAccount;
+        account = client.accountService().getAccount(current.getUserName());
+        authenticatedAccount = account;
+        return account;
     }
 
-    protected Request buildAuthenticatedRequest(@NotNull Request request) {
+    /**
+     * Adds the Authorization header to a request, first refreshing
+     * the access token if it's about to expire.  Requests to the
+     * token endpoints themselves are never held up for a refresh.
+     *
+     * @param request the outgoing request
+     * @return the request with its Authorization header set
+     * @throws IOException the token needed refreshing and that failed
+     */
+    protected Request buildAuthenticatedRequest(@NotNull Request request) throws IOException {
+        OAuth2 current = oAuth2;
+        if (current != null && current.isExpiringSoon()
+                && refreshToken != null && !isTokenRequest(request)) {
+            try {
+                refreshAccessToken(null);
+            } catch (BaringoAuthException e) {
+                throw new IOException(e.getMessage(), e);
+            } // try-catch
+        } // if
         return request.newBuilder()
                 .header("Authorization", getAuthenticationHeader())
                 .build();
     }
 
+    /**
+     * Called when a request comes back 401.  If it was sent with a
+     * user's access token, refreshes that token (unless another
+     * thread already has) and returns the request rebuilt with the
+     * new one.  Returns null if there's nothing to retry with.
+     *
+     * @param failed the request that was refused
+     * @return the request to retry, or null
+     */
+    protected Request reauthenticate(@NotNull Request failed) {
+        String header = failed.header("Authorization");
+        if (header == null || !header.startsWith("Bearer ")
+                || refreshToken == null || isTokenRequest(failed)) {
+            return null;
+        } // if
+        try {
+            refreshAccessToken(header.substring("Bearer ".length()));
+        } catch (BaringoAuthException e) {
+            log.warning("Access token was refused and couldn't be refreshed: " + e.getMessage());
+            return null;
+        } // try-catch
+        return failed.newBuilder()
+                .header("Authorization", getAuthenticationHeader())
+                .build();
+    }
+
     protected String getAuthenticationHeader() {
-        if (oAuth2 != null && oAuth2.getAccessToken() != null) {
-            return "Bearer " + oAuth2.getAccessToken();
+        OAuth2 current = oAuth2;
+        if (current != null && current.getAccessToken() != null) {
+            return "Bearer " + current.getAccessToken();
         } else {
             return "Client-ID " + clientId;
         } // if-else
     }
 
+    private boolean isTokenRequest(Request request) {
+        return request.url().encodedPath().startsWith("/oauth2/");
+    }
+
     private boolean tradeAuthCodeForTokens(String authCode) throws BaringoAuthException {
         Call<OAuth2> call = client.getApi().tradeAuthCodeForTokens(
                 clientId, clientSecret, "authorization_code", authCode);
@@ -124,10 +211,11 @@ public class AuthService {
         try {
             Response<OAuth2> res = call.execute();
 
-            oAuth2 = res.body();
-            if (oAuth2 == null) {
+            OAuth2 fresh = res.body();
+            if (fresh == null) {
                 throw new BaringoAuthException(res.message(), res.code());
             } // if
+            installTokens(fresh);
 
             return true;
         } catch (IOException e) {
@@ -136,31 +224,95 @@ public class AuthService {
 
     } // tradeAuthCodeForTokens
 
-    private boolean updateAccessToken() throws BaringoAuthException {
-        if (oAuth2 != null && !oAuth2.isExpiringSoon()) {
-            return true; // nothing to do! all's well as far as we know.
-        } // if
-
-        if (refreshToken == null) {
-            throw new BaringoAuthException("Cannot update OAuth2 access token; need refreshToken or authorizationCode to be set. See setRefreshToken() or setAuthorizationCode().  User-authenticated calls will not work until then.");
-        } // if
-
-        Call<OAuth2> call = client.getApi().refreshAccessToken(
-                clientId, clientSecret, "refresh_token", refreshToken);
+    /**
+     * Trades the refresh token for a new access token.  Only one
+     * thread does this at a time; anyone else who needs a token
+     * waits on the lock and then finds the fresh one already in
+     * place, so the exchange isn't repeated.
+     *
+     * @param staleAccessToken the token a caller saw refused, forcing
+     *                         a refresh if it's still current; or null
+     *                         to refresh only if the current token is
+     *                         missing or expiring
+     * @throws BaringoAuthException the refresh failed
+     */
+    private void refreshAccessToken(String staleAccessToken) throws BaringoAuthException {
+        synchronized (tokenLock) {
+            OAuth2 current = oAuth2;
+            if (current != null) {
+                if (staleAccessToken == null && !current.isExpiringSoon()) {
+                    return; // nothing to do! all's well as far as we know.
+                } // if
+                if (staleAccessToken != null && !staleAccessToken.equals(current.getAccessToken())) {
+                    return; // somebody else already replaced it
+                } // if
+            } // if
 
-        try {
-            Response<OAuth2> res = call.execute();
+            String token = refreshToken;
+            if (token == null) {
+                throw new BaringoAuthException("Cannot update OAuth2 access token; need refreshToken or authorizationCode to be set. See setRefreshToken() or setAuthorizationCode().  User-authenticated calls will not work until then.");
+            } // if
 
-            oAuth2 = res.body();
-            if (oAuth2 == null) {
-                throw new BaringoAuthException(res.message(), res.code());
+            Call<OAuth2> call = client.getApi().refreshAccessToken(
+                    clientId, clientSecret, "refresh_token", token);
+
+            try {
+                Response<OAuth2> res = call.execute();
+
+                OAuth2 fresh = res.body();
+                if (fresh == null) {
+                    throw new BaringoAuthException(res.message(), res.code());
+                } // if
+                installTokens(fresh);
+            } catch (IOException e) {
+                throw new BaringoAuthException("Error updating access tokens from refresh token: " + e.getMessage());
+            } // try-catch
+        } // synchronized
+    } // refreshAccessToken
+
+    // caller holds tokenLock
+    private void installTokens(OAuth2 fresh) {
+        if (fresh.getRefreshToken() != null) {
+            refreshToken = fresh.getRefreshToken();
+        } // if
+        oAuth2 = fresh;
+        scheduleRenewal(fresh);
+    } // installTokens
+
+    // caller holds tokenLock
+    private void scheduleRenewal(OAuth2 token) {
+        cancelRenewal();
+        long delay = (long) token.getExpiresIn() - OAuth2.MIN_EXPIRE_THRESHOLD - RENEW_AHEAD_SECS;
+        if (delay <= 0 || token.getAccessToken() == null) {
+            return; // the request path will take care of it
+        } // if
+        // don't let a pending renewal keep an abandoned client alive
+        WeakReference<AuthService> ref = new WeakReference<>(this);
+        String accessToken = token.getAccessToken();
+        renewal = renewer.schedule(() -> {
+            AuthService self = ref.get();
+            if (self != null) {
+                self.renewInBackground(accessToken);
             } // if
+        }, delay, TimeUnit.SECONDS);
+    } // scheduleRenewal
+
+    // caller holds tokenLock
+    private void cancelRenewal() {
+        if (renewal != null) {
+            renewal.cancel(false);
+            renewal = null;
+        } // if
+    } // cancelRenewal
 
-            return true;
-        } catch (IOException e) {
-            throw new BaringoAuthException("Error updating access tokens from refresh token: " + e.getMessage());
-        }
-    } // updateAccessToken
+    private void renewInBackground(String accessToken) {
+        try {
+            refreshAccessToken(accessToken);
+        } catch (BaringoAuthException e) {
+            // not fatal; the next request to find it expiring tries again
+            log.warning("Background access token renewal failed: " + e.getMessage());
+        } // try-catch
+    } // renewInBackground
 
     /**
      * Returns the BaringoClient (mostly internal use)
@@ -213,10 +365,11 @@ public class AuthService {
      * @return the name of the authenticated user or null if none
      */
     public String getAuthenticatedUserName() {
-        if (oAuth2 == null) {
+        OAuth2 current = oAuth2;
+        if (current == null) {
             return null;
         } // if
-        return oAuth2.getUserName();
+        return current.getUserName();
     }
 
     /**
@@ -230,7 +383,7 @@ public class AuthService {
         if (this.oAuth2 == null) {
             return null;
         } // if
-        return this.oAuth2.getRefreshToken();
+        return this.refreshToken;
     }
 
     /**
@@ -242,12 +395,15 @@ public class AuthService {
      * @throws BaringoAuthException couldn't fetch an access token
      */
     public void setRefreshToken(String refreshToken) throws BaringoAuthException {
-
-        this.refreshToken = refreshToken;
-        this.oAuth2 = null;
-        this.authenticatedAccount = null;
-
-        updateAccessToken();
+        synchronized (tokenLock) {
+            cancelRenewal();
+            this.refreshToken = refreshToken;
+            this.oAuth2 = null;
+            this.authenticatedAccount = null;
+            client.invalidateEntityCaches();
+
+            refreshAccessToken(null);
+        } // synchronized
     } // setRefreshToken
 
 
@@ -6,6 +6,7 @@ package com.github.kskelm.baringo;
 import com.github.kskelm.baringo.model.Account;
 import com.github.kskelm.baringo.model.ImgurResponseWrapper;
 import com.github.kskelm.baringo.util.BaringoApiException;
+import com.github.kskelm.baringo.util.ChangesState;
 import com.github.kskelm.baringo.util.RetrofittedImgur;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -13,15 +14,51 @@ import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
-import okhttp3.logging.HttpLoggingInterceptor;
-import okhttp3.logging.HttpLoggingInterceptor.Level;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
 import org.jetbrains.annotations.NotNull;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Invocation;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
+import retrofit2.http.Streaming;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 import java.util.logging.Logger;
 
 
@@ -52,7 +89,12 @@ public class BaringoClient {
 
     private static final Logger log = Logger.getLogger(BaringoClient.LOG_NAME);
 
-    private static String apiEndpoint = DEFAULT_API_BASE_URL;
+    // the most of a body a coalesced GET will hold in memory to share
+    private static final long MAX_SHARED_BYTES = 1024 * 1024;
+    // Imgur ids are 5 to 7 characters; delete hashes are 15
+    private static final int MAX_ID_LENGTH = 10;
+
+    private static volatile String defaultApiEndpoint = DEFAULT_API_BASE_URL;
 
     private final Quota quota = new Quota();
 
@@ -60,8 +102,23 @@ public class BaringoClient {
     // static
     // =============================================
     private RetrofittedImgur api = null;
+    private Gson gson = null;
+    private OkHttpClient httpClient = null;
+    private QuotaRateLimiter rateLimiter = null;
+    private Cache responseCache = null;
+    private ResponseCachePolicy responseCachePolicy = null;
+    private HttpLogPolicy httpLogPolicy = null;
+    private MetricsCollector metrics = null;
+    private RetryPolicy retryPolicy = null;
+    private final AtomicLong retryCount = new AtomicLong();
+    private final CacheStats responseCacheStats = new CacheStats();
+    private EntityCache.Factory entityCacheFactory = null;
+    private final Map<String, EntityCache<?, ?>> entityCaches = new LinkedHashMap<>();
+    private boolean coalesceRequests = true;
+    private final AtomicLong coalescedRequestCount = new AtomicLong();
     private String clientId = null;
     private String clientSecret = null;
+    private String apiEndpoint = null;
 
     // =========================================================
     // internal
@@ -89,35 +146,75 @@ public class BaringoClient {
      * @throws BaringoApiException the clientId or clientSecret were not supplied
      */
     protected BaringoClient(String clientId, String clientSecret) throws BaringoApiException {
-        if (clientId == null || clientSecret == null) {
+        this(new Builder().clientAuth(clientId, clientSecret));
+    } // constructor
+
+    /**
+     * Construct a client from the settings gathered by a Builder.
+     *
+     * @param builder the builder holding credentials and HTTP tuning
+     * @throws BaringoApiException the clientId or clientSecret were not supplied
+     */
+    protected BaringoClient(Builder builder) throws BaringoApiException {
+        if (builder._clientId == null || builder._clientSecret == null) {
             throw new BaringoApiException("Must have clientId and clientSecret to run Baringo.  See http://api.imgur.com/");
         } // if
 
-        this.clientId = clientId;
-        this.clientSecret = clientSecret;
+        this.clientId = builder._clientId;
+        this.clientSecret = builder._clientSecret;
+        this.httpClient = builder.buildHttpClient();
+        this.rateLimiter = builder._rateLimiter;
+        if (builder._responseCacheDir != null) {
+            this.responseCache = new Cache(builder._responseCacheDir, builder._responseCacheMaxBytes);
+            this.responseCachePolicy = builder._responseCachePolicy != null
+                    ? builder._responseCachePolicy
+                    : ResponseCachePolicy.defaults();
+        } // if
+        this.entityCacheFactory = builder._entityCacheFactory;
+        this.coalesceRequests = builder._coalesceRequests;
+        this.httpLogPolicy = builder._httpLogPolicy != null
+                ? builder._httpLogPolicy
+                : HttpLogPolicy.off();
+        this.metrics = builder._metrics;
+        this.retryPolicy = builder._retryPolicy != null
+                ? builder._retryPolicy
+                : RetryPolicy.none();
+        this.apiEndpoint = builder._apiEndpoint != null
+                ? builder._apiEndpoint
+                : defaultApiEndpoint;
         this.api = create();
     } // constructor
 
     /**
-     * Fetch the current api endpoint base url
+     * Fetch the api endpoint base url that new clients use unless
+     * their Builder says otherwise
      *
-     * @return the api endpoint base url
+     * @return the default api endpoint base url
      */
     public static String getApiEndpoint() {
-        return BaringoClient.apiEndpoint;
+        return BaringoClient.defaultApiEndpoint;
     }
 
     /**
      * Used for switching to the mashape commercial endpoint,
-     * or for mocking.  NOTE that there can only be one
-     * API endpoint in the system at a time; even if you
-     * create a new client, they all still share the same
-     * URL endpoints.
+     * or for mocking.  This only changes the default for
+     * clients built afterwards; existing clients keep the
+     * endpoint they were built with.  To point just one
+     * client somewhere else, use {@link Builder#apiEndpoint(String)}.
      *
      * @param url new endpoint
      */
     public static void setApiEndpoint(String url) {
-        BaringoClient.apiEndpoint = url;
+        BaringoClient.defaultApiEndpoint = url;
+    }
+
+    /**
+     * Returns the api endpoint base url this client talks to
+     *
+     * @return the api endpoint base url
+     */
+    public String getEndpoint() {
+        return apiEndpoint;
     }
 
     /**
@@ -228,6 +325,119 @@ public class BaringoClient {
         return quota;
     }
 
+    /**
+     * Returns the limiter pacing this client's requests against its
+     * quota, or null if none was installed with the Builder.
+     *
+     * @return the rate limiter or null
+     */
+    public QuotaRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Returns the OkHttp disk cache behind API calls, or null if the
+     * response cache wasn't turned on with the Builder.  Useful for
+     * checking its size or clearing it with evictAll().
+     *
+     * @return the response cache or null
+     */
+    public Cache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Returns hit, revalidation and miss counts for GETs covered by
+     * the response cache policy.  All zero if the cache is off.
+     *
+     * @return response cache counters
+     */
+    public CacheStats getResponseCacheStats() {
+        return responseCacheStats;
+    }
+
+    /**
+     * Returns how many GETs were answered by piggybacking on an
+     * identical request that was already in flight, rather than going
+     * to Imgur themselves.
+     *
+     * @return the number of coalesced requests
+     */
+    public long getCoalescedRequestCount() {
+        return coalescedRequestCount.get();
+    }
+
+    /**
+     * Returns how many times the client has tried a failed call again,
+     * under its RetryPolicy or after refreshing an expired token.
+     *
+     * @return the number of retries
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Returns the collector API calls are being recorded to
+     *
+     * @return the collector, or null if metrics are off
+     */
+    public MetricsCollector getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the counters for each in-memory entity cache, keyed by
+     * entity type ("image", "album", "account", "comment").  Empty if
+     * entity caching wasn't turned on with the Builder.
+     *
+     * @return entity cache counters by type
+     */
+    public Map<String, CacheStats> getEntityCacheStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        synchronized (entityCaches) {
+            for (Map.Entry<String, EntityCache<?, ?>> entry : entityCaches.entrySet()) {
+                stats.put(entry.getKey(), entry.getValue().getStats());
+            } // for
+        } // synchronized
+        return stats;
+    }
+
+    /**
+     * Empties every in-memory entity cache.  Happens automatically
+     * when the authenticated user changes, since what Imgur returns
+     * (delete hashes, favorites, votes) depends on who's asking.
+     */
+    public void invalidateEntityCaches() {
+        synchronized (entityCaches) {
+            for (EntityCache<?, ?> cache : entityCaches.values()) {
+                cache.invalidateAll();
+            } // for
+        } // synchronized
+    }
+
+    /**
+     * Creates the entity cache a service uses for one model type, or
+     * a do-nothing one if entity caching is off.  Callers each get
+     * their own copy of a cached object.
+     *
+     * @param name the entity type, e.g. "image"
+     * @param type the cached model class
+     * @param <K>  the key type
+     * @param <V>  the cached model type
+     * @return the cache
+     */
+    protected <K, V> EntityCache<K, V> newEntityCache(String name, Class<V> type) {
+        if (entityCacheFactory == null) {
+            return EntityCache.disabled();
+        } // if
+        EntityCache<K, V> cache = new CopyingEntityCache<>(entityCacheFactory.<K, V>create(name), type, this);
+        synchronized (entityCaches) {
+            entityCaches.put(name, cache);
+        } // synchronized
+        return cache;
+    }
+
     /**
      * As a convenience measure, return the username of the logged-in user
      *
@@ -254,25 +464,185 @@ public class BaringoClient {
         return api;
     } // getApi
 
+    /**
+     * Returns the Gson the API responses are parsed with, type
+     * adapters and all, for reading and writing model objects
+     * the same way Imgur sends them.
+     *
+     * @return the shared Gson
+     */
+    protected Gson getGson() {
+        return gson;
+    } // getGson
+
+    /**
+     * Returns the bare OkHttpClient all of this client's traffic rides
+     * on.  API calls add authentication and logging on top of it, but
+     * share its connection pool and dispatcher, so image downloads from
+     * {@link #DEFAULT_DOWNLOAD_BASE_URL} reuse the same TLS sessions.
+     *
+     * @return the shared http client
+     */
+    public OkHttpClient getHttpClient() {
+        return httpClient;
+    } // getHttpClient
+
     protected <T> void throwOnWrapperError(Response<ImgurResponseWrapper<T>> resp) throws BaringoApiException {
+        throwOnHttpError(resp);
+        throwOnWrapperStatus(resp.body().getStatus(), resp.body().isSuccess());
+    } // throwOnWrapperError
+
+    /**
+     * The HTTP half of {@link #throwOnWrapperError}, for calls that
+     * read the wrapper themselves rather than have Gson build it.
+     *
+     * @param resp the response
+     * @throws BaringoApiException the call failed or there's no body
+     */
+    protected void throwOnHttpError(Response<?> resp) throws BaringoApiException {
         if (resp.code() != 200) {
             throw new BaringoApiException(resp.raw().request().url() + ": " + resp.message(), resp.code());
         } // if
         if (resp.body() == null) {
             throw new BaringoApiException("No response body found");
         } // if
-        if (resp.body().getStatus() != 200 || !resp.body().isSuccess()) {
-            throw new BaringoApiException("Unknown error", resp.body().getStatus());
+    } // throwOnHttpError
+
+    /**
+     * The wrapper half of {@link #throwOnWrapperError}.
+     *
+     * @param status  the wrapper's status
+     * @param success the wrapper's success flag
+     * @throws BaringoApiException Imgur said the call failed
+     */
+    protected void throwOnWrapperStatus(int status, boolean success) throws BaringoApiException {
+        if (status != 200 || !success) {
+            throw new BaringoApiException("Unknown error", status);
         } // if
-    } // throwOnWrapperError
+    } // throwOnWrapperStatus
 
-    private RetrofittedImgur create() {
-        okhttp3.OkHttpClient client = new okhttp3.OkHttpClient();
-        client.interceptors().add(new ImgurInterceptor());
+    /**
+     * Blocks on a future from one of the async services, for the
+     * sync calls that fan out several requests at once.  Unwraps the
+     * BaringoApiException the future failed with.
+     *
+     * @param future the future to wait for
+     * @param <T>    the result type
+     * @return the result
+     * @throws BaringoApiException the future failed, or the thread was interrupted
+     */
+    protected <T> T await(CompletableFuture<T> future) throws BaringoApiException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BaringoApiException("Interrupted waiting for Imgur");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof BaringoApiException) {
+                throw (BaringoApiException) cause;
+            } // if
+            throw new BaringoApiException(String.valueOf(cause), cause);
+        } // try-catch
+    } // await
 
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-        logging.setLevel(Level.BODY);
-        client.interceptors().add(logging);
+    /**
+     * Queues the call on OkHttp's dispatcher instead of blocking the
+     * calling thread.  The returned future completes with the unwrapped
+     * data, or exceptionally with the same BaringoApiException the
+     * blocking version would have thrown.  Cancelling the future
+     * cancels the underlying HTTP call.
+     *
+     * @param call the Retrofit call to enqueue
+     * @param <T>  the type of the wrapped payload
+     * @return a future for the payload
+     */
+    protected <T> CompletableFuture<T> enqueue(Call<ImgurResponseWrapper<T>> call) {
+        return enqueue(call, res -> {
+            throwOnWrapperError(res);
+            return res.body().getData();
+        });
+    } // enqueue
+
+    /**
+     * Queues the call on OkHttp's dispatcher, handing the response to
+     * the given handler for the odd endpoints that don't follow the
+     * usual wrapper conventions.
+     *
+     * @param call    the Retrofit call to enqueue
+     * @param handler turns the raw response into a result
+     * @param <T>     the type Retrofit decodes
+     * @param <R>     the type the future completes with
+     * @return a future for the result
+     */
+    protected <T, R> CompletableFuture<R> enqueue(Call<T> call, ResponseHandler<T, R> handler) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+
+        call.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(@NotNull Call<T> c, @NotNull Response<T> res) {
+                try {
+                    future.complete(handler.handle(res));
+                } catch (BaringoApiException e) {
+                    future.completeExceptionally(e);
+                } catch (IOException e) {
+                    future.completeExceptionally(new BaringoApiException(e.getMessage(), e));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                } // try-catch
+            }
+
+            @Override
+            public void onFailure(@NotNull Call<T> c, @NotNull Throwable t) {
+                future.completeExceptionally(new BaringoApiException(t.getMessage(), t));
+            }
+        });
+
+        future.whenComplete((r, e) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            } // if
+        });
+        return future;
+    } // enqueue
+
+    private RetrofittedImgur create() {
+        // newBuilder() shares the pool and dispatcher with httpClient
+        OkHttpClient.Builder clientBuilder = httpClient.newBuilder();
+        if (metrics != null) {
+            // outermost, so the latency is what the caller waited
+            clientBuilder.addInterceptor(new MetricsInterceptor());
+        } // if
+        if (retryPolicy.getMaxAttempts() > 1) {
+            // outside ImgurInterceptor, so every attempt is signed afresh
+            clientBuilder.addInterceptor(new RetryInterceptor(retryPolicy));
+        } // if
+        clientBuilder.addInterceptor(new ImgurInterceptor());
+        if (coalesceRequests) {
+            // after ImgurInterceptor, so the key can include who's asking
+            clientBuilder.addInterceptor(new SingleFlightInterceptor());
+        } // if
+        if (httpLogPolicy.getLevel() != HttpLogPolicy.Level.NONE) {
+            // left off entirely when not wanted, so it costs nothing
+            clientBuilder.addInterceptor(new HttpLogInterceptor(httpLogPolicy));
+        } // if
+        if (rateLimiter != null) {
+            // waits before a connection is taken, so a waiting call
+            // doesn't hold one out of the pool
+            clientBuilder.addInterceptor(new RateLimitInterceptor());
+        } // if
+        if (responseCache != null) {
+            // the cache only lives on the API client; image downloads
+            // would just push JSON out of it
+            clientBuilder.cache(responseCache)
+                    .addNetworkInterceptor(new CachePolicyInterceptor());
+        } // if
+        // quota headers are read below the cache, so cache hits
+        // don't clobber the quota
+        OkHttpClient client = clientBuilder
+                .addNetworkInterceptor(new QuotaInterceptor())
+                .build();
 
 
         final GsonBuilder gsonBuilder = new GsonBuilder();
@@ -295,7 +665,7 @@ public class BaringoClient {
         this.authSvc = new AuthService(this, clientId, clientSecret);
 
         // build the gson object
-        Gson gson = gsonBuilder.create();
+        this.gson = gsonBuilder.create();
 
         // start up the API client
         GsonConverterFactory gcf = GsonConverterFactory.create(gson);
@@ -311,9 +681,9 @@ public class BaringoClient {
 
     private void updateQuota(okhttp3.Response response) {
         String val = response.header(HEADER_USER_CREDIT_RESET_DATE);
-        if (val != null) {
-            int valInt = Integer.parseInt(val);
-            quota.setUserCreditResetDate(new Date(valInt));
+        if (val != null) { // unix timestamp
+            long valLong = Long.parseLong(val);
+            quota.setUserCreditResetDate(new Date(valLong * 1000));
         } // if
         val = response.header(HEADER_USER_CREDITS_ALLOCATED);
         if (val != null) {
@@ -336,9 +706,9 @@ public class BaringoClient {
             quota.setApplicationCreditsAllocated(valInt);
         } // if
         val = response.header(HEADER_POST_CREDIT_RESET_DATE);
-        if (val != null) {
+        if (val != null) { // seconds from now
             int valInt = Integer.parseInt(val);
-            quota.setPostCreditResetDate(new Date(valInt));
+            quota.setPostCreditResetDate(new Date(System.currentTimeMillis() + valInt * 1000L));
         } // if
         val = response.header(HEADER_POST_CREDITS_ALLOCATED);
         if (val != null) {
@@ -361,6 +731,24 @@ public class BaringoClient {
 
         private String _clientId = null;
         private String _clientSecret = null;
+        private OkHttpClient _httpClient = null;
+        private int _maxIdleConnections = 5;
+        private long _keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+        private int _maxRequests = 64;
+        private int _maxRequestsPerHost = 5;
+        private long _connectTimeoutMillis = 10_000;
+        private long _readTimeoutMillis = 10_000;
+        private long _writeTimeoutMillis = 10_000;
+        private QuotaRateLimiter _rateLimiter = null;
+        private File _responseCacheDir = null;
+        private long _responseCacheMaxBytes = 0;
+        private ResponseCachePolicy _responseCachePolicy = null;
+        private EntityCache.Factory _entityCacheFactory = null;
+        private boolean _coalesceRequests = true;
+        private HttpLogPolicy _httpLogPolicy = null;
+        private MetricsCollector _metrics = null;
+        private RetryPolicy _retryPolicy = null;
+        private String _apiEndpoint = null;
 
         /**
          * Sets the client id and secret, which are the minimum kind
@@ -379,6 +767,270 @@ public class BaringoClient {
             return this;
         } // clientAuth
 
+        /**
+         * Points this client at an api endpoint other than the default
+         * set with {@link BaringoClient#setApiEndpoint(String)}, for
+         * instance a mock server, without affecting any other client.
+         *
+         * @param url the api endpoint base url, ending in a slash
+         * @return This builder object
+         */
+        public Builder apiEndpoint(String url) {
+            this._apiEndpoint = url;
+
+            return this;
+        } // apiEndpoint
+
+        /**
+         * Supplies an existing OkHttpClient for Baringo to ride on, for
+         * instance one shared with the rest of your application.  When
+         * set, the pool, dispatcher and timeout settings on this builder
+         * are ignored in favor of the client's own.
+         *
+         * @param httpClient the client to share
+         * @return This builder object
+         */
+        public Builder httpClient(OkHttpClient httpClient) {
+            this._httpClient = httpClient;
+
+            return this;
+        } // httpClient
+
+        /**
+         * Sizes the connection pool shared by API calls and downloads.
+         * Defaults to 5 idle connections kept alive for 5 minutes.
+         *
+         * @param maxIdleConnections the number of idle connections to keep around
+         * @param keepAlive          how long an idle connection is kept
+         * @param unit               the unit of keepAlive
+         * @return This builder object
+         */
+        public Builder connectionPool(int maxIdleConnections, long keepAlive, TimeUnit unit) {
+            this._maxIdleConnections = maxIdleConnections;
+            this._keepAliveMillis = unit.toMillis(keepAlive);
+
+            return this;
+        } // connectionPool
+
+        /**
+         * The maximum number of async requests in flight at once across
+         * all hosts.  Defaults to 64.
+         *
+         * @param maxRequests the request limit
+         * @return This builder object
+         */
+        public Builder maxRequests(int maxRequests) {
+            this._maxRequests = maxRequests;
+
+            return this;
+        } // maxRequests
+
+        /**
+         * The maximum number of async requests in flight at once to any
+         * single host such as api.imgur.com or i.imgur.com.  Defaults to 5.
+         *
+         * @param maxRequestsPerHost the per-host request limit
+         * @return This builder object
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this._maxRequestsPerHost = maxRequestsPerHost;
+
+            return this;
+        } // maxRequestsPerHost
+
+        /**
+         * Sets the connect timeout for new connections.  Defaults to 10 seconds.
+         *
+         * @param timeout the timeout, or 0 for none
+         * @param unit    the unit of timeout
+         * @return This builder object
+         */
+        public Builder connectTimeout(long timeout, TimeUnit unit) {
+            this._connectTimeoutMillis = unit.toMillis(timeout);
+
+            return this;
+        } // connectTimeout
+
+        /**
+         * Sets the read timeout for connections.  Defaults to 10 seconds.
+         *
+         * @param timeout the timeout, or 0 for none
+         * @param unit    the unit of timeout
+         * @return This builder object
+         */
+        public Builder readTimeout(long timeout, TimeUnit unit) {
+            this._readTimeoutMillis = unit.toMillis(timeout);
+
+            return this;
+        } // readTimeout
+
+        /**
+         * Sets the write timeout for connections.  Defaults to 10 seconds.
+         *
+         * @param timeout the timeout, or 0 for none
+         * @param unit    the unit of timeout
+         * @return This builder object
+         */
+        public Builder writeTimeout(long timeout, TimeUnit unit) {
+            this._writeTimeoutMillis = unit.toMillis(timeout);
+
+            return this;
+        } // writeTimeout
+
+        /**
+         * Installs a limiter that paces requests against the credits
+         * Imgur reports, rather than letting calls fail once they run out.
+         * Off by default.
+         *
+         * @param rateLimiter the limiter, or null for none
+         * @return This builder object
+         */
+        public Builder rateLimiter(QuotaRateLimiter rateLimiter) {
+            this._rateLimiter = rateLimiter;
+
+            return this;
+        } // rateLimiter
+
+        /**
+         * Controls whether identical GETs issued at the same moment
+         * from different threads share one network call (and one
+         * quota credit).  On by default.
+         *
+         * @param coalesce false to send every request on its own
+         * @return This builder object
+         */
+        public Builder coalesceRequests(boolean coalesce) {
+            this._coalesceRequests = coalesce;
+
+            return this;
+        } // coalesceRequests
+
+        /**
+         * Logs API traffic to the Baringo logger as the policy says.
+         * Off by default.
+         *
+         * @param policy what to log, or null for nothing
+         * @return This builder object
+         */
+        public Builder httpLogging(HttpLogPolicy policy) {
+            this._httpLogPolicy = policy;
+
+            return this;
+        } // httpLogging
+
+        /**
+         * Logs every API call at the given level, redacting the
+         * Authorization header.  See {@link HttpLogPolicy} for sampling
+         * and body size limits.  Off by default.
+         *
+         * @param level how much to log
+         * @return This builder object
+         */
+        public Builder httpLogging(HttpLogPolicy.Level level) {
+            this._httpLogPolicy = new HttpLogPolicy(level);
+
+            return this;
+        } // httpLogging
+
+        /**
+         * Records every API call to a collector: its latency, status,
+         * bytes and the credits it used, keyed by endpoint.  Use an
+         * {@link InMemoryMetrics} to keep totals you can snapshot, or
+         * your own collector to feed them elsewhere.  Off by default,
+         * in which case nothing is measured at all.
+         *
+         * @param metrics the collector, or null for none
+         * @return This builder object
+         */
+        public Builder metrics(MetricsCollector metrics) {
+            this._metrics = metrics;
+
+            return this;
+        } // metrics
+
+        /**
+         * Tries calls that failed for passing reasons again, as the
+         * policy says: connection errors, 429s and 5xxs, with backoff.
+         * Off by default.  See {@link RetryPolicy#defaults()}.
+         *
+         * @param policy when and how to retry, or null for never
+         * @return This builder object
+         */
+        public Builder retry(RetryPolicy policy) {
+            this._retryPolicy = policy;
+
+            return this;
+        } // retry
+
+        /**
+         * Turns on an on-disk HTTP cache for API calls.  Slow-changing
+         * anonymous reads such as image info, album info and the default
+         * topics are then served locally for a while, without spending a
+         * quota credit, and revalidated with a conditional request once
+         * they go stale.  See {@link ResponseCachePolicy} for what gets
+         * cached and for how long.  Off by default.
+         *
+         * @param directory a directory private to this cache
+         * @param maxBytes  the most the cache may hold on disk
+         * @return This builder object
+         */
+        public Builder responseCache(File directory, long maxBytes) {
+            this._responseCacheDir = directory;
+            this._responseCacheMaxBytes = maxBytes;
+
+            return this;
+        } // responseCache
+
+        /**
+         * Replaces the rules deciding which responses the cache keeps
+         * and for how long.  Only matters if {@link #responseCache} is
+         * set.  Defaults to {@link ResponseCachePolicy#defaults()}.
+         *
+         * @param policy the cache policy
+         * @return This builder object
+         */
+        public Builder responseCachePolicy(ResponseCachePolicy policy) {
+            this._responseCachePolicy = policy;
+
+            return this;
+        } // responseCachePolicy
+
+        /**
+         * Turns on in-memory caching of images, albums, accounts and
+         * comments looked up by id, using a {@link TtlLruEntityCache}
+         * per type.  Updates and deletes made through this client drop
+         * the affected entries; changes made elsewhere show up once the
+         * time to live runs out.  Off by default.
+         *
+         * @param maxEntries the most entries to hold per type
+         * @param ttl        how long an entry stays valid
+         * @param unit       the unit of ttl
+         * @return This builder object
+         */
+        public Builder entityCache(int maxEntries, long ttl, TimeUnit unit) {
+            this._entityCacheFactory = new EntityCache.Factory() {
+                @Override
+                public <K, V> EntityCache<K, V> create(String name) {
+                    return new TtlLruEntityCache<>(maxEntries, ttl, unit);
+                }
+            };
+
+            return this;
+        } // entityCache
+
+        /**
+         * Turns on in-memory entity caching with caches of your own
+         * making, for instance ones backed by a shared cache library.
+         *
+         * @param factory creates one cache per entity type, or null for none
+         * @return This builder object
+         */
+        public Builder entityCache(EntityCache.Factory factory) {
+            this._entityCacheFactory = factory;
+
+            return this;
+        } // entityCache
+
         /**
          * Constructs the BaringoClient and returns it
          *
@@ -386,8 +1038,39 @@ public class BaringoClient {
          * @throws BaringoApiException Unable to build the client
          */
         public BaringoClient build() throws BaringoApiException {
-            return new BaringoClient(_clientId, _clientSecret);
+            return new BaringoClient(this);
         }
+
+        private OkHttpClient buildHttpClient() {
+            if (_httpClient != null) {
+                return _httpClient;
+            } // if
+
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(_maxRequests);
+            dispatcher.setMaxRequestsPerHost(_maxRequestsPerHost);
+
+            return new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(
+                            _maxIdleConnections, _keepAliveMillis, TimeUnit.MILLISECONDS))
+                    .dispatcher(dispatcher)
+                    .connectTimeout(_connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .readTimeout(_readTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .writeTimeout(_writeTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .build();
+        } // buildHttpClient
+    }
+
+    /**
+     * Converts a Retrofit response into whatever an async service
+     * method hands back to its caller.
+     *
+     * @param <T> the type Retrofit decodes
+     * @param <R> the type returned
+     */
+    @FunctionalInterface
+    protected interface ResponseHandler<T, R> {
+        R handle(Response<T> res) throws BaringoApiException, IOException;
     }
 
     /**
@@ -401,15 +1084,827 @@ public class BaringoClient {
             log.fine("API Call: " + request.url());
 
             request = authService().buildAuthenticatedRequest(request);
+            request = markOneShot(request);
+
+            boolean cacheStats = responseCache != null
+                    && request.method().equals("GET")
+                    && responseCachePolicy.ttlSeconds(request.url().encodedPath()) > 0;
+            CoalesceMark mark = null;
+            if (cacheStats && coalesceRequests) {
+                // a copy of someone else's response isn't ours to count
+                mark = new CoalesceMark();
+                request = request.newBuilder().tag(CoalesceMark.class, mark).build();
+            } // if
+
+            okhttp3.Response response = chain.proceed(request);
+
+            if (response.code() == 401 && !isOneShot(request)) {
+                // token may have been revoked or expired early; refresh and try once more
+                okhttp3.Request retry = authService().reauthenticate(request);
+                if (retry != null) {
+                    response.close();
+                    recordRetry(request);
+                    request = retry;
+                    if (mark != null) {
+                        mark.coalesced = false;
+                    } // if
+                    response = chain.proceed(request);
+                } // if
+            } // if
+
+            if (cacheStats && (mark == null || !mark.coalesced)) {
+                if (response.networkResponse() == null) {
+                    responseCacheStats.recordHit();
+                } else if (response.cacheResponse() != null
+                        && response.networkResponse().code() == 304) {
+                    responseCacheStats.recordRevalidation();
+                } else {
+                    responseCacheStats.recordMiss();
+                } // if-else
+            } // if
+
+            return response;
+        }
+    }
+
+    private static boolean isOneShot(okhttp3.Request request) {
+        return request.body() != null && request.body().isOneShot();
+    } // isOneShot
+
+    /**
+     * MultipartBody doesn't report itself one-shot when one of its
+     * parts is, such as an upload streamed from an InputStream.  Say so
+     * on its behalf, so nothing downstream (body logging, a retry)
+     * tries to read the stream a second time.
+     */
+    private static okhttp3.Request markOneShot(okhttp3.Request request) {
+        RequestBody body = request.body();
+        if (!(body instanceof MultipartBody) || body.isOneShot()) {
+            return request;
+        } // if
+        for (MultipartBody.Part part : ((MultipartBody) body).parts()) {
+            if (part.body().isOneShot()) {
+                return request.newBuilder()
+                        .method(request.method(), new OneShotBody(body))
+                        .build();
+            } // if
+        } // for
+        return request;
+    } // markOneShot
+
+    private static class OneShotBody extends RequestBody {
+        private final RequestBody delegate;
+
+        OneShotBody(RequestBody delegate) {
+            this.delegate = delegate;
+        } // constructor
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public void writeTo(@NotNull BufferedSink sink) throws IOException {
+            delegate.writeTo(sink);
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return true;
+        }
+    } // class OneShotBody
+
+    /**
+     * Collapses identical GETs that are in flight at the same moment
+     * into one network call.  The first request for a given URL and
+     * Authorization header goes out; anyone asking for the same thing
+     * before it returns waits for it and gets their own copy of the
+     * body.  Should the first request fail, the others just go ahead
+     * on their own rather than inheriting its failure.
+     * <p>
+     * The body is only read into memory when someone has actually
+     * joined, and only up to MAX_SHARED_BYTES; past that the
+     * first caller keeps its response and the others go on their own.
+     * {@code @Streaming} calls are never coalesced, so they stream, and
+     * nor are the GETs marked {@link ChangesState}: two toggles are two
+     * toggles.
+     */
+    private class SingleFlightInterceptor implements okhttp3.Interceptor {
+
+        private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+        public @NotNull okhttp3.Response intercept(Chain chain) throws IOException {
+            okhttp3.Request request = chain.request();
+            if (!request.method().equals("GET") || isWrite(request) || isStreaming(request)) {
+                return chain.proceed(request);
+            } // if
+
+            String key = request.url() + " " + request.header("Authorization");
+            Flight mine = new Flight();
+            Flight leader = inFlight.putIfAbsent(key, mine);
+
+            if (leader != null) {
+                if (!leader.join()) {
+                    // it already has its answer and kept it to itself
+                    return chain.proceed(request);
+                } // if
+                Shared shared;
+                try {
+                    shared = leader.result.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for " + request.url());
+                } catch (ExecutionException e) {
+                    return chain.proceed(request);
+                } // try-catch
+                if (shared == null) {
+                    // too big to hand around
+                    return chain.proceed(request);
+                } // if
+                CoalesceMark mark = request.tag(CoalesceMark.class);
+                if (mark != null) {
+                    mark.coalesced = true;
+                } // if
+                coalescedRequestCount.incrementAndGet();
+                return shared.copyFor(request);
+            } // if
+
+            okhttp3.Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException | RuntimeException e) {
+                inFlight.remove(key, mine);
+                mine.close();
+                mine.result.completeExceptionally(e);
+                throw e;
+            } // try-catch
+            inFlight.remove(key, mine);
+            if (!mine.close()) {
+                // nobody joined, so there's nothing to buffer for
+                return response;
+            } // if
+
+            try {
+                ResponseBody body = response.body();
+                if (body == null) {
+                    mine.result.complete(new Shared(response, null, new byte[0]));
+                    return response;
+                } // if
+                BufferedSource source = body.source();
+                if (source.request(MAX_SHARED_BYTES + 1)) {
+                    // what's been read stays in the source's buffer
+                    mine.result.complete(null);
+                    return response;
+                } // if
+                Shared shared = new Shared(response, body.contentType(), source.readByteArray());
+                body.close();
+                mine.result.complete(shared);
+                return shared.copyFor(request);
+            } catch (IOException | RuntimeException e) {
+                mine.result.completeExceptionally(e);
+                response.close();
+                throw e;
+            } // try-catch
+        }
+    }
 
+    // anything but a GET or HEAD, plus the GETs that change state anyway
+    private static boolean isWrite(okhttp3.Request request) {
+        if (!request.method().equals("GET") && !request.method().equals("HEAD")) {
+            return true;
+        } // if
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null && invocation.method().isAnnotationPresent(ChangesState.class);
+    } // isWrite
+
+    private static boolean isStreaming(okhttp3.Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null && invocation.method().isAnnotationPresent(Streaming.class);
+    } // isStreaming
+
+    /**
+     * One request in flight, and whoever's joined it.  Once the first
+     * caller has its response the flight is closed to newcomers, so
+     * it knows for sure whether anyone needs a copy.
+     */
+    private static class Flight {
+        private final CompletableFuture<Shared> result = new CompletableFuture<>();
+        private int waiters = 0;
+        private boolean closed = false;
+
+        synchronized boolean join() {
+            if (closed) {
+                return false;
+            } // if
+            waiters++;
+            return true;
+        }
+
+        // returns true if anyone joined
+        synchronized boolean close() {
+            closed = true;
+            return waiters > 0;
+        }
+    }
+
+    /**
+     * A completed response, body read into memory so it can be
+     * handed to every caller that was waiting on it.
+     */
+    private static class Shared {
+        private final okhttp3.Response response;
+        private final MediaType contentType;
+        private final byte[] body;
+
+        Shared(okhttp3.Response response, MediaType contentType, byte[] body) {
+            this.response = response;
+            this.contentType = contentType;
+            this.body = body;
+        } // constructor
+
+        okhttp3.Response copyFor(okhttp3.Request request) {
+            return response.newBuilder()
+                    .request(request)
+                    .body(ResponseBody.create(body, contentType))
+                    .build();
+        }
+    }
+
+    /**
+     * Rides along on a request so the SingleFlightInterceptor can tell
+     * the ImgurInterceptor it answered with a copy.
+     */
+    private static class CoalesceMark {
+        private volatile boolean coalesced = false;
+    }
+
+    /**
+     * Waits on the rate limiter before the request reaches the cache
+     * and the connection pool.  It can't know yet whether the cache will
+     * answer, so it takes the credits anyway and gives them back when
+     * the response came from the cache without going out to Imgur.
+     */
+    private class RateLimitInterceptor implements okhttp3.Interceptor {
+
+        public @NotNull okhttp3.Response intercept(Chain chain) throws IOException {
+            okhttp3.Request request = chain.request();
+
+            try {
+                rateLimiter.acquire(request.method());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for quota");
+            } // try-catch
+
+            okhttp3.Response response = chain.proceed(request);
+            if (response.networkResponse() == null && response.cacheResponse() != null) {
+                rateLimiter.release(request.method());
+            } // if
+            return response;
+        }
+    }
+
+    /**
+     * Sits below the response cache, so it only sees requests that
+     * actually go out to Imgur.  That's where credits get spent, so
+     * that's where the quota gets read.
+     */
+    private class QuotaInterceptor implements okhttp3.Interceptor {
+
+        // the remaining credits as of the last response, for the
+        // metrics; swapped atomically so no drop is counted twice
+        private final AtomicInteger lastUserCredits = new AtomicInteger(-1);
+        private final AtomicInteger lastApplicationCredits = new AtomicInteger(-1);
+
+        public @NotNull okhttp3.Response intercept(Chain chain) throws IOException {
+            okhttp3.Request request = chain.request();
             okhttp3.Response response = chain.proceed(request);
 
+            CallMeter meter = request.tag(CallMeter.class);
+            if (meter != null) {
+                meter.addCredits(
+                        creditDrop(lastUserCredits, response.header(HEADER_USER_CREDITS_AVAILABLE)),
+                        creditDrop(lastApplicationCredits, response.header(HEADER_APPLICATION_CREDITS_AVAILABLE)));
+            } // if
             updateQuota(response);
+            if (rateLimiter != null) {
+                rateLimiter.update(quota);
+            } // if
 
             return response;
         }
     }
 
+    private void recordRetry(okhttp3.Request request) {
+        retryCount.incrementAndGet();
+        if (metrics != null) {
+            metrics.recordRetry(endpointOf(request));
+        } // if
+    } // recordRetry
+
+    /**
+     * Tries failed calls again as the RetryPolicy says.  It sits inside
+     * the MetricsInterceptor, so a call that took three tries is still
+     * recorded as one call, plus two retries.  Waits block the thread
+     * making the call, which for async calls is one of OkHttp's
+     * dispatcher threads.
+     */
+    private class RetryInterceptor implements okhttp3.Interceptor {
+
+        private final RetryPolicy policy;
+
+        // the retry budget; guarded by this
+        private long windowStart = 0;
+        private int spent = 0;
+
+        RetryInterceptor(RetryPolicy policy) {
+            this.policy = policy;
+        } // constructor
+
+        public @NotNull okhttp3.Response intercept(Chain chain) throws IOException {
+            okhttp3.Request request = chain.request();
+            boolean retryable = policy.isRetryable(isWrite(request))
+                    && !isOneShot(markOneShot(request));
+
+            for (int attempt = 1; ; attempt++) {
+                boolean last = !retryable || attempt >= policy.getMaxAttempts();
+                okhttp3.Response response;
+                try {
+                    response = chain.proceed(request);
+                } catch (IOException e) {
+                    // a timeout is worth another go; being interrupted isn't
+                    boolean interrupted = e instanceof InterruptedIOException
+                            && !(e instanceof SocketTimeoutException);
+                    if (last || interrupted || chain.call().isCanceled() || !spendRetry()) {
+                        throw e;
+                    } // if
+                    log.fine("Retrying " + request.url() + " after " + e);
+                    pause(chain, policy.backoffMillis(attempt));
+                    recordRetry(request);
+                    continue;
+                } // try-catch
+
+                if (last || !policy.isRetryableStatus(response.code())) {
+                    return response;
+                } // if
+                long wait = waitFor(response, request.method(), attempt);
+                if (wait < 0 || !spendRetry()) {
+                    return response;
+                } // if
+                response.close();
+                log.fine("Retrying " + request.url() + " after HTTP " + response.code()
+                        + " in " + wait + "ms");
+                pause(chain, wait);
+                recordRetry(request);
+            } // for
+        }
+
+        /**
+         * How long to wait before retrying this response, or -1 to
+         * give up.  Imgur's Retry-After wins over the backoff, and an
+         * exhausted quota means waiting for its reset.
+         */
+        private long waitFor(okhttp3.Response response, String method, int attempt) {
+            long now = System.currentTimeMillis();
+            long wait = policy.backoffMillis(attempt);
+            String retryAfter = response.header("Retry-After");
+            if (retryAfter != null) {
+                wait = retryAfterMillis(retryAfter, now, wait);
+            } else if (response.code() == 429) {
+                if (quota.getApplicationCreditsAllocated() > 0
+                        && quota.getApplicationCreditsAvailable() <= 0) {
+                    return -1; // resets daily, and doesn't say when
+                } // if
+                if (quota.getUserCreditsAvailable() <= 0 && quota.getUserCreditResetDate() != null) {
+                    wait = Math.max(wait, quota.getUserCreditResetDate().getTime() - now);
+                } // if
+                if (!method.equals("GET") && !method.equals("HEAD")
+                        && quota.getPostCreditsAvailable() <= 0 && quota.getPostCreditResetDate() != null) {
+                    wait = Math.max(wait, quota.getPostCreditResetDate().getTime() - now);
+                } // if
+            } // if-else
+            return wait > policy.getMaxWait() ? -1 : wait;
+        } // waitFor
+
+        private synchronized boolean spendRetry() {
+            long now = System.currentTimeMillis();
+            if (now - windowStart >= policy.getBudgetWindow()) {
+                windowStart = now;
+                spent = 0;
+            } // if
+            if (spent >= policy.getBudget()) {
+                log.fine("Retry budget spent; not retrying");
+                return false;
+            } // if
+            spent++;
+            return true;
+        } // spendRetry
+
+        private void pause(Chain chain, long millis) throws IOException {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting to retry " + chain.request().url());
+            } // try-catch
+            if (chain.call().isCanceled()) {
+                throw new IOException("Canceled");
+            } // if
+        } // pause
+    }
+
+    // Retry-After is either seconds or an HTTP date
+    private static long retryAfterMillis(String value, long now, long fallback) {
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                return Math.max(0, ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli() - now);
+            } catch (DateTimeParseException e2) {
+                return fallback;
+            } // try-catch
+        } // try-catch
+    } // retryAfterMillis
+
+    /**
+     * Times each API call and counts its bytes for the
+     * MetricsCollector.  The QuotaInterceptor adds the credits of
+     * whatever actually went out to Imgur for it, so cache hits and
+     * coalesced requests cost nothing, and a retry costs twice.  The
+     * call is recorded once its body has been read to the end or
+     * closed; a failed call is recorded straight away.
+     */
+    private class MetricsInterceptor implements okhttp3.Interceptor {
+
+        public @NotNull okhttp3.Response intercept(Chain chain) throws IOException {
+            CallMeter meter = new CallMeter(endpointOf(chain.request()));
+            okhttp3.Request request = chain.request().newBuilder()
+                    .tag(CallMeter.class, meter)
+                    .build();
+            long requestBytes = 0;
+            if (request.body() != null) {
+                requestBytes = Math.max(0, request.body().contentLength());
+            } // if
+
+            long start = System.nanoTime();
+            okhttp3.Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                metrics.recordCall(meter.toRecord(request.method(), 0,
+                        System.nanoTime() - start, requestBytes, 0, false, e));
+                throw e;
+            } // try-catch
+            long latency = System.nanoTime() - start;
+
+            int status = response.code();
+            boolean fromCache = response.networkResponse() == null
+                    && response.cacheResponse() != null;
+            ResponseBody body = response.body();
+            if (body == null) {
+                metrics.recordCall(meter.toRecord(request.method(), status,
+                        latency, requestBytes, 0, fromCache, null));
+                return response;
+            } // if
+            final long sent = requestBytes;
+            return response.newBuilder()
+                    .body(new MeteredBody(body, read -> metrics.recordCall(meter.toRecord(
+                            request.method(), status, latency, sent, read, fromCache, null))))
+                    .build();
+        }
+    }
+
+    /**
+     * Rides along on a request as a tag, collecting the credits spent
+     * on its behalf further down the chain.
+     */
+    private class CallMeter {
+        private final String endpoint;
+        private final AtomicInteger userCredits = new AtomicInteger();
+        private final AtomicInteger applicationCredits = new AtomicInteger();
+
+        CallMeter(String endpoint) {
+            this.endpoint = endpoint;
+        } // constructor
+
+        void addCredits(int user, int application) {
+            userCredits.addAndGet(user);
+            applicationCredits.addAndGet(application);
+        }
+
+        CallRecord toRecord(String method, int status, long latencyNanos,
+                            long requestBytes, long responseBytes,
+                            boolean fromCache, IOException error) {
+            return new CallRecord(endpoint, method, status, latencyNanos,
+                    requestBytes, responseBytes,
+                    userCredits.get(), applicationCredits.get(), fromCache, error);
+        }
+    }
+
+    /**
+     * The drop in remaining credits since the last response that
+     * reported them.  Nothing the first time, and nothing when they
+     * went up, which means the quota was reset.
+     */
+    private static int creditDrop(AtomicInteger last, String header) {
+        if (header == null) {
+            return 0;
+        } // if
+        int now;
+        try {
+            now = Integer.parseInt(header);
+        } catch (NumberFormatException e) {
+            return 0;
+        } // try-catch
+        int before = last.getAndSet(now);
+        return before < 0 ? 0 : Math.max(0, before - now);
+    } // creditDrop
+
+    /**
+     * Names a call for the metrics: the RetrofittedImgur method that
+     * made it, or failing that its HTTP method and path.
+     */
+    private static String endpointOf(okhttp3.Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation != null) {
+            return invocation.method().getName();
+        } // if
+        return request.method() + " " + request.url().encodedPath();
+    } // endpointOf
+
+    /**
+     * Counts the bytes read through a response body, and reports the
+     * count exactly once: when the body runs out or is closed,
+     * whichever comes first.
+     */
+    private static class MeteredBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final LongConsumer onDone;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private long count = 0;
+        private BufferedSource source = null;
+
+        MeteredBody(ResponseBody delegate, LongConsumer onDone) {
+            this.delegate = delegate;
+            this.onDone = onDone;
+        } // constructor
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public @NotNull BufferedSource source() {
+            if (source == null) {
+                source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                    @Override
+                    public long read(@NotNull Buffer sink, long byteCount) throws IOException {
+                        long read = super.read(sink, byteCount);
+                        if (read == -1) {
+                            finish();
+                        } else {
+                            count += read;
+                        } // if-else
+                        return read;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        finish();
+                        super.close();
+                    }
+                });
+            } // if
+            return source;
+        }
+
+        private void finish() {
+            if (done.compareAndSet(false, true)) {
+                onDone.accept(count);
+            } // if
+        }
+    }
+
+    /**
+     * Logs API calls as the HttpLogPolicy says.  Each request and each
+     * response is one log entry, built only if the logger would print
+     * it.  Bodies are read no further than the size cap: request bodies
+     * are only copied if their whole length is under it, and response
+     * bodies are peeked, leaving the real body untouched for the caller.
+     * Multipart uploads and other binary bodies are just summarized.
+     * Nothing under /oauth2/ has its body logged, since those carry the
+     * client secret and the access and refresh tokens.
+     */
+    private class HttpLogInterceptor implements okhttp3.Interceptor {
+
+        private final HttpLogPolicy policy;
+
+        HttpLogInterceptor(HttpLogPolicy policy) {
+            this.policy = policy;
+        } // constructor
+
+        public @NotNull okhttp3.Response intercept(Chain chain) throws IOException {
+            okhttp3.Request request = chain.request();
+            if (!log.isLoggable(java.util.logging.Level.INFO) || !sampled(request)) {
+                return chain.proceed(request);
+            } // if
+
+            HttpLogPolicy.Level level = policy.getLevel();
+            StringBuilder buf = new StringBuilder("--> ")
+                    .append(request.method()).append(' ').append(request.url());
+            RequestBody body = request.body();
+            if (body != null) {
+                buf.append(" (").append(describeLength(body.contentLength())).append(')');
+            } // if
+            if (level != HttpLogPolicy.Level.BASIC) {
+                appendHeaders(buf, request.headers());
+            } // if
+            boolean secret = request.url().encodedPath().contains("/oauth2/");
+            if (level == HttpLogPolicy.Level.BODY && body != null) {
+                if (secret) {
+                    buf.append("\n(credentials not logged)");
+                } else {
+                    appendRequestBody(buf, body);
+                } // if-else
+            } // if
+            log.info(buf.toString());
+
+            long start = System.nanoTime();
+            okhttp3.Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                log.info("<-- HTTP FAILED " + request.url() + ": " + e);
+                throw e;
+            } // try-catch
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            buf = new StringBuilder("<-- ")
+                    .append(response.code()).append(' ').append(response.message())
+                    .append(' ').append(request.url())
+                    .append(" (").append(millis).append("ms");
+            ResponseBody respBody = response.body();
+            if (respBody != null) {
+                buf.append(", ").append(describeLength(respBody.contentLength()));
+            } // if
+            buf.append(')');
+            if (level != HttpLogPolicy.Level.BASIC) {
+                appendHeaders(buf, response.headers());
+            } // if
+            if (level == HttpLogPolicy.Level.BODY && respBody != null) {
+                if (secret) {
+                    buf.append("\n(credentials not logged)");
+                } else {
+                    appendResponseBody(buf, response, respBody);
+                } // if-else
+            } // if
+            log.info(buf.toString());
+            return response;
+        }
+
+        private boolean sampled(okhttp3.Request request) {
+            double rate = policy.sampleRate(request.url().encodedPath());
+            return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+        } // sampled
+
+        private void appendHeaders(StringBuilder buf, okhttp3.Headers headers) {
+            for (int i = 0; i < headers.size(); i++) {
+                String name = headers.name(i);
+                buf.append("\n").append(name).append(": ")
+                        .append(policy.isRedacted(name) ? "<redacted>" : headers.value(i));
+            } // for
+        } // appendHeaders
+
+        private void appendRequestBody(StringBuilder buf, RequestBody body) throws IOException {
+            long length = body.contentLength();
+            if (!isText(body.contentType()) || body.isOneShot() || body.isDuplex()
+                    || length < 0 || length > policy.getMaxBodyBytes()) {
+                buf.append("\n(body not logged)");
+                return;
+            } // if
+            Buffer copy = new Buffer();
+            body.writeTo(copy);
+            buf.append("\n").append(new String(copy.readByteArray(), charsetOf(body.contentType())));
+        } // appendRequestBody
+
+        private void appendResponseBody(StringBuilder buf, okhttp3.Response response,
+                                        ResponseBody body) throws IOException {
+            if (!isText(body.contentType())) {
+                buf.append("\n(body not logged)");
+                return;
+            } // if
+            long max = policy.getMaxBodyBytes();
+            byte[] bytes = response.peekBody(max).bytes();
+            buf.append("\n").append(new String(bytes, charsetOf(body.contentType())));
+            if (bytes.length >= max && body.contentLength() != bytes.length) {
+                buf.append("... (truncated)");
+            } // if
+        } // appendResponseBody
+
+        private boolean isText(MediaType type) {
+            if (type == null) {
+                return false;
+            } // if
+            String subtype = type.subtype();
+            return type.type().equals("text") || subtype.equals("json")
+                    || subtype.endsWith("+json") || subtype.equals("x-www-form-urlencoded");
+        } // isText
+
+        private Charset charsetOf(MediaType type) {
+            Charset charset = type == null ? null : type.charset();
+            return charset != null ? charset : StandardCharsets.UTF_8;
+        } // charsetOf
+
+        private String describeLength(long length) {
+            return length < 0 ? "unknown length" : length + "-byte body";
+        } // describeLength
+    } // class HttpLogInterceptor
+
+    /**
+     * Imgur marks everything no-cache.  For GETs the response cache
+     * policy knows to be slow-changing, this swaps in a max-age so the
+     * OkHttp cache will keep them, and varies them on Authorization so
+     * cached responses never cross users.  Everything else is marked
+     * no-store.  ETag and Last-Modified are left alone, which is what
+     * lets OkHttp revalidate stale entries with a conditional GET.
+     * <p>
+     * OkHttp only drops a cached entry when a write goes to that same
+     * URL, but most of Imgur's writes go somewhere next to the resource
+     * they change (/3/album/{id}/add, /3/image/{id}/favorite...).  So
+     * after any write succeeds, the cached entries for the resource it
+     * belongs to, and anything under it, are dropped too.
+     */
+    private class CachePolicyInterceptor implements okhttp3.Interceptor {
+
+        public @NotNull okhttp3.Response intercept(Chain chain) throws IOException {
+            okhttp3.Request request = chain.request();
+            okhttp3.Response response = chain.proceed(request);
+
+            if (isWrite(request) && response.isSuccessful()) {
+                forgetCachedResource(request.url().encodedPath());
+            } // if
+
+            long ttl = request.method().equals("GET")
+                    ? responseCachePolicy.ttlSeconds(request.url().encodedPath())
+                    : 0;
+            if (ttl <= 0 || (response.code() != 200 && response.code() != 304)) {
+                return response.newBuilder()
+                        .header("Cache-Control", "no-store")
+                        .build();
+            } // if
+
+            String vary = response.header("Vary");
+            return response.newBuilder()
+                    .header("Cache-Control", "private, max-age=" + ttl)
+                    .header("Vary", vary == null ? "Authorization" : vary + ", Authorization")
+                    .removeHeader("Pragma")
+                    .removeHeader("Expires")
+                    .build();
+        }
+
+        // drops /3/{type}/{id} and everything under it from the cache
+        private void forgetCachedResource(String writePath) {
+            String[] segments = writePath.split("/");
+            // "", "3", type, id, ...
+            if (segments.length < 4 || !segments[1].equals("3")) {
+                return;
+            } // if
+            String resource = "/3/" + segments[2] + "/" + segments[3];
+            // a delete hash can't be matched to the id the entry was
+            // fetched under, so everything of that type goes
+            String typePrefix = segments[3].length() > MAX_ID_LENGTH ? "/3/" + segments[2] + "/" : null;
+            try {
+                Iterator<String> urls = responseCache.urls();
+                while (urls.hasNext()) {
+                    String path = URI.create(urls.next()).getRawPath();
+                    if (path == null) {
+                        continue;
+                    } // if
+                    if (typePrefix != null
+                            ? path.startsWith(typePrefix)
+                            : path.equals(resource) || path.startsWith(resource + "/")) {
+                        urls.remove();
+                    } // if
+                } // while
+            } catch (IOException | IllegalArgumentException e) {
+                log.warning("Couldn't clear cached " + resource + ": " + e);
+            } // try-catch
+        } // forgetCachedResource
+    }
+
     /**
      * Apparently standard Gson can't tolerate a unix timestamp
      * representing a date object.  That's pretty much all we care
@@ -0,0 +1,379 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.util.BaringoApiException;
+import com.github.kskelm.baringo.util.Utils;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Spreads work across several clients, each with its own client id
+ * (and optionally its own logged-in user), to get more credits than
+ * one registered application is allowed.
+ * <p>
+ * Every call is handed to the client with the most credits left, as
+ * last reported by Imgur, less the calls it already has in flight.
+ * Clients that haven't made a call yet count as full.  If Imgur turns
+ * a call away with a 429, or the client's quota shows it's run dry,
+ * that client sits out until its credits reset and the call is tried
+ * again on the next best one.
+ * <p>
+ * Calls that create something, such as uploads and comments, also
+ * spend post credits.  Run those through {@link #executePost} or
+ * {@link #executePostAsync} so the pool counts post credits too, and
+ * only benches a client's posting, not its reads, when they run out.
+ * <p>
+ * Since each service belongs to a single client, work goes through
+ * the pool as a lambda that's given the client to use:
+ * <pre>
+ * Image img = pool.execute(c -&gt; c.imageService().getImageInfo(id));
+ * </pre>
+ * The pool is safe to share between threads.  Clients in a pool
+ * should each have been built with their own credentials; two clients
+ * with the same client id just share one quota.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class BaringoClientPool {
+
+    private static final Logger log = Logger.getLogger(BaringoClient.LOG_NAME);
+
+    private static final int HTTP_FORBIDDEN = 403;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final List<Member> members;
+
+    /**
+     * Construct a pool
+     * @param clients the clients to route between
+     * @throws BaringoApiException no clients were given
+     */
+    public BaringoClientPool(List<BaringoClient> clients) throws BaringoApiException {
+        if (clients == null || clients.isEmpty()) {
+            throw new BaringoApiException("A client pool needs at least one client");
+        } // if
+        List<Member> list = new ArrayList<>();
+        for (BaringoClient client : clients) {
+            list.add(new Member(client));
+        } // for
+        this.members = Collections.unmodifiableList(list);
+    } // constructor
+
+    /**
+     * Construct a pool
+     * @param clients the clients to route between
+     * @throws BaringoApiException no clients were given
+     */
+    public BaringoClientPool(BaringoClient... clients) throws BaringoApiException {
+        this(Arrays.asList(clients));
+    } // constructor
+
+    /**
+     * Runs a blocking call on the client with the most credits left,
+     * moving on to the next one whenever a client turns out to be out
+     * of credits.  Any other failure is thrown straight back.
+     *
+     * @param call the work to do
+     * @param <T>  the result type
+     * @return whatever the call returned
+     * @throws BaringoApiException the call failed, or every client is out of credits (http code 429)
+     */
+    public <T> T execute(PooledCall<T> call) throws BaringoApiException {
+        return execute(call, false);
+    } // execute
+
+    /**
+     * {@link #execute} for a call that POSTs and so also spends post
+     * credits.  The client is picked on whichever of its credits are
+     * lowest, post credits included.  A client whose post credits run
+     * out isn't given another post until they reset.
+     *
+     * @param call the work to do
+     * @param <T>  the result type
+     * @return whatever the call returned
+     * @throws BaringoApiException the call failed, or every client is out of credits (http code 429)
+     */
+    public <T> T executePost(PooledCall<T> call) throws BaringoApiException {
+        return execute(call, true);
+    } // executePost
+
+    private <T> T execute(PooledCall<T> call, boolean post) throws BaringoApiException {
+        Set<Member> tried = new HashSet<>();
+        while (true) {
+            Member member = pick(tried, post);
+            member.inFlight.incrementAndGet();
+            try {
+                return call.call(member.client);
+            } catch (BaringoApiException e) {
+                if (!isOutOfCredits(member, e, post)) {
+                    throw e;
+                } // if
+                member.exhausted(post);
+                tried.add(member);
+            } finally {
+                member.inFlight.decrementAndGet();
+            } // try-catch
+        } // while
+    } // execute
+
+    /**
+     * The async flavor of {@link #execute}, for calls made through
+     * a service's async() view.  A call that fails for lack of
+     * credits is re-issued on the next best client.
+     *
+     * @param call the work to do
+     * @param <T>  the result type
+     * @return a future for the call's result
+     */
+    public <T> CompletableFuture<T> executeAsync(AsyncPooledCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(call, false, new HashSet<>(), result);
+        return result;
+    } // executeAsync
+
+    /**
+     * The async flavor of {@link #executePost}.
+     *
+     * @param call the work to do
+     * @param <T>  the result type
+     * @return a future for the call's result
+     */
+    public <T> CompletableFuture<T> executePostAsync(AsyncPooledCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attemptAsync(call, true, new HashSet<>(), result);
+        return result;
+    } // executePostAsync
+
+    private <T> void attemptAsync(AsyncPooledCall<T> call, boolean post, Set<Member> tried,
+                                  CompletableFuture<T> result) {
+        Member member;
+        try {
+            member = pick(tried, post);
+        } catch (BaringoApiException e) {
+            result.completeExceptionally(e);
+            return;
+        } // try-catch
+
+        member.inFlight.incrementAndGet();
+        CompletableFuture<T> attempt;
+        try {
+            attempt = call.call(member.client);
+        } catch (RuntimeException e) {
+            member.inFlight.decrementAndGet();
+            result.completeExceptionally(e);
+            return;
+        } // try-catch
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                attempt.cancel(true);
+            } // if
+        });
+
+        attempt.whenComplete((value, error) -> {
+            member.inFlight.decrementAndGet();
+            if (error == null) {
+                result.complete(value);
+                return;
+            } // if
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof BaringoApiException
+                    && isOutOfCredits(member, (BaringoApiException) cause, post)
+                    && !result.isDone()) {
+                member.exhausted(post);
+                tried.add(member);
+                attemptAsync(call, post, tried, result);
+            } else {
+                result.completeExceptionally(cause);
+            } // if-else
+        });
+    } // attemptAsync
+
+    /**
+     * Returns the client that the next call would go to, for those
+     * times when a single client needs to be held onto for a while,
+     * such as when paging through a listing.
+     *
+     * @return the client with the most credits left
+     * @throws BaringoApiException every client is out of credits (http code 429)
+     */
+    public BaringoClient client() throws BaringoApiException {
+        return pick(Collections.emptySet(), false).client;
+    } // client
+
+    /**
+     * Returns the clients in this pool, in the order given
+     * @return the clients
+     */
+    public List<BaringoClient> getClients() {
+        List<BaringoClient> list = new ArrayList<>();
+        for (Member member : members) {
+            list.add(member.client);
+        } // for
+        return list;
+    }
+
+    /**
+     * Returns the number of calls a client could still make as far
+     * as we know, taking the smaller of its user and application
+     * credits.  Integer.MAX_VALUE if Imgur hasn't said yet.
+     *
+     * @param client a client in this pool
+     * @return the credits left
+     */
+    public int getRemainingCredits(BaringoClient client) {
+        Quota quota = client.getQuota();
+        int credits = Integer.MAX_VALUE;
+        if (quota.getUserCreditsAllocated() > 0) {
+            credits = Math.min(credits, quota.getUserCreditsAvailable());
+        } // if
+        if (quota.getApplicationCreditsAllocated() > 0) {
+            credits = Math.min(credits, quota.getApplicationCreditsAvailable());
+        } // if
+        return credits;
+    }
+
+    private Member pick(Set<Member> exclude, boolean post) throws BaringoApiException {
+        long now = System.currentTimeMillis();
+        Member best = null;
+        long bestScore = Long.MIN_VALUE;
+        for (Member member : members) {
+            if (exclude.contains(member) || member.exhaustedUntil > now
+                    || (post && member.postsExhaustedUntil > now)) {
+                continue;
+            } // if
+            int credits = getRemainingCredits(member.client);
+            if (post) {
+                credits = Math.min(credits, getRemainingPostCredits(member.client));
+            } // if
+            long score = (long) credits - member.inFlight.get();
+            if (best == null || score > bestScore) {
+                best = member;
+                bestScore = score;
+            } // if
+        } // for
+        if (best == null) {
+            throw new BaringoApiException("Every client in the pool is out of credits", HTTP_TOO_MANY_REQUESTS);
+        } // if
+        return best;
+    } // pick
+
+    /**
+     * Returns the number of POSTs a client could still make as far as
+     * we know.  Integer.MAX_VALUE if it hasn't made one yet, since
+     * Imgur only reports post credits on POST responses.
+     *
+     * @param client a client in this pool
+     * @return the post credits left
+     */
+    public int getRemainingPostCredits(BaringoClient client) {
+        Quota quota = client.getQuota();
+        if (quota.getPostCreditsAllocated() <= 0) {
+            return Integer.MAX_VALUE;
+        } // if
+        return quota.getPostCreditsAvailable();
+    }
+
+    private boolean isOutOfCredits(Member member, BaringoApiException e, boolean post) {
+        if (e.getHttpCode() == HTTP_TOO_MANY_REQUESTS) {
+            return true;
+        } // if
+        // older Imgur behavior: a plain 403 once the credits hit zero
+        return e.getHttpCode() == HTTP_FORBIDDEN
+                && (getRemainingCredits(member.client) <= 0
+                || (post && getRemainingPostCredits(member.client) <= 0));
+    } // isOutOfCredits
+
+    @Override
+    public String toString() {
+        LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+        for (Member member : members) {
+            fields.put(member.client.authService().getClientId(), getRemainingCredits(member.client));
+        } // for
+        return Utils.toString(fields, BaringoClientPool.class.getSimpleName());
+    } // toString
+
+    /**
+     * Work to run against whichever client the pool picks
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface PooledCall<T> {
+        T call(BaringoClient client) throws BaringoApiException;
+    }
+
+    /**
+     * Async work to run against whichever client the pool picks
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface AsyncPooledCall<T> {
+        CompletableFuture<T> call(BaringoClient client);
+    }
+
+    private static class Member {
+        private final BaringoClient client;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long exhaustedUntil = 0;
+        private volatile long postsExhaustedUntil = 0;
+
+        Member(BaringoClient client) {
+            this.client = client;
+        } // constructor
+
+        // bench this client until whichever of its credits ran out come
+        // back.  If only its post credits did, just its posting sits out.
+        void exhausted(boolean post) {
+            Quota quota = client.getQuota();
+            long now = System.currentTimeMillis();
+            boolean generalLeft = (quota.getApplicationCreditsAllocated() <= 0
+                    || quota.getApplicationCreditsAvailable() > 0)
+                    && (quota.getUserCreditResetDate() == null || quota.getUserCreditsAvailable() > 0);
+            if (post && quota.getPostCreditsAllocated() > 0 && quota.getPostCreditsAvailable() <= 0) {
+                long postUntil = quota.getPostCreditResetDate() == null
+                        ? 0 : quota.getPostCreditResetDate().getTime();
+                if (postUntil <= now) {
+                    postUntil = now + TimeUnit.MINUTES.toMillis(1);
+                } // if
+                postsExhaustedUntil = postUntil;
+                log.info("Client " + client.authService().getClientId()
+                        + " is out of post credits until " + new Date(postUntil));
+                if (generalLeft) {
+                    return;
+                } // if
+            } // if
+            long until = 0;
+            if (quota.getApplicationCreditsAllocated() > 0 && quota.getApplicationCreditsAvailable() <= 0) {
+                // Imgur only says application credits are per day
+                until = LocalDate.now(ZoneOffset.UTC).plusDays(1)
+                        .atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            } // if
+            if (quota.getUserCreditResetDate() != null && quota.getUserCreditsAvailable() <= 0) {
+                until = Math.max(until, quota.getUserCreditResetDate().getTime());
+            } // if
+            if (until <= now) {
+                // a 429 without quota to explain it; give it a minute
+                until = now + TimeUnit.MINUTES.toMillis(1);
+            } // if
+            exhaustedUntil = until;
+            log.info("Client " + client.authService().getClientId() + " is out of credits until " + new Date(until));
+        } // exhausted
+    } // class Member
+
+} // class BaringoClientPool
@@ -0,0 +1,544 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.model.Album;
+import com.github.kskelm.baringo.model.Image;
+import com.github.kskelm.baringo.util.BaringoApiException;
+import com.github.kskelm.baringo.util.Utils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Uploads a batch of image files, optionally into an album.
+ * <p>
+ * Files are uploaded a few at a time.  Every upload spends one of the
+ * client's hourly post credits, so before each one the uploader checks
+ * the post credits Imgur last reported (less uploads already under way),
+ * and if they've run down to the reserve it waits for the reset rather
+ * than letting uploads fail.  Once everything is up, the images are
+ * added to the album with a single call.
+ * <p>
+ * With a journal file, each finished upload is recorded as it happens.
+ * Running the same batch again after a crash reads the journal back and
+ * only uploads what's missing, then finishes off the album.
+ * <p>
+ * Get one from {@link ImageService#batchUploader()}:
+ * <pre>
+ * BatchUploader.Report report = client.imageService().batchUploader()
+ *     .journal(new File("vacation.journal"))
+ *     .add(Paths.get("beach.jpg"), "Beach", null)
+ *     .add(Paths.get("sunset.jpg"), "Sunset", null)
+ *     .upload(album);
+ * </pre>
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class BatchUploader {
+
+    private static final Logger log = Logger.getLogger(BaringoClient.LOG_NAME);
+
+    private static final String JOURNAL_UPLOADED = "U";
+    private static final String JOURNAL_ATTACHED = "A";
+
+    private final BaringoClient client;
+    private final List<Item> items = new ArrayList<>();
+    private int parallelism = 4;
+    private int postCreditReserve = 0;
+    private File journal = null;
+    private Consumer<Outcome> listener = null;
+
+    // uploads started but not yet reflected in the quota
+    private int postsInFlight = 0;
+    private final Object creditLock = new Object();
+
+    /**
+     * What happened to one file
+     */
+    public enum Status {
+        /**
+         * uploaded during this run
+         */
+        UPLOADED,
+        /**
+         * uploaded by an earlier run, according to the journal
+         */
+        JOURNALED,
+        /**
+         * couldn't be uploaded; see {@link Outcome#getError()}
+         */
+        FAILED
+    }
+
+    protected BatchUploader(BaringoClient client) {
+        this.client = client;
+    } // constructor
+
+    /**
+     * Queues a file for upload.  The mime type is worked out the same
+     * way as {@link ImageService#uploadImage(Path, String, String, String, String, UploadProgressListener)}.
+     * @param file        the image file
+     * @param title       title of image or null if none
+     * @param description description of image or null if none
+     * @return this uploader
+     */
+    public BatchUploader add(Path file, String title, String description) {
+        items.add(new Item(file.toAbsolutePath().normalize(), title, description));
+
+        return this;
+    }
+
+    /**
+     * Sets how many uploads run at once.  Defaults to 4.
+     * @param parallelism the number of upload threads
+     * @return this uploader
+     */
+    public BatchUploader parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        } // if
+        this.parallelism = parallelism;
+
+        return this;
+    }
+
+    /**
+     * Sets how many post credits to leave unspent, for other work
+     * sharing the client.  Defaults to 0.
+     * @param reserve the credits to hold back
+     * @return this uploader
+     */
+    public BatchUploader postCreditReserve(int reserve) {
+        this.postCreditReserve = Math.max(0, reserve);
+
+        return this;
+    }
+
+    /**
+     * Sets a file to record progress in, so an interrupted batch can
+     * pick up where it left off.  Use one journal per batch.
+     * @param journal the journal file, or null for none
+     * @return this uploader
+     */
+    public BatchUploader journal(File journal) {
+        this.journal = journal;
+
+        return this;
+    }
+
+    /**
+     * Sets a listener that's told about each file as soon as it's
+     * done with.  It's called from the upload threads.
+     * @param listener the listener, or null for none
+     * @return this uploader
+     */
+    public BatchUploader onItem(Consumer<Outcome> listener) {
+        this.listener = listener;
+
+        return this;
+    }
+
+    /**
+     * Uploads everything queued and, if an album is given, adds the
+     * uploaded images to it in one call.  Blocks until done.  Files
+     * that fail don't stop the others; they're left out of the album
+     * and reported in the outcomes, and a later run with the same
+     * journal will try them again.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b> or <b>AUTHENTICATED USER</b>
+     *
+     * @param album the album to fill, or null to just upload
+     * @return what happened to each file, and the updated album
+     * @throws IOException          the journal couldn't be read or written
+     * @throws BaringoApiException  the images uploaded but couldn't be added to the album
+     * @throws InterruptedException the calling thread was interrupted
+     */
+    public Report upload(Album album) throws IOException, BaringoApiException, InterruptedException {
+        HashMap<Path, String[]> done = new HashMap<>();
+        HashSet<String> attached = new HashSet<>();
+        readJournal(done, attached);
+
+        int remaining = 0;
+        for (Item item : items) {
+            if (!done.containsKey(item.file)) {
+                remaining++;
+            } // if
+        } // for
+        Quota quota = client.getQuota();
+        if (quota.getPostCreditsAllocated() > 0
+                && remaining > quota.getPostCreditsAvailable() - postCreditReserve) {
+            log.warning("Batch of " + remaining + " uploads needs more than the "
+                    + quota.getPostCreditsAvailable() + " post credits left; it will pause until "
+                    + quota.getPostCreditResetDate());
+        } // if
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "baringo-upload-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        List<Outcome> outcomes = new ArrayList<>();
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            for (Item item : items) {
+                String[] prior = done.get(item.file);
+                if (prior != null) {
+                    futures.add(null);
+                    outcomes.add(new Outcome(item.file, Status.JOURNALED, null, prior[0], prior[1], null));
+                } else {
+                    futures.add(pool.submit(() -> uploadOne(item)));
+                    outcomes.add(null);
+                } // if-else
+            } // for
+            for (int i = 0; i < futures.size(); i++) {
+                if (futures.get(i) == null) {
+                    continue;
+                } // if
+                try {
+                    outcomes.set(i, futures.get(i).get());
+                } catch (ExecutionException e) {
+                    // uploadOne() catches everything it expects to see
+                    throw new IllegalStateException(e.getCause());
+                } // try-catch
+            } // for
+        } finally {
+            pool.shutdownNow();
+        } // try-finally
+
+        Album result = album;
+        List<String> ids = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.getStatus() != Status.FAILED && !attached.contains(outcome.getImageId())) {
+                ids.add(outcome.getImageId());
+            } // if
+        } // for
+        if (album != null && !ids.isEmpty()) {
+            // the uploads already handed back their images, so don't
+            // have Imgur send each one again
+            result = client.albumService().addAlbumImageIds(album, ids, false);
+            if (result == null) {
+                throw new BaringoApiException("Imgur refused to add images to album " + album.getId());
+            } // if
+            for (String id : ids) {
+                appendJournal(JOURNAL_ATTACHED, id);
+            } // for
+            appendImages(result, outcomes, ids);
+        } // if
+        return new Report(outcomes, result);
+    } // upload
+
+    /**
+     * Adds the newly attached images to the album's image list, in
+     * upload order.  Only those uploaded by an earlier run have to be
+     * fetched; this run already has the rest.
+     */
+    private void appendImages(Album album, List<Outcome> outcomes, List<String> ids)
+            throws BaringoApiException {
+        List<Image> images = album.getImages() == null
+                ? new ArrayList<>() : new ArrayList<>(album.getImages());
+        HashSet<String> have = new HashSet<>();
+        for (Image image : images) {
+            have.add(image.getId());
+        } // for
+        HashSet<String> wanted = new HashSet<>(ids);
+        for (Outcome outcome : outcomes) {
+            String id = outcome.getImageId();
+            if (!wanted.contains(id) || !have.add(id)) {
+                continue;
+            } // if
+            images.add(outcome.getImage() != null
+                    ? outcome.getImage()
+                    : client.imageService().getImageInfo(id));
+        } // for
+        album.setImages(images);
+    } // appendImages
+
+    private Outcome uploadOne(Item item) throws InterruptedException {
+        Outcome outcome;
+        awaitPostCredit();
+        try {
+            Image image = client.imageService().uploadImage(
+                    item.file, null, null, item.title, item.description, null);
+            try {
+                appendJournal(JOURNAL_UPLOADED, item.file.toString(), image.getId(), image.getDeleteHash());
+            } catch (IOException e) {
+                // the upload itself worked; a rerun will just repeat it
+                log.warning("Couldn't journal upload of " + item.file + ": " + e.getMessage());
+            } // try-catch
+            outcome = new Outcome(item.file, Status.UPLOADED, image, image.getId(), image.getDeleteHash(), null);
+        } catch (IOException | BaringoApiException e) {
+            outcome = new Outcome(item.file, Status.FAILED, null, null, null, e);
+        } finally {
+            synchronized (creditLock) {
+                postsInFlight--;
+                creditLock.notifyAll();
+            } // synchronized
+        } // try-catch
+
+        Consumer<Outcome> l = listener;
+        if (l != null) {
+            try {
+                l.accept(outcome);
+            } catch (RuntimeException e) {
+                log.warning("Upload listener failed: " + e);
+            } // try-catch
+        } // if
+        return outcome;
+    } // uploadOne
+
+    /**
+     * Waits until there's a post credit to spend, counting uploads
+     * already under way since their credits haven't shown up in the
+     * quota yet.
+     */
+    private void awaitPostCredit() throws InterruptedException {
+        synchronized (creditLock) {
+            while (true) {
+                Quota quota = client.getQuota();
+                if (quota.getPostCreditsAllocated() == 0) {
+                    // nothing known until the first POST comes back;
+                    // send one at a time until then
+                    if (postsInFlight == 0) {
+                        break;
+                    } // if
+                    creditLock.wait();
+                    continue;
+                } // if
+                if (quota.getPostCreditsAvailable() - postsInFlight > postCreditReserve) {
+                    break;
+                } // if
+                if (postsInFlight > 0) {
+                    // the quota will be updated when one of those finishes
+                    creditLock.wait();
+                    continue;
+                } // if
+                Date reset = quota.getPostCreditResetDate();
+                long wait = reset == null
+                        ? TimeUnit.MINUTES.toMillis(1)
+                        : reset.getTime() - System.currentTimeMillis();
+                if (wait <= 0) {
+                    break; // should have reset by now; try it
+                } // if
+                log.info("Out of post credits; waiting until " + reset);
+                creditLock.wait(wait);
+                if (reset != null && System.currentTimeMillis() >= reset.getTime()) {
+                    break;
+                } // if
+            } // while
+            postsInFlight++;
+        } // synchronized
+    } // awaitPostCredit
+
+    /**
+     * Loads finished uploads, and the ids already added to the album,
+     * from the journal.
+     */
+    private void readJournal(HashMap<Path, String[]> done, HashSet<String> attached) throws IOException {
+        if (journal == null || !journal.exists()) {
+            return;
+        } // if
+        for (String line : Files.readAllLines(journal.toPath(), StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t", -1);
+            if (fields[0].equals(JOURNAL_UPLOADED) && fields.length == 4) {
+                done.put(Path.of(fields[1]), new String[]{fields[2], fields[3].isEmpty() ? null : fields[3]});
+            } else if (fields[0].equals(JOURNAL_ATTACHED) && fields.length == 2) {
+                attached.add(fields[1]);
+            } // if-else
+        } // for
+    } // readJournal
+
+    private void appendJournal(String... fields) throws IOException {
+        if (journal == null) {
+            return;
+        } // if
+        StringBuilder line = new StringBuilder();
+        for (String field : fields) {
+            if (line.length() > 0) {
+                line.append('\t');
+            } // if
+            line.append(field == null ? "" : field);
+        } // for
+        synchronized (this) {
+            try (BufferedWriter out = Files.newBufferedWriter(journal.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(line.toString());
+                out.newLine();
+            } // try
+        } // synchronized
+    } // appendJournal
+
+    private static class Item {
+        private final Path file;
+        private final String title;
+        private final String description;
+
+        Item(Path file, String title, String description) {
+            this.file = file;
+            this.title = title;
+            this.description = description;
+        } // constructor
+    } // class Item
+
+    /**
+     * What became of one file
+     */
+    public static class Outcome {
+        private final Path file;
+        private final Status status;
+        private final Image image;
+        private final String imageId;
+        private final String deleteHash;
+        private final Exception error;
+
+        protected Outcome(Path file, Status status, Image image, String imageId, String deleteHash,
+                          Exception error) {
+            this.file = file;
+            this.status = status;
+            this.image = image;
+            this.imageId = imageId;
+            this.deleteHash = deleteHash;
+            this.error = error;
+        } // constructor
+
+        /**
+         * Returns the file that was uploaded
+         * @return the file
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Returns what happened
+         * @return the status
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns the image Imgur sent back for the upload.  Null if it
+         * failed, or if it was uploaded by an earlier run and this one
+         * only knows its id from the journal.
+         * @return the image or null
+         */
+        public Image getImage() {
+            return image;
+        }
+
+        /**
+         * Returns the new image's id, or null if it failed
+         * @return the image id
+         */
+        public String getImageId() {
+            return imageId;
+        }
+
+        /**
+         * Returns the new image's delete hash.  For anonymous uploads,
+         * <i>hang on to this</i> or you won't be able to manipulate the
+         * image later.
+         * @return the delete hash, or null if it failed
+         */
+        public String getDeleteHash() {
+            return deleteHash;
+        }
+
+        /**
+         * Returns why the upload failed.  Either an IOException or a
+         * BaringoApiException.
+         * @return the error or null
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            HashMap<String, Object> fields = new HashMap<>();
+            fields.put("file", file);
+            fields.put("status", status);
+            fields.put("imageId", imageId);
+            fields.put("error", error);
+            return Utils.toString(fields, Outcome.class.getSimpleName());
+        } // toString
+    } // class Outcome
+
+    /**
+     * The results of a batch upload
+     */
+    public static class Report {
+        private final List<Outcome> outcomes;
+        private final Album album;
+
+        protected Report(List<Outcome> outcomes, Album album) {
+            this.outcomes = Collections.unmodifiableList(outcomes);
+            this.album = album;
+        } // constructor
+
+        /**
+         * Returns what happened to each file, in the order added
+         * @return the outcomes
+         */
+        public List<Outcome> getOutcomes() {
+            return outcomes;
+        }
+
+        /**
+         * Returns the album as updated with the new images, or null
+         * if none was given
+         * @return the album
+         */
+        public Album getAlbum() {
+            return album;
+        }
+
+        /**
+         * Returns the number of files that ended up with the given status
+         * @param status the status to count
+         * @return the count
+         */
+        public int count(Status status) {
+            int n = 0;
+            for (Outcome outcome : outcomes) {
+                if (outcome.getStatus() == status) {
+                    n++;
+                } // if
+            } // for
+            return n;
+        }
+
+        @Override
+        public String toString() {
+            HashMap<String, Object> fields = new HashMap<>();
+            fields.put("uploaded", count(Status.UPLOADED));
+            fields.put("journaled", count(Status.JOURNALED));
+            fields.put("failed", count(Status.FAILED));
+            fields.put("album", album == null ? null : album.getId());
+            return Utils.toString(fields, Report.class.getSimpleName());
+        } // toString
+    } // class Report
+
+} // class BatchUploader
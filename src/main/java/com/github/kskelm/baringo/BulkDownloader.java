@@ -0,0 +1,597 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.model.Image;
+import com.github.kskelm.baringo.util.BaringoApiException;
+import com.github.kskelm.baringo.util.Utils;
+import okhttp3.Request;
+import okio.Buffer;
+import okio.ForwardingSink;
+import okio.Okio;
+import okio.Sink;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Downloads lots of images into a directory at once.
+ * <p>
+ * Images are fetched on a fixed number of threads, with a separate
+ * cap on how many requests go to any one host.  Each image is written
+ * to a ".part" file first and only renamed to its real name once it's
+ * complete, so a file with the real name is always whole.  If a run is
+ * interrupted, the next run skips finished files and picks partial
+ * ones up where they left off with an HTTP Range request.  Connection
+ * failures, 429s and 5xx responses are retried with a growing delay;
+ * other errors fail just that image.
+ * <p>
+ * Get one from {@link ImageService#bulkDownloader()}:
+ * <pre>
+ * BulkDownloader.Report report = client.imageService().bulkDownloader()
+ *     .parallelism(16)
+ *     .onItem(o -&gt; log(o))
+ *     .downloadImages(images, new File("archive"));
+ * </pre>
+ * The settings shouldn't be changed while a download is running.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class BulkDownloader {
+
+    private static final Logger log = Logger.getLogger(BaringoClient.LOG_NAME);
+
+    private static final String PART_SUFFIX = ".part";
+
+    private final BaringoClient client;
+    private int parallelism = 8;
+    private int maxPerHost = 8;
+    private int maxRetries = 3;
+    private long retryDelayMillis = 500;
+    private Consumer<Outcome> listener = null;
+
+    private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final AtomicLong bytesTransferred = new AtomicLong();
+
+    /**
+     * What happened to one image
+     */
+    public enum Status {
+        /**
+         * fetched in full
+         */
+        DOWNLOADED,
+        /**
+         * finished off from a partial file
+         */
+        RESUMED,
+        /**
+         * already there from an earlier run
+         */
+        SKIPPED,
+        /**
+         * gave up; see {@link Outcome#getError()}
+         */
+        FAILED
+    }
+
+    protected BulkDownloader(BaringoClient client) {
+        this.client = client;
+    } // constructor
+
+    /**
+     * Sets how many images are downloaded at once.  Defaults to 8.
+     * @param parallelism the number of download threads
+     * @return this downloader
+     */
+    public BulkDownloader parallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        } // if
+        this.parallelism = parallelism;
+
+        return this;
+    }
+
+    /**
+     * Sets how many downloads may be in progress against any single
+     * host, e.g. i.imgur.com.  Defaults to 8.
+     * @param maxPerHost the per-host limit
+     * @return this downloader
+     */
+    public BulkDownloader maxPerHost(int maxPerHost) {
+        if (maxPerHost <= 0) {
+            throw new IllegalArgumentException("maxPerHost must be positive");
+        } // if
+        this.maxPerHost = maxPerHost;
+        hostPermits.clear();
+
+        return this;
+    }
+
+    /**
+     * Sets how many times a transient failure is retried before an
+     * image is given up on, and the delay before the first retry.
+     * The delay doubles with each further retry.  Defaults to 3 retries
+     * starting at half a second.
+     * @param maxRetries the number of retries, or 0 for none
+     * @param delay      the delay before the first retry
+     * @param unit       the unit of delay
+     * @return this downloader
+     */
+    public BulkDownloader retries(int maxRetries, long delay, TimeUnit unit) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.retryDelayMillis = unit.toMillis(delay);
+
+        return this;
+    }
+
+    /**
+     * Sets a listener that's told about each image as soon as it's
+     * done with.  It's called from the download threads.
+     * @param listener the listener, or null for none
+     * @return this downloader
+     */
+    public BulkDownloader onItem(Consumer<Outcome> listener) {
+        this.listener = listener;
+
+        return this;
+    }
+
+    /**
+     * Downloads images into a directory, naming each file after the
+     * last part of its link (e.g. "PgZtz0j.jpg").  If different links
+     * end the same way, ignoring case, each of them gets a hash of its
+     * whole link before the extension (e.g. "PgZtz0j-1b2c3d4e.jpg"), so
+     * a link keeps its file however the batch is ordered.  A link given
+     * more than once gets "-2", "-3" and so on for the repeats.  Files
+     * are checked against {@link Image#getSize()} when Imgur supplied
+     * one.  Blocks until every image has been dealt with.
+     *
+     * @param images    the images to fetch
+     * @param directory where to put them; created if need be
+     * @return what happened to each image, in the order given
+     * @throws IOException          the directory couldn't be created
+     * @throws InterruptedException the calling thread was interrupted
+     */
+    public Report downloadImages(Collection<Image> images, File directory)
+            throws IOException, InterruptedException {
+        List<Item> items = new ArrayList<>();
+        for (Image image : images) {
+            items.add(new Item(image.getLink(), image.getSize()));
+        } // for
+        return run(items, directory);
+    } // downloadImages
+
+    /**
+     * Downloads links into a directory, naming each file after the
+     * last part of its link, told apart as for
+     * {@link #downloadImages(Collection, File)} when two would clash.
+     * Blocks until every link has been dealt with.
+     *
+     * @param links     the image links (could be thumbs too)
+     * @param directory where to put them; created if need be
+     * @return what happened to each link, in the order given
+     * @throws IOException          the directory couldn't be created
+     * @throws InterruptedException the calling thread was interrupted
+     */
+    public Report downloadLinks(Collection<String> links, File directory)
+            throws IOException, InterruptedException {
+        List<Item> items = new ArrayList<>();
+        for (String link : links) {
+            items.add(new Item(link, 0));
+        } // for
+        return run(items, directory);
+    } // downloadLinks
+
+    /**
+     * Returns the number of bytes received so far across every
+     * download this object has run
+     * @return the byte count
+     */
+    public long getBytesTransferred() {
+        return bytesTransferred.get();
+    }
+
+    private Report run(List<Item> items, File directory) throws IOException, InterruptedException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        } // if
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "baringo-download-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long startBytes = bytesTransferred.get();
+        long start = System.nanoTime();
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            HashMap<String, Set<String>> linksByName = new HashMap<>();
+            for (Item item : items) {
+                linksByName.computeIfAbsent(fileNameFor(item.link).toLowerCase(Locale.ROOT),
+                        k -> new HashSet<>()).add(item.link);
+            } // for
+            Set<String> taken = new HashSet<>();
+            for (Item item : items) {
+                // names are worked out up front so two threads never
+                // write the same part file
+                String base = fileNameFor(item.link);
+                if (linksByName.get(base.toLowerCase(Locale.ROOT)).size() > 1) {
+                    base = withSuffix(base, Integer.toHexString(item.link.hashCode()));
+                } // if
+                String name = uniqueName(base, taken);
+                futures.add(pool.submit(() -> fetch(item, name, directory)));
+            } // for
+
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> future : futures) {
+                try {
+                    outcomes.add(future.get());
+                } catch (ExecutionException e) {
+                    // fetch() catches everything it expects to see
+                    throw new IllegalStateException(e.getCause());
+                } // try-catch
+            } // for
+            return new Report(outcomes, bytesTransferred.get() - startBytes,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            pool.shutdownNow();
+        } // try-finally
+    } // run
+
+    private Outcome fetch(Item item, String name, File directory) throws InterruptedException {
+        File target = new File(directory, name);
+        File part = new File(directory, name + PART_SUFFIX);
+
+        Outcome outcome;
+        if (target.exists() && (item.expectedSize <= 0 || target.length() == item.expectedSize)) {
+            outcome = new Outcome(item.link, target, Status.SKIPPED, target.length(), 0, null);
+        } else {
+            outcome = fetchWithRetries(item, target, part);
+        } // if-else
+
+        Consumer<Outcome> l = listener;
+        if (l != null) {
+            try {
+                l.accept(outcome);
+            } catch (RuntimeException e) {
+                log.warning("Download listener failed: " + e);
+            } // try-catch
+        } // if
+        return outcome;
+    } // fetch
+
+    private Outcome fetchWithRetries(Item item, File target, File part) throws InterruptedException {
+        Exception lastError = null;
+        int attempts = 0;
+        for (int attempt = 1; attempt <= maxRetries + 1; attempt++) {
+            attempts = attempt;
+            if (attempt > 1) {
+                Thread.sleep(retryDelayMillis << Math.min(attempt - 2, 20));
+            } // if
+            try {
+                long resumedFrom = fetchOnce(item, part);
+                if (item.expectedSize > 0 && part.length() != item.expectedSize) {
+                    // whatever we resumed from was bad; start clean next time
+                    long got = part.length();
+                    Files.deleteIfExists(part.toPath());
+                    throw new IOException(item.link + ": expected " + item.expectedSize
+                            + " bytes, got " + got);
+                } // if
+                moveIntoPlace(part, target);
+                return new Outcome(item.link, target,
+                        resumedFrom > 0 ? Status.RESUMED : Status.DOWNLOADED,
+                        target.length(), attempt, null);
+            } catch (BaringoApiException e) {
+                lastError = e;
+                if (!isTransient(e.getHttpCode())) {
+                    break;
+                } // if
+            } catch (IOException e) {
+                lastError = e;
+            } // try-catch
+        } // for
+        return new Outcome(item.link, target, Status.FAILED, part.length(), attempts, lastError);
+    } // fetchWithRetries
+
+    /**
+     * Makes one attempt at getting the rest of an image into its part
+     * file.  Returns the offset it resumed from, or 0 if it started over.
+     */
+    private long fetchOnce(Item item, File part)
+            throws IOException, BaringoApiException, InterruptedException {
+        long offset = part.exists() ? part.length() : 0;
+
+        Request.Builder builder = new Request.Builder().url(item.link);
+        if (offset > 0) {
+            builder.header("Range", "bytes=" + offset + "-");
+        } // if
+        Request request = builder.build();
+
+        Semaphore permits = hostPermits.computeIfAbsent(
+                request.url().host(), h -> new Semaphore(maxPerHost));
+        permits.acquire();
+        try (okhttp3.Response resp = client.getHttpClient().newCall(request).execute()) {
+            boolean append;
+            if (resp.code() == 206) {
+                String range = resp.header("Content-Range");
+                if (range == null || !range.startsWith("bytes " + offset + "-")) {
+                    // not the piece we asked for; start clean next time
+                    Files.deleteIfExists(part.toPath());
+                    throw new IOException(request.url() + ": asked for bytes from " + offset
+                            + ", got Content-Range " + range);
+                } // if
+                append = true;
+            } else if (resp.code() == 200) {
+                append = false; // server ignored the range
+                offset = 0;
+            } else if (resp.code() == 416 && offset > 0) {
+                return offset; // nothing past what we have
+            } else {
+                throw new BaringoApiException(request.url() + ": " + resp.message(), resp.code());
+            } // if-else
+            if (resp.body() == null) {
+                throw new BaringoApiException("No response body found");
+            } // if
+
+            try (Sink sink = new CountingSink(Okio.sink(part, append))) {
+                resp.body().source().readAll(sink);
+            } // try
+            return offset;
+        } finally {
+            permits.release();
+        } // try-finally
+    } // fetchOnce
+
+    private void moveIntoPlace(File part, File target) throws IOException {
+        try {
+            Files.move(part.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(part.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } // try-catch
+    } // moveIntoPlace
+
+    private boolean isTransient(int httpCode) {
+        return httpCode == 0 || httpCode == 408 || httpCode == 429 || httpCode >= 500;
+    } // isTransient
+
+    // the name, or the first of name-2, name-3... that isn't taken yet
+    private String uniqueName(String name, Set<String> taken) {
+        String candidate = name;
+        for (int n = 2; !taken.add(candidate.toLowerCase(Locale.ROOT)); n++) {
+            candidate = withSuffix(name, Integer.toString(n));
+        } // for
+        return candidate;
+    } // uniqueName
+
+    // "name.ext" becomes "name-suffix.ext"
+    private static String withSuffix(String name, String suffix) {
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        return stem + "-" + suffix + extension;
+    } // withSuffix
+
+    private String fileNameFor(String link) {
+        String name = link;
+        int cut = name.indexOf('?');
+        if (cut >= 0) {
+            name = name.substring(0, cut);
+        } // if
+        name = name.substring(name.lastIndexOf('/') + 1);
+        if (name.isEmpty()) {
+            name = Integer.toHexString(link.hashCode());
+        } // if
+        return name;
+    } // fileNameFor
+
+    // tallies bytes as Okio moves segments into the file
+    private class CountingSink extends ForwardingSink {
+        CountingSink(Sink delegate) {
+            super(delegate);
+        } // constructor
+
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+            bytesTransferred.addAndGet(byteCount);
+        }
+    } // class CountingSink
+
+    private static class Item {
+        private final String link;
+        private final long expectedSize;
+
+        Item(String link, long expectedSize) {
+            this.link = link;
+            this.expectedSize = expectedSize;
+        } // constructor
+    } // class Item
+
+    /**
+     * What became of one image
+     */
+    public static class Outcome {
+        private final String link;
+        private final File file;
+        private final Status status;
+        private final long bytes;
+        private final int attempts;
+        private final Exception error;
+
+        protected Outcome(String link, File file, Status status, long bytes, int attempts, Exception error) {
+            this.link = link;
+            this.file = file;
+            this.status = status;
+            this.bytes = bytes;
+            this.attempts = attempts;
+            this.error = error;
+        } // constructor
+
+        /**
+         * Returns the link that was downloaded
+         * @return the link
+         */
+        public String getLink() {
+            return link;
+        }
+
+        /**
+         * Returns the file the image was written to
+         * @return the file
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Returns what happened
+         * @return the status
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns the size of the file on disk.  For a failure, how
+         * much of it made it into the part file.
+         * @return the byte count
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns how many requests it took, or 0 if it was skipped
+         * @return the attempt count
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        /**
+         * Returns the last error seen if the download failed.  Either
+         * an IOException or a BaringoApiException carrying the http code.
+         * @return the error or null
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            HashMap<String, Object> fields = new HashMap<>();
+            fields.put("link", link);
+            fields.put("status", status);
+            fields.put("bytes", bytes);
+            fields.put("attempts", attempts);
+            fields.put("error", error);
+            return Utils.toString(fields, Outcome.class.getSimpleName());
+        } // toString
+    } // class Outcome
+
+    /**
+     * The results of a bulk download
+     */
+    public static class Report {
+        private final List<Outcome> outcomes;
+        private final long bytesTransferred;
+        private final long elapsedMillis;
+
+        protected Report(List<Outcome> outcomes, long bytesTransferred, long elapsedMillis) {
+            this.outcomes = Collections.unmodifiableList(outcomes);
+            this.bytesTransferred = bytesTransferred;
+            this.elapsedMillis = elapsedMillis;
+        } // constructor
+
+        /**
+         * Returns what happened to each image, in the order given
+         * @return the outcomes
+         */
+        public List<Outcome> getOutcomes() {
+            return outcomes;
+        }
+
+        /**
+         * Returns the number of images that ended up with the given status
+         * @param status the status to count
+         * @return the count
+         */
+        public int count(Status status) {
+            int n = 0;
+            for (Outcome outcome : outcomes) {
+                if (outcome.getStatus() == status) {
+                    n++;
+                } // if
+            } // for
+            return n;
+        }
+
+        /**
+         * Returns the number of bytes actually received, not counting
+         * skipped files or the parts of resumed ones already on disk
+         * @return the byte count
+         */
+        public long getBytesTransferred() {
+            return bytesTransferred;
+        }
+
+        /**
+         * Returns how long the whole run took
+         * @return elapsed milliseconds
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * Returns the average download rate over the run
+         * @return bytes per second
+         */
+        public double getBytesPerSecond() {
+            if (elapsedMillis == 0) {
+                return 0;
+            } // if
+            return bytesTransferred * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            HashMap<String, Object> fields = new HashMap<>();
+            fields.put("downloaded", count(Status.DOWNLOADED));
+            fields.put("resumed", count(Status.RESUMED));
+            fields.put("skipped", count(Status.SKIPPED));
+            fields.put("failed", count(Status.FAILED));
+            fields.put("bytesTransferred", bytesTransferred);
+            fields.put("bytesPerSecond", (long) getBytesPerSecond());
+            return Utils.toString(fields, Report.class.getSimpleName());
+        } // toString
+    } // class Report
+
+} // class BulkDownloader
@@ -0,0 +1,106 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.util.Utils;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running counters for one of the client's caches.
+ * <p>
+ * A hit was answered entirely from the cache.  A revalidation
+ * went back to Imgur with a conditional request and was told the
+ * cached copy was still good.  A miss had to be fetched in full.
+ * An eviction is an entry dropped to make room or because it
+ * outlived its time to live.
+ * <p>
+ * The record methods are public so that a custom
+ * {@link EntityCache} can keep its own statistics.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class CacheStats {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    public void recordRevalidation() {
+        revalidations.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    public void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of requests served without touching the network
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of requests answered by a 304 from Imgur
+     * @return the revalidation count
+     */
+    public long getRevalidationCount() {
+        return revalidations.get();
+    }
+
+    /**
+     * Returns the number of requests that had to be fetched in full
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of entries dropped for size or age
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns the fraction of lookups that were hits, from 0 to 1.
+     * Revalidations count against the hit rate since they still
+     * cost a round trip.
+     * @return the hit rate, or 0 if nothing has been looked up
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + revalidations.get() + misses.get();
+        if (total == 0) {
+            return 0;
+        } // if
+        return (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        HashMap<String, Object> fields = new HashMap<>();
+        fields.put("hitCount", getHitCount());
+        fields.put("revalidationCount", getRevalidationCount());
+        fields.put("missCount", getMissCount());
+        fields.put("evictionCount", getEvictionCount());
+        fields.put("hitRate", getHitRate());
+        return Utils.toString(fields, CacheStats.class.getSimpleName());
+    } // toString
+
+} // class CacheStats
@@ -0,0 +1,164 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.util.Utils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One finished API call, as handed to a {@link MetricsCollector}.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class CallRecord {
+
+    private final String endpoint;
+    private final String httpMethod;
+    private final int status;
+    private final long latencyNanos;
+    private final long requestBytes;
+    private final long responseBytes;
+    private final int userCreditsUsed;
+    private final int applicationCreditsUsed;
+    private final boolean fromCache;
+    private final IOException error;
+
+    protected CallRecord(String endpoint, String httpMethod, int status, long latencyNanos,
+                         long requestBytes, long responseBytes,
+                         int userCreditsUsed, int applicationCreditsUsed,
+                         boolean fromCache, IOException error) {
+        this.endpoint = endpoint;
+        this.httpMethod = httpMethod;
+        this.status = status;
+        this.latencyNanos = latencyNanos;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+        this.userCreditsUsed = userCreditsUsed;
+        this.applicationCreditsUsed = applicationCreditsUsed;
+        this.fromCache = fromCache;
+        this.error = error;
+    } // constructor
+
+    /**
+     * Returns the Retrofit interface method that made the call, or the
+     * HTTP method and path if it didn't come through Retrofit
+     * @return the endpoint name
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Returns the HTTP method, e.g. GET
+     * @return the method
+     */
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    /**
+     * Returns the HTTP status, or 0 if no response came back at all
+     * @return the status code
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns true if the call failed: no response, or a 4xx/5xx
+     * @return true on failure
+     */
+    public boolean isFailure() {
+        return status == 0 || status >= 400;
+    }
+
+    /**
+     * Returns the time from sending the request to having the
+     * response headers
+     * @return the latency in nanoseconds
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Returns the latency in milliseconds
+     * @return the latency
+     */
+    public long getLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+    }
+
+    /**
+     * Returns the size of the request body, or 0 if it had none or
+     * its size wasn't known up front
+     * @return the byte count
+     */
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * Returns the number of response body bytes actually read
+     * @return the byte count
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * Returns how far the user credits went down since the previous
+     * response that reported them.  Under concurrency, calls that
+     * overlap may have each other's credits attributed to them; the
+     * totals still add up.
+     * @return the credits used
+     */
+    public int getUserCreditsUsed() {
+        return userCreditsUsed;
+    }
+
+    /**
+     * Returns how far the application credits went down since the
+     * previous response that reported them, with the same caveat as
+     * {@link #getUserCreditsUsed()}
+     * @return the credits used
+     */
+    public int getApplicationCreditsUsed() {
+        return applicationCreditsUsed;
+    }
+
+    /**
+     * Returns true if the response cache answered without asking Imgur
+     * @return true if served from the cache
+     */
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    /**
+     * Returns the exception if no response came back, else null
+     * @return the error
+     */
+    public IOException getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        HashMap<String, Object> fields = new HashMap<>();
+        fields.put("endpoint", endpoint);
+        fields.put("status", status);
+        fields.put("latencyMillis", getLatencyMillis());
+        fields.put("requestBytes", requestBytes);
+        fields.put("responseBytes", responseBytes);
+        fields.put("userCreditsUsed", userCreditsUsed);
+        fields.put("applicationCreditsUsed", applicationCreditsUsed);
+        fields.put("fromCache", fromCache);
+        return Utils.toString(fields, CallRecord.class.getSimpleName());
+    } // toString
+
+} // class CallRecord
@@ -4,20 +4,26 @@
 package com.github.kskelm.baringo;
 
 import com.github.kskelm.baringo.model.Comment;
+import com.github.kskelm.baringo.model.CommentAdapterFactory;
 import com.github.kskelm.baringo.model.ImgurResponseWrapper;
 import com.github.kskelm.baringo.model.ReportReason;
 import com.github.kskelm.baringo.model.Vote;
 import com.github.kskelm.baringo.util.BaringoApiException;
 import com.google.gson.*;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Response;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 
 /**
@@ -27,10 +33,24 @@ import java.util.Map;
 public class CommentService {
 
     private BaringoClient client = null;
+    private final Async async = new Async();
+    private final EntityCache<Long, Comment> cache;
 
     protected CommentService(BaringoClient imgurClient, GsonBuilder gsonBuilder) {
         this.client = imgurClient;
-        gsonBuilder.registerTypeAdapter(CommentListWrapper.class, new CommentListWrapper());
+        this.cache = imgurClient.newEntityCache("comment", Comment.class);
+        gsonBuilder.registerTypeAdapterFactory(new CommentAdapterFactory());
+        gsonBuilder.registerTypeAdapterFactory(new CommentListAdapterFactory());
+    }
+
+    /**
+     * Returns the non-blocking flavor of this service.  Every method
+     * mirrors its blocking counterpart but returns a CompletableFuture.
+     *
+     * @return the async comment service
+     */
+    public Async async() {
+        return async;
     }
 
     /**
@@ -42,6 +62,11 @@ public class CommentService {
      * @throws BaringoApiException daaang
      */
     public Comment getComment(long commentId) throws BaringoApiException {
+        Comment cached = cache.get(commentId);
+        if (cached != null) {
+            return cached;
+        } // if
+
         Call<ImgurResponseWrapper<Comment>> call =
                 client.getApi().getComment(commentId);
 
@@ -50,9 +75,10 @@ public class CommentService {
             ImgurResponseWrapper<Comment> out = res.body();
             client.throwOnWrapperError(res);
 
+            cache.put(commentId, out.getData());
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // getComment
 
@@ -79,7 +105,7 @@ public class CommentService {
 
             return out.getData().get("id");
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -106,6 +132,7 @@ public class CommentService {
      */
     public boolean deleteComment(
             long commentId) throws BaringoApiException {
+        cache.invalidate(commentId);
 
         Call<ImgurResponseWrapper<Boolean>> call =
                 client.getApi().deleteComment(commentId);
@@ -117,7 +144,9 @@ public class CommentService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            cache.invalidate(commentId);
         }
 
     }
@@ -143,11 +172,79 @@ public class CommentService {
 
             return out.getData().comms;
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
 
     }
 
+    /**
+     * Hands each reply to a given comment, at any depth, to the
+     * consumer as it's read off the wire, without building the list.
+     * Replies arrive before the comment they reply to and with empty
+     * children lists; thread them with {@link Comment#getParentId()}.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param commentId the id of the parent comment
+     * @param consumer gets each comment, on the calling thread
+     * @return the number of comments handed over
+     * @throws BaringoApiException oh no
+     */
+    public int listReplies(
+            long commentId,
+            Consumer<Comment> consumer) throws BaringoApiException {
+        return streamComments(client.getApi().streamCommentReplies(commentId), consumer);
+    }
+
+    /**
+     * Runs a call whose data is a list of comments and streams them
+     * to the consumer instead of parsing the response whole.
+     */
+    protected int streamComments(
+            Call<ResponseBody> call,
+            Consumer<Comment> consumer) throws BaringoApiException {
+        try {
+            Response<ResponseBody> res = call.execute();
+            client.throwOnHttpError(res);
+
+            try (ResponseBody body = res.body();
+                 JsonReader in = new JsonReader(body.charStream())) {
+                int count = 0;
+                boolean success = true;
+                int status = 200;
+                BaringoApiException error = null;
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "data":
+                            try {
+                                count = CommentAdapterFactory.stream(client.getGson(), in, consumer);
+                            } catch (BaringoApiException e) {
+                                // held until the status has been read
+                                error = e;
+                            } // try-catch
+                            break;
+                        case "success":
+                            success = in.nextBoolean();
+                            break;
+                        case "status":
+                            status = in.nextInt();
+                            break;
+                        default:
+                            in.skipValue();
+                    } // switch
+                } // while
+                in.endObject();
+                if (error != null) {
+                    throw new BaringoApiException(error.getMessage(), status);
+                } // if
+                client.throwOnWrapperStatus(status, success);
+                return count;
+            } // try
+        } catch (IOException | JsonParseException e) {
+            throw new BaringoApiException(e.getMessage(), e);
+        } // try-catch
+    } // streamComments
+
     /**
      * Add a reply to the given parent comment
      * <p>
@@ -160,6 +257,7 @@ public class CommentService {
     public long addReply(
             Comment parent,
             String text) throws BaringoApiException {
+        cache.invalidate(parent.getId()); // its children change
 
         Call<ImgurResponseWrapper<Map<String, Long>>> call =
                 client.getApi().replyComment(parent.getImageId(), parent.getId(), text);
@@ -170,7 +268,9 @@ public class CommentService {
             client.throwOnWrapperError(res);
             return out.getData().get("id");
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            cache.invalidate(parent.getId());
         }
 
     }
@@ -196,6 +296,7 @@ public class CommentService {
     public boolean setVote(
             long commentId,
             Vote vote) throws BaringoApiException {
+        cache.invalidate(commentId);
 
         String voteStr = vote.name().toLowerCase();
 
@@ -209,7 +310,9 @@ public class CommentService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            cache.invalidate(commentId);
         }
     }
 
@@ -233,7 +336,7 @@ public class CommentService {
             Response<ImgurResponseWrapper<Object>> res = call.execute();
             client.throwOnWrapperError(res);
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -248,26 +351,171 @@ public class CommentService {
      * So here we need to resort to crappy tricks.
      *
      */
-    public class CommentListWrapper implements JsonDeserializer<CommentListWrapper> {
+    public static class CommentListWrapper {
         List<Comment> comms = null;
+    }
+
+    /**
+     * Reads a CommentListWrapper straight off the JsonReader, one
+     * comment at a time, whichever shape Imgur picked.
+     */
+    private static class CommentListAdapterFactory implements TypeAdapterFactory {
 
         @Override
-        public CommentListWrapper deserialize(JsonElement json, Type type, JsonDeserializationContext context) throws JsonParseException {
-
-            JsonElement elem = json.getAsJsonObject();
-            CommentListWrapper wrap = new CommentListWrapper();
-            wrap.comms = new ArrayList<Comment>();
-            if (elem.isJsonArray()) {
-                Comment[] comms = context.deserialize(elem.getAsJsonArray(), Comment[].class);
-                Collections.addAll(wrap.comms, comms);
-            } else if (elem.isJsonObject()) {
-                Comment comm = context.deserialize(elem.getAsJsonObject(), Comment.class);
-                wrap.comms.add(comm);
-            } else {
-                throw new JsonParseException("Unsupported type of comment list element");
-            } // if-else
-            return wrap;
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != CommentListWrapper.class) {
+                return null;
+            } // if
+            TypeAdapter<Comment> commentAdapter = gson.getAdapter(Comment.class);
+            return (TypeAdapter<T>) new TypeAdapter<CommentListWrapper>() {
+                @Override
+                public void write(JsonWriter out, CommentListWrapper value) throws IOException {
+                    out.beginArray();
+                    for (Comment comment : value.comms) {
+                        commentAdapter.write(out, comment);
+                    } // for
+                    out.endArray();
+                }
+
+                @Override
+                public CommentListWrapper read(JsonReader in) throws IOException {
+                    CommentListWrapper wrap = new CommentListWrapper();
+                    wrap.comms = new ArrayList<>();
+                    JsonToken token = in.peek();
+                    if (token == JsonToken.BEGIN_ARRAY) {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            wrap.comms.add(commentAdapter.read(in));
+                        } // while
+                        in.endArray();
+                    } else if (token == JsonToken.BEGIN_OBJECT) {
+                        wrap.comms.add(commentAdapter.read(in));
+                    } else {
+                        throw new JsonParseException("Unsupported type of comment list element");
+                    } // if-else
+                    return wrap;
+                }
+            };
         }
-    }
+    } // class CommentListAdapterFactory
+
+    /**
+     * Non-blocking versions of the CommentService calls.  Failures
+     * complete the future exceptionally with a BaringoApiException.
+     */
+    public class Async {
+
+        /**
+         * Asynchronous version of {@link CommentService#getComment}.
+         *
+         * @param commentId the id of the comment to fetch
+         * @return a future Comment
+         */
+        public CompletableFuture<Comment> getComment(long commentId) {
+            Comment cached = cache.get(commentId);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            } // if
+            return client.enqueue(client.getApi().getComment(commentId))
+                    .thenApply(comment -> {
+                        cache.put(commentId, comment);
+                        return comment;
+                    });
+        }
+
+        /**
+         * Asynchronous version of {@link CommentService#addComment}.
+         *
+         * @param imageOrAlbumId id of the thing to attach the comment to
+         * @param text           text body of the comment
+         * @return a future for the id of the new comment
+         */
+        public CompletableFuture<Long> addComment(
+                String imageOrAlbumId,
+                String text) {
+            return client.enqueue(client.getApi().addComment(imageOrAlbumId, text))
+                    .thenApply(data -> data.get("id"));
+        }
+
+        /**
+         * Asynchronous version of {@link CommentService#deleteComment(Comment)}.
+         *
+         * @param comment the comment object to delete from Imgur
+         * @return a future that is true if it worked
+         */
+        public CompletableFuture<Boolean> deleteComment(Comment comment) {
+            return deleteComment(comment.getId());
+        }
+
+        /**
+         * Asynchronous version of {@link CommentService#deleteComment(long)}.
+         *
+         * @param commentId the id of the comment to delete from Imgur
+         * @return a future that is true if it worked
+         */
+        public CompletableFuture<Boolean> deleteComment(long commentId) {
+            cache.invalidate(commentId);
+            return client.enqueue(client.getApi().deleteComment(commentId))
+                    .whenComplete((r, e) -> cache.invalidate(commentId));
+        }
+
+        /**
+         * Asynchronous version of {@link CommentService#listReplies}.
+         *
+         * @param commentId the id of the parent comment
+         * @return a future list of comment objects, non-paged
+         */
+        public CompletableFuture<List<Comment>> listReplies(long commentId) {
+            return client.enqueue(client.getApi().listCommentReplies(commentId))
+                    .thenApply(wrap -> wrap.comms);
+        }
+
+        /**
+         * Asynchronous version of {@link CommentService#addReply}.
+         *
+         * @param parent the parent comment
+         * @param text   the text body of the comment to add
+         * @return a future for the id of the new comment
+         */
+        public CompletableFuture<Long> addReply(
+                Comment parent,
+                String text) {
+            cache.invalidate(parent.getId()); // its children change
+            return client.enqueue(client.getApi().replyComment(parent.getImageId(), parent.getId(), text))
+                    .thenApply(data -> data.get("id"))
+                    .whenComplete((r, e) -> cache.invalidate(parent.getId()));
+        }
+
+        /**
+         * Asynchronous version of {@link CommentService#setVote}.
+         *
+         * @param commentId id of the comment to vote on
+         * @param vote      vote up or down
+         * @return a future that is true if it worked
+         */
+        public CompletableFuture<Boolean> setVote(
+                long commentId,
+                Vote vote) {
+            cache.invalidate(commentId);
+            return client.enqueue(client.getApi().voteComment(commentId, vote.name().toLowerCase()))
+                    .whenComplete((r, e) -> cache.invalidate(commentId));
+        }
+
+        /**
+         * Asynchronous version of {@link CommentService#report}.
+         *
+         * @param commentId the id of the comment to report
+         * @param reason    supply a reason
+         * @return a future that completes once the report is filed
+         */
+        public CompletableFuture<Void> report(
+                long commentId,
+                ReportReason reason) {
+            return client.enqueue(client.getApi().reportComment(commentId, reason.name().toLowerCase()))
+                    .thenAccept(out -> {
+                    });
+        }
+    } // class Async
 
 }
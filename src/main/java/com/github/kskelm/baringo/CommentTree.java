@@ -0,0 +1,184 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.model.Comment;
+import com.github.kskelm.baringo.util.Utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Every comment on a gallery item, assembled into threads and
+ * indexed by id.  Top-level comments are the roots; each comment's
+ * replies are in {@link Comment#getChildren()}.
+ * <p>
+ * Iterating gives the comments depth-first, each one followed by
+ * its replies, which is the order they'd be read in on the site.
+ * Get one from {@link GalleryService#getCommentTree(String)}.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class CommentTree implements Iterable<Comment> {
+
+    private final List<Comment> roots = new ArrayList<>();
+    private final HashMap<Long, Comment> byId = new HashMap<>();
+
+    protected CommentTree(List<Comment> topLevel) {
+        for (Comment comment : topLevel) {
+            if (index(comment)) {
+                roots.add(comment);
+            } // if
+        } // for
+    } // constructor
+
+    /**
+     * Adds a comment, and whatever replies came with it, under its
+     * parent.  If the parent isn't in the tree (it was deleted, say)
+     * the comment becomes a root.
+     *
+     * @return false if the comment was already in the tree
+     */
+    protected boolean attach(Comment comment) {
+        if (!index(comment)) {
+            return false;
+        } // if
+        Comment parent = comment.getParentId() == 0 ? null : byId.get(comment.getParentId());
+        if (parent == null) {
+            roots.add(comment);
+        } else {
+            parent.getChildren().add(comment);
+        } // if-else
+        return true;
+    } // attach
+
+    // indexes a comment and its subtree, dropping replies already
+    // indexed through some other path
+    private boolean index(Comment comment) {
+        if (byId.putIfAbsent(comment.getId(), comment) != null) {
+            return false;
+        } // if
+        comment.getChildren().removeIf(child -> !index(child));
+        return true;
+    } // index
+
+    /**
+     * Returns the top-level comments, in the order Imgur sorted them
+     * @return the roots
+     */
+    public List<Comment> getRoots() {
+        return Collections.unmodifiableList(roots);
+    }
+
+    /**
+     * Looks a comment up by id
+     * @param commentId the comment id
+     * @return the comment, or null if it isn't in this tree
+     */
+    public Comment get(long commentId) {
+        return byId.get(commentId);
+    }
+
+    /**
+     * Returns how deeply a comment is nested: 0 for a top-level
+     * comment, 1 for a reply to one, and so on.
+     * @param commentId the comment id
+     * @return the depth, or -1 if the comment isn't in this tree
+     */
+    public int getDepth(long commentId) {
+        Comment comment = byId.get(commentId);
+        if (comment == null) {
+            return -1;
+        } // if
+        int depth = 0;
+        while (comment.getParentId() != 0
+                && (comment = byId.get(comment.getParentId())) != null
+                && depth < byId.size()) { // a cycle would be Imgur's bug, not a hang
+            depth++;
+        } // while
+        return depth;
+    } // getDepth
+
+    /**
+     * Returns the total number of comments in the tree
+     * @return the count
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Returns every comment depth-first in a single list, for when
+     * the threading doesn't matter
+     * @return the comments
+     */
+    public List<Comment> flatten() {
+        List<Comment> list = new ArrayList<>(byId.size());
+        for (Comment comment : this) {
+            list.add(comment);
+        } // for
+        return list;
+    } // flatten
+
+    /**
+     * Walks the comments depth-first, each followed by its replies.
+     * Uses an explicit stack, so very deep threads are fine.
+     * @return the iterator
+     */
+    @Override
+    public Iterator<Comment> iterator() {
+        return new Iterator<Comment>() {
+            private final Deque<Iterator<Comment>> stack = new ArrayDeque<>(
+                    Collections.singleton(roots.iterator()));
+
+            @Override
+            public boolean hasNext() {
+                while (!stack.isEmpty() && !stack.peek().hasNext()) {
+                    stack.pop();
+                } // while
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public Comment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                } // if
+                Comment comment = stack.peek().next();
+                if (!comment.getChildren().isEmpty()) {
+                    stack.push(comment.getChildren().iterator());
+                } // if
+                return comment;
+            }
+        };
+    } // iterator
+
+    /**
+     * Returns the comments depth-first as a stream
+     * @return a sequential Stream of comments
+     */
+    public Stream<Comment> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), byId.size(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED), false);
+    } // stream
+
+    @Override
+    public String toString() {
+        HashMap<String, Object> fields = new HashMap<>();
+        fields.put("roots", roots.size());
+        fields.put("size", byId.size());
+        return Utils.toString(fields, CommentTree.class.getSimpleName());
+    } // toString
+
+} // class CommentTree
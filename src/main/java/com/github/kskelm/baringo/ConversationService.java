@@ -5,15 +5,26 @@ package com.github.kskelm.baringo;
 
 import com.github.kskelm.baringo.model.Conversation;
 import com.github.kskelm.baringo.model.ImgurResponseWrapper;
+import com.github.kskelm.baringo.model.Message;
 import com.github.kskelm.baringo.util.BaringoApiException;
+import com.github.kskelm.baringo.util.Pager;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import retrofit2.Call;
 import retrofit2.Response;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
 
 /**
@@ -24,9 +35,23 @@ import java.util.List;
 public class ConversationService {
 
     private BaringoClient client = null;
+    private final Async async = new Async();
+
+    private static final int MESSAGES_PER_PAGE = 25;
 
     protected ConversationService(BaringoClient imgurClient, GsonBuilder gsonBuilder) {
         this.client = imgurClient;
+        gsonBuilder.registerTypeAdapterFactory(new ConversationListAdapterFactory());
+    }
+
+    /**
+     * Returns the non-blocking flavor of this service.  Every method
+     * mirrors its blocking counterpart but returns a CompletableFuture.
+     *
+     * @return the async conversation service
+     */
+    public Async async() {
+        return async;
     }
 
     /**
@@ -45,26 +70,94 @@ public class ConversationService {
      * @throws BaringoApiException Imgur crashed
      */
     public List<Conversation> getConversations() throws BaringoApiException {
-        Call<ImgurResponseWrapper<String>> call =
+        Call<ImgurResponseWrapper<ConversationList>> call =
                 client.getApi().getConversations();
 
         try {
-            Response<ImgurResponseWrapper<String>> res = call.execute();
-            ImgurResponseWrapper<String> test = res.body();
-            if (test.getData().equals("false")) { // laaaaaaame
-                return new ArrayList<Conversation>();
-            } // if
-            // laaaaaaame
-            List<Conversation> out = new Gson().fromJson(
-                    test.getData(), ConversationList.class);
-
+            Response<ImgurResponseWrapper<ConversationList>> res = call.execute();
+            ImgurResponseWrapper<ConversationList> out = res.body();
             client.throwOnWrapperError(res);
-            return out;
+            return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
+    /**
+     * Returns the conversations that have had a message since the
+     * given time, each with all of its messages.  The conversation
+     * list is one request; then every page of every changed
+     * conversation is requested at once, up to maxConcurrent at a
+     * time.  Pass the time of the previous sync to keep a local copy
+     * up to date cheaply.
+     * <p>
+     * <b>ACCESS: AUTHENTICATED USER</b>
+     * @param since only conversations with a message after this are returned, or null for all of them
+     * @param maxConcurrent the most message page requests to have in flight at once
+     * @return the changed conversations, in the order Imgur lists them
+     * @throws BaringoApiException Imgur crashed
+     */
+    public List<Conversation> syncConversations(
+            Date since,
+            int maxConcurrent) throws BaringoApiException {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        } // if
+
+        List<Conversation> changed = new ArrayList<>();
+        for (Conversation conv : getConversations()) {
+            if (since == null || conv.getLastMessageDate() == null
+                    || conv.getLastMessageDate().after(since)) {
+                changed.add(conv);
+            } // if
+        } // for
+
+        Semaphore permits = new Semaphore(maxConcurrent);
+        List<List<CompletableFuture<Conversation>>> pages = new ArrayList<>();
+        try {
+            for (Conversation conv : changed) {
+                int pageCount = Math.max(1,
+                        (conv.getMessageCount() + MESSAGES_PER_PAGE - 1) / MESSAGES_PER_PAGE);
+                List<CompletableFuture<Conversation>> convPages = new ArrayList<>();
+                for (int page = 1; page <= pageCount; page++) {
+                    permits.acquire();
+                    CompletableFuture<Conversation> future =
+                            async.getConversationWithMessages(conv.getId(), page);
+                    future.whenComplete((c, e) -> permits.release());
+                    convPages.add(future);
+                } // for
+                pages.add(convPages);
+            } // for
+        } catch (InterruptedException e) {
+            for (List<CompletableFuture<Conversation>> convPages : pages) {
+                for (CompletableFuture<Conversation> future : convPages) {
+                    future.cancel(true);
+                } // for
+            } // for
+            Thread.currentThread().interrupt();
+            throw new BaringoApiException("Interrupted syncing conversations");
+        } // try-catch
+
+        List<Conversation> out = new ArrayList<>();
+        for (int i = 0; i < changed.size(); i++) {
+            List<CompletableFuture<Conversation>> convPages = pages.get(i);
+            Conversation full = client.await(convPages.get(0));
+            // a message that lands mid-sync shows up in the next one,
+            // since it'll be newer than this sync started
+            for (int p = 1; p < convPages.size(); p++) {
+                addMessages(full, client.await(convPages.get(p)).getMessages());
+            } // for
+            out.add(full);
+        } // for
+        return out;
+    } // syncConversations
+
+    private static void addMessages(Conversation conv, List<Message> messages) {
+        if (messages != null && conv.getMessages() != null) {
+            conv.getMessages().addAll(messages);
+        } // if
+    } // addMessages
+
     /**
      * Given a specific conversation id, return its information
      * as well as the messages in it.  Messages are paged 25 at
@@ -91,10 +184,26 @@ public class ConversationService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
+    /**
+     * Lazily pages through the messages in a conversation, starting
+     * at page 1.  The next page of 25 is requested in the background
+     * while the current one is being consumed.  Iteration stops at
+     * the first empty page, or see {@link Pager#maxItems}.
+     * <p>
+     * <b>ACCESS: AUTHENTICATED USER</b>
+     * @param conversationId numeric id of the conversation
+     * @return a Pager of Message objects
+     */
+    public Pager<Message> pageMessages(long conversationId) {
+        return new Pager<Message>(page -> async.getConversationWithMessages(conversationId, page)
+                .thenApply(Conversation::getMessages))
+                .startingAt(1);
+    }
+
     /**
      * Send a message to another user.  New messages automatically
      * become part of the overall "conversation" with another user,
@@ -119,7 +228,7 @@ public class ConversationService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
@@ -143,7 +252,7 @@ public class ConversationService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
@@ -172,7 +281,7 @@ public class ConversationService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
@@ -197,13 +306,128 @@ public class ConversationService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
     // laaaaaaame
     @SuppressWarnings("serial")
-    public class ConversationList extends ArrayList<Conversation> {
+    public static class ConversationList extends ArrayList<Conversation> {
     }
 
+    /**
+     * Imgur sends false instead of an empty list when there are no
+     * conversations.  This reads either in a single pass.
+     */
+    private static class ConversationListAdapterFactory implements TypeAdapterFactory {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != ConversationList.class) {
+                return null;
+            } // if
+            TypeAdapter<Conversation> convAdapter = gson.getAdapter(Conversation.class);
+            return (TypeAdapter<T>) new TypeAdapter<ConversationList>() {
+                @Override
+                public void write(JsonWriter out, ConversationList value) throws IOException {
+                    out.beginArray();
+                    for (Conversation conv : value) {
+                        convAdapter.write(out, conv);
+                    } // for
+                    out.endArray();
+                }
+
+                @Override
+                public ConversationList read(JsonReader in) throws IOException {
+                    ConversationList list = new ConversationList();
+                    JsonToken token = in.peek();
+                    if (token == JsonToken.BEGIN_ARRAY) {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            list.add(convAdapter.read(in));
+                        } // while
+                        in.endArray();
+                    } else {
+                        in.skipValue(); // false, or null -- laaaaaaame
+                    } // if-else
+                    return list;
+                }
+            };
+        }
+    } // class ConversationListAdapterFactory
+
+    /**
+     * Non-blocking versions of the ConversationService calls.  Failures
+     * complete the future exceptionally with a BaringoApiException.
+     */
+    public class Async {
+
+        /**
+         * Asynchronous version of {@link ConversationService#getConversations}.
+         *
+         * @return a future list of Conversation objects
+         */
+        public CompletableFuture<List<Conversation>> getConversations() {
+            return client.enqueue(client.getApi().getConversations())
+                    .thenApply(list -> list);
+        }
+
+        /**
+         * Asynchronous version of {@link ConversationService#getConversationWithMessages}.
+         *
+         * @param conversationId numeric id of the conversation
+         * @param page           the page number <strong>STARTING AT 1</strong>
+         * @return a future Conversation with a list of messages
+         */
+        public CompletableFuture<Conversation> getConversationWithMessages(
+                long conversationId,
+                int page) {
+            return client.enqueue(client.getApi().getConversationMessages(conversationId, page));
+        }
+
+        /**
+         * Asynchronous version of {@link ConversationService#sendMessage}.
+         *
+         * @param toUserName userName of the user to send to
+         * @param body       the body of the message
+         * @return a future that is true if it was sent
+         */
+        public CompletableFuture<Boolean> sendMessage(
+                String toUserName,
+                String body) {
+            return client.enqueue(client.getApi().sendMessage(toUserName, body));
+        }
+
+        /**
+         * Asynchronous version of {@link ConversationService#deleteConversation}.
+         *
+         * @param conversationId id of the conversation to delete
+         * @return a future that is true on success
+         */
+        public CompletableFuture<Boolean> deleteConversation(long conversationId) {
+            return client.enqueue(client.getApi().deleteConversation(conversationId));
+        }
+
+        /**
+         * Asynchronous version of {@link ConversationService#reportSender}.
+         *
+         * @param userName name of the user to report
+         * @return a future that is true on success
+         */
+        public CompletableFuture<Boolean> reportSender(String userName) {
+            return client.enqueue(client.getApi().reportMessageSender(userName));
+        }
+
+        /**
+         * Asynchronous version of {@link ConversationService#blockSender}.
+         *
+         * @param userName name of the user to block
+         * @return a future that is true on success
+         */
+        public CompletableFuture<Boolean> blockSender(String userName) {
+            return client.enqueue(client.getApi().blockMessageSender(userName));
+        }
+    } // class Async
+
 }
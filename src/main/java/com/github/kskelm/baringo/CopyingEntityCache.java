@@ -0,0 +1,72 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import java.util.function.Predicate;
+
+/**
+ * Wraps the {@link EntityCache} a service uses so that callers never
+ * share a cached model object.  Values are copied on the way in, so
+ * later changes to the caller's object don't leak into the cache, and
+ * on the way out, so the library's own setters (favorites, an album's
+ * images and so on) and the caller's edits only touch that caller's copy.
+ * <p>
+ * The copy is a round trip through the client's Gson, which already
+ * knows how to read and write every model the services cache.
+ *
+ * @param <K> the key type
+ * @param <V> the cached model type
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+class CopyingEntityCache<K, V> implements EntityCache<K, V> {
+
+    private final EntityCache<K, V> cache;
+    private final Class<V> type;
+    private final BaringoClient client;
+
+    CopyingEntityCache(EntityCache<K, V> cache, Class<V> type, BaringoClient client) {
+        this.cache = cache;
+        this.type = type;
+        // gson is built after the services, so it's looked up on use
+        this.client = client;
+    } // constructor
+
+    @Override
+    public V get(K key) {
+        return copy(cache.get(key));
+    }
+
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, copy(value));
+    }
+
+    @Override
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void invalidateIf(Predicate<? super V> predicate) {
+        cache.invalidateIf(predicate);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    private V copy(V value) {
+        if (value == null) {
+            return null;
+        } // if
+        return client.getGson().fromJson(client.getGson().toJsonTree(value, type), type);
+    } // copy
+
+} // class CopyingEntityCache
@@ -14,6 +14,7 @@ import retrofit2.Response;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  *
@@ -26,11 +27,22 @@ import java.util.Map;
 public class CustomGalleryService {
 
     private BaringoClient client = null;
+    private final Async async = new Async();
 
     protected CustomGalleryService(BaringoClient client, GsonBuilder gsonBuilder) {
         this.client = client;
     }
 
+    /**
+     * Returns the non-blocking flavor of this service.  Every method
+     * mirrors its blocking counterpart but returns a CompletableFuture.
+     *
+     * @return the async custom gallery service
+     */
+    public Async async() {
+        return async;
+    }
+
     /**
      * Returns the currently authenticated user's custom
      * gallery, which is based on tags that the user selects
@@ -88,20 +100,9 @@ public class CustomGalleryService {
                 client.getApi().addCustomGalleryTags(tag);
 
         try {
-            Response<ImgurResponseWrapper<Boolean>> res = call.execute();
-            // for some reason, Imgur throws a 500 if tags already exist (?)
-            if (res.raw().code() == 500) {
-                return false;
-            } // if
-            client.throwOnWrapperError(res);
-            if (res.body() == null) { // no data = nothing done (tags already set?)
-                return false;
-            } // if
-            ImgurResponseWrapper<Boolean> out = res.body();
-
-            return out != null && out.getData();
+            return readAddTagResponse(call.execute());
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // addCustomGalleryTag
 
@@ -114,32 +115,15 @@ public class CustomGalleryService {
      * @return true if action was taken
      * @throws BaringoApiException something went wrong
      */
-    @SuppressWarnings("rawtypes")
     public boolean deleteCustomGalleryTag(String tag) throws BaringoApiException {
 
         Call<ImgurResponseWrapper<Boolean>> call =
                 client.getApi().deleteCustomGalleryTags(tag);
 
         try {
-            Response<ImgurResponseWrapper<Boolean>> res = call.execute();
-            // Imgur throws a 400 if the tag wasn't in the list but we just
-            // want to eat it quietly, so we have to do this...
-            if (res.raw().code() == 400) {
-                String errBody = res.errorBody().string();
-                Map root = new Gson().fromJson(errBody, Map.class);
-                Map data = (Map) root.get("data");
-                String err = (String) data.get("error");
-                if (err.startsWith("Invalid tag")) {
-                    return false; // man that was a long way to go
-                } // if
-            } // if
-            client.throwOnWrapperError(res);
-
-            ImgurResponseWrapper<Boolean> out = res.body();
-
-            return out != null && out.getData();
+            return readDeleteTagResponse(call.execute());
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // deleteCustomGalleryTag
 
@@ -165,7 +149,7 @@ public class CustomGalleryService {
 
             return out != null && out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // blockGalleryTag
 
@@ -189,7 +173,7 @@ public class CustomGalleryService {
 
             return out != null && out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // unblockGalleryTag
 
@@ -210,16 +194,137 @@ public class CustomGalleryService {
             ImgurResponseWrapper<CustomGallery> out = res.body();
 
             client.throwOnWrapperError(res);
-            CustomGallery gal = out.getData();
-
-            // TODO This is so filthy that I need a shower.
-            gal.setConvertedItems(
-                    client.galleryService()
-                            .convertToGalleryItems(gal.getInternalItems()));
-            return gal;
+            return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listStarGallery
 
+    private boolean readAddTagResponse(
+            Response<ImgurResponseWrapper<Boolean>> res) throws BaringoApiException {
+        // for some reason, Imgur throws a 500 if tags already exist (?)
+        if (res.raw().code() == 500) {
+            return false;
+        } // if
+        client.throwOnWrapperError(res);
+        if (res.body() == null) { // no data = nothing done (tags already set?)
+            return false;
+        } // if
+        ImgurResponseWrapper<Boolean> out = res.body();
+
+        return out != null && out.getData();
+    } // readAddTagResponse
+
+    @SuppressWarnings("rawtypes")
+    private boolean readDeleteTagResponse(
+            Response<ImgurResponseWrapper<Boolean>> res) throws BaringoApiException, IOException {
+        // Imgur throws a 400 if the tag wasn't in the list but we just
+        // want to eat it quietly, so we have to do this...
+        if (res.raw().code() == 400) {
+            String errBody = res.errorBody().string();
+            Map root = new Gson().fromJson(errBody, Map.class);
+            Map data = (Map) root.get("data");
+            String err = (String) data.get("error");
+            if (err.startsWith("Invalid tag")) {
+                return false; // man that was a long way to go
+            } // if
+        } // if
+        client.throwOnWrapperError(res);
+
+        ImgurResponseWrapper<Boolean> out = res.body();
+
+        return out != null && out.getData();
+    } // readDeleteTagResponse
+
+    /**
+     * Non-blocking versions of the CustomGalleryService calls.  Failures
+     * complete the future exceptionally with a BaringoApiException.
+     */
+    public class Async {
+
+        /**
+         * Asynchronous version of {@link CustomGalleryService#getCustomGallery}.
+         *
+         * @param sort   the sort direction - Viral | Time | Top
+         * @param window when the sort is Top, what the time range is
+         * @param page   the page number, starting from 0
+         * @return a future CustomGallery with the results
+         */
+        public CompletableFuture<CustomGallery> getCustomGallery(
+                GalleryImage.Sort sort,
+                GalleryImage.Window window,
+                int page) {
+            return getSubGallery("custom", sort, window, page);
+        }
+
+        /**
+         * Asynchronous version of {@link CustomGalleryService#getFilteredGallery}.
+         *
+         * @param sort   the sort direction - Viral | Time | Top
+         * @param window when the sort is Top, what the time range is
+         * @param page   the page number, starting from 0
+         * @return a future CustomGallery with the results
+         */
+        public CompletableFuture<CustomGallery> getFilteredGallery(
+                GalleryImage.Sort sort,
+                GalleryImage.Window window,
+                int page) {
+            return getSubGallery("filtered", sort, window, page);
+        }
+
+        /**
+         * Asynchronous version of {@link CustomGalleryService#addCustomGalleryTag}.
+         *
+         * @param tag the tag string to add
+         * @return a future that is true if work was done
+         */
+        public CompletableFuture<Boolean> addCustomGalleryTag(String tag) {
+            return client.enqueue(client.getApi().addCustomGalleryTags(tag),
+                    CustomGalleryService.this::readAddTagResponse);
+        }
+
+        /**
+         * Asynchronous version of {@link CustomGalleryService#deleteCustomGalleryTag}.
+         *
+         * @param tag the tag string to remove
+         * @return a future that is true if action was taken
+         */
+        public CompletableFuture<Boolean> deleteCustomGalleryTag(String tag) {
+            return client.enqueue(client.getApi().deleteCustomGalleryTags(tag),
+                    CustomGalleryService.this::readDeleteTagResponse);
+        }
+
+        /**
+         * Asynchronous version of {@link CustomGalleryService#blockGalleryTag}.
+         *
+         * @param tag a tag string the user no longer wants to see
+         * @return a future that is true if action was taken
+         */
+        public CompletableFuture<Boolean> blockGalleryTag(String tag) {
+            return client.enqueue(client.getApi().blockGalleryTag(tag));
+        }
+
+        /**
+         * Asynchronous version of {@link CustomGalleryService#unblockGalleryTag}.
+         *
+         * @param tag the tag to remove
+         * @return a future that is true if action was taken
+         */
+        public CompletableFuture<Boolean> unblockGalleryTag(String tag) {
+            return client.enqueue(client.getApi().unblockGalleryTag(tag));
+        }
+
+        private CompletableFuture<CustomGallery> getSubGallery(
+                String type,
+                GalleryImage.Sort sort,
+                GalleryImage.Window window,
+                int page) {
+            return client.enqueue(client.getApi().getCustomGallery(
+                            type,
+                            sort.name().toLowerCase(),
+                            window.name().toLowerCase(),
+                            page));
+        }
+    } // class Async
+
 }
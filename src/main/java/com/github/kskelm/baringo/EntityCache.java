@@ -0,0 +1,120 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import java.util.function.Predicate;
+
+/**
+ * An in-memory cache of model objects keyed by id, consulted by
+ * {@link ImageService#getImageInfo}, {@link AlbumService#getAlbum},
+ * {@link AccountService#getAccount} and {@link CommentService#getComment}
+ * before they go to Imgur.  The services invalidate entries themselves
+ * whenever they update or delete the matching object.
+ * <p>
+ * Turn caching on with {@link BaringoClient.Builder#entityCache(int, long, java.util.concurrent.TimeUnit)}
+ * to get a {@link TtlLruEntityCache} per entity type, or plug in your
+ * own with {@link BaringoClient.Builder#entityCache(Factory)}.
+ * Implementations must be thread safe.
+ * <p>
+ * The services copy objects going into and coming out of the cache,
+ * so a cache never hands the same instance to two callers.
+ *
+ * @param <K> the key type
+ * @param <V> the cached model type
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public interface EntityCache<K, V> {
+
+    /**
+     * Returns the cached value, or null if there's no live entry
+     * @param key the id to look up
+     * @return the value or null
+     */
+    V get(K key);
+
+    /**
+     * Stores a value, replacing any previous one
+     * @param key   the id
+     * @param value the value
+     */
+    void put(K key, V value);
+
+    /**
+     * Drops the entry for a key, if any
+     * @param key the id
+     */
+    void invalidate(K key);
+
+    /**
+     * Drops every entry whose value matches.  Used when all we have
+     * is something like a delete hash rather than the id.
+     * @param predicate which values to drop
+     */
+    void invalidateIf(Predicate<? super V> predicate);
+
+    /**
+     * Drops every entry
+     */
+    void invalidateAll();
+
+    /**
+     * Returns the hit, miss and eviction counters for this cache
+     * @return the stats
+     */
+    CacheStats getStats();
+
+    /**
+     * Creates the cache for one entity type.
+     */
+    interface Factory {
+        /**
+         * Returns a new cache
+         * @param name a short name for the entity type, e.g. "image"
+         * @param <K>  the key type
+         * @param <V>  the cached model type
+         * @return the cache
+         */
+        <K, V> EntityCache<K, V> create(String name);
+    }
+
+    /**
+     * Returns a cache that never holds anything, used when entity
+     * caching is turned off.
+     * @param <K> the key type
+     * @param <V> the cached model type
+     * @return a cache that's always empty
+     */
+    static <K, V> EntityCache<K, V> disabled() {
+        return new EntityCache<K, V>() {
+            private final CacheStats stats = new CacheStats();
+
+            @Override
+            public V get(K key) {
+                return null;
+            }
+
+            @Override
+            public void put(K key, V value) {
+            }
+
+            @Override
+            public void invalidate(K key) {
+            }
+
+            @Override
+            public void invalidateIf(Predicate<? super V> predicate) {
+            }
+
+            @Override
+            public void invalidateAll() {
+            }
+
+            @Override
+            public CacheStats getStats() {
+                return stats;
+            }
+        };
+    }
+
+} // interface EntityCache
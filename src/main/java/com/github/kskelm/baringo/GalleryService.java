@@ -4,20 +4,24 @@
 package com.github.kskelm.baringo;
 
 import com.github.kskelm.baringo.model.*;
-import com.github.kskelm.baringo.model.gallery.GalleryAlbum;
 import com.github.kskelm.baringo.model.gallery.GalleryImage;
 import com.github.kskelm.baringo.model.gallery.GalleryItem;
-import com.github.kskelm.baringo.model.gallery.GalleryItemProxy;
+import com.github.kskelm.baringo.model.gallery.GalleryItemAdapterFactory;
 import com.github.kskelm.baringo.model.search.CompoundSearchQuery;
 import com.github.kskelm.baringo.model.search.SearchQuery;
 import com.github.kskelm.baringo.util.BaringoApiException;
+import com.github.kskelm.baringo.util.Pager;
 import com.google.gson.GsonBuilder;
 import retrofit2.Call;
 import retrofit2.Response;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 
 /**
@@ -31,12 +35,25 @@ import java.util.List;
 public class GalleryService {
 
     private BaringoClient client = null;
+    private final Async async = new Async();
 
     protected GalleryService(BaringoClient client, GsonBuilder gsonBuilder) {
         this.client = client;
-//		gsonBuilder.registerTypeAdapter( GalleryItem.class, new GalleryItemAdapter() );
+        gsonBuilder.registerTypeAdapterFactory(new GalleryItemAdapterFactory());
     } // constructor
 
+    /**
+     * Returns the non-blocking flavor of this service.  Every method
+     * mirrors its blocking counterpart but returns a CompletableFuture
+     * driven by OkHttp's dispatcher, so no thread is parked waiting on
+     * the network.
+     *
+     * @return the async gallery service
+     */
+    public Async async() {
+        return async;
+    }
+
     /**
      * This returns a list of items in a gallery.
      * <p>
@@ -67,22 +84,43 @@ public class GalleryService {
         String sortStr = sort.name().toLowerCase();
         String windowStr = window.name().toLowerCase();
 
-        Call<ImgurResponseWrapper<List<GalleryItemProxy>>> call =
+        Call<ImgurResponseWrapper<List<GalleryItem>>> call =
                 client.getApi().listGallery(sectionStr, sortStr, windowStr, page, viral);
 
         try {
-            Response<ImgurResponseWrapper<List<GalleryItemProxy>>> res = call.execute();
-            ImgurResponseWrapper<List<GalleryItemProxy>> list = res.body();
+            Response<ImgurResponseWrapper<List<GalleryItem>>> res = call.execute();
+            ImgurResponseWrapper<List<GalleryItem>> list = res.body();
 
             client.throwOnWrapperError(res);
 
-            // TODO: Look into refactoring this
-            return convertToGalleryItems(list.getData());
+            return list.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Lazily pages through a gallery, page 0 onward.  Each page is
+     * fetched as it's needed, with the next one requested in the
+     * background while the current one is being consumed, so network
+     * latency overlaps with whatever the caller is doing.  Iteration
+     * stops at the first empty page, or see {@link Pager#maxItems}.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param section the section of the gallery - Hot | Top | User
+     * @param sort the sort for the results - Viral | Time | Top
+     * @param window the window of time when the section is Top
+     * @param viral whether or not viral images are to be returned
+     * @return a Pager of GalleryItem objects
+     */
+    public Pager<GalleryItem> pageGallery(
+            GalleryItem.Section section,
+            GalleryItem.Sort sort,
+            GalleryItem.Window window,
+            boolean viral) {
+        return new Pager<>(page -> async.listGallery(section, sort, window, viral, page));
+    }
+
     /**
      * Exactly like getGallery() except this returns
      * items from the meme gallery.
@@ -107,20 +145,19 @@ public class GalleryService {
         String windowStr = window.name().toLowerCase();
 
 
-        Call<ImgurResponseWrapper<List<GalleryItemProxy>>> call =
+        Call<ImgurResponseWrapper<List<GalleryItem>>> call =
                 client.getApi()
                         .listMemeGallery(sortStr, windowStr, page);
 
         try {
-            Response<ImgurResponseWrapper<List<GalleryItemProxy>>> res = call.execute();
-            ImgurResponseWrapper<List<GalleryItemProxy>> list = res.body();
+            Response<ImgurResponseWrapper<List<GalleryItem>>> res = call.execute();
+            ImgurResponseWrapper<List<GalleryItem>> list = res.body();
 
             client.throwOnWrapperError(res);
 
-            // TODO: Look into refactoring this
-            return convertToGalleryItems(list.getData());
+            return list.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listMemeGallery
 
@@ -150,20 +187,19 @@ public class GalleryService {
         String sortStr = sort.name().toLowerCase();
         String windowStr = window.name().toLowerCase();
 
-        Call<ImgurResponseWrapper<List<GalleryItemProxy>>> call =
+        Call<ImgurResponseWrapper<List<GalleryItem>>> call =
                 client.getApi()
                         .listSubredditGallery(subreddit, sortStr, windowStr, page);
 
         try {
-            Response<ImgurResponseWrapper<List<GalleryItemProxy>>> res = call.execute();
-            ImgurResponseWrapper<List<GalleryItemProxy>> list = res.body();
+            Response<ImgurResponseWrapper<List<GalleryItem>>> res = call.execute();
+            ImgurResponseWrapper<List<GalleryItem>> list = res.body();
 
             client.throwOnWrapperError(res);
 
-            // TODO: Look into refactoring this
-            return convertToGalleryItems(list.getData());
+            return list.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -191,7 +227,7 @@ public class GalleryService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
@@ -226,12 +262,9 @@ public class GalleryService {
 
             client.throwOnWrapperError(res);
 
-            // TODO: Look into refactoring this
-            TagGallery gal = out.getData();
-            gal.setConvertedItems(convertToGalleryItems(gal.getInternalItems()));
-            return gal;
+            return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -274,7 +307,7 @@ public class GalleryService {
 
             return out.getData().getList();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
@@ -308,7 +341,7 @@ public class GalleryService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
@@ -330,40 +363,18 @@ public class GalleryService {
             GalleryItem.Window window,
             int page) throws BaringoApiException {
 
-        String sortStr = sort.name().toLowerCase();
-        String windowStr = window.name().toLowerCase();
-        SearchQuery.ItemType type = query.getItemType();
-        if (type == SearchQuery.ItemType.any) {
-            type = null;
-        } // if
-        String typeStr = type == null ? null : type.name().toLowerCase();
-        SearchQuery.SizeRange range = query.getSizeRange();
-        if (range == SearchQuery.SizeRange.any) {
-            range = null;
-        } // if
-        String rangeStr = range == null ? null : range.name().toLowerCase();
-
-        Call<ImgurResponseWrapper<List<GalleryItemProxy>>> call =
-                client.getApi()
-                        .searchGallery(
-                                sortStr, windowStr, page,
-                                query.getAllWords(),
-                                query.getAnyWords(),
-                                query.getThisPhrase(),
-                                query.getNotPhrase(),
-                                typeStr,
-                                rangeStr);
+        Call<ImgurResponseWrapper<List<GalleryItem>>> call =
+                searchCall(query, sort, window, page);
 
         try {
-            Response<ImgurResponseWrapper<List<GalleryItemProxy>>> res = call.execute();
-            ImgurResponseWrapper<List<GalleryItemProxy>> list = res.body();
+            Response<ImgurResponseWrapper<List<GalleryItem>>> res = call.execute();
+            ImgurResponseWrapper<List<GalleryItem>> list = res.body();
 
             client.throwOnWrapperError(res);
 
-            // TODO: Look into refactoring this
-            return convertToGalleryItems(list.getData());
+            return list.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -388,25 +399,60 @@ public class GalleryService {
         String sortStr = sort.name().toLowerCase();
         String windowStr = window.name().toLowerCase();
 
-        Call<ImgurResponseWrapper<List<GalleryItemProxy>>> call =
+        Call<ImgurResponseWrapper<List<GalleryItem>>> call =
                 client.getApi()
                         .compoundSearchGallery(
                                 sortStr, windowStr, page,
                                 query.toString());
 
         try {
-            Response<ImgurResponseWrapper<List<GalleryItemProxy>>> res = call.execute();
-            ImgurResponseWrapper<List<GalleryItemProxy>> list = res.body();
+            Response<ImgurResponseWrapper<List<GalleryItem>>> res = call.execute();
+            ImgurResponseWrapper<List<GalleryItem>> list = res.body();
 
             client.throwOnWrapperError(res);
 
-            // TODO: Look into refactoring this
-            return convertToGalleryItems(list.getData());
+            return list.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Lazily pages through the results of a search.  Each page is
+     * fetched as it's needed, with the next one requested in the
+     * background while the current one is being consumed.  Iteration
+     * stops at the first empty page, or see {@link Pager#maxItems}.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param query the search query to perform
+     * @param sort the method of sorting - Viral | Time | Top
+     * @param window the time range to return when the sort is Top
+     * @return a Pager of GalleryItem objects
+     */
+    public Pager<GalleryItem> pageSearchGallery(
+            SearchQuery query,
+            GalleryItem.Sort sort,
+            GalleryItem.Window window) {
+        return new Pager<>(page -> async.searchGallery(query, sort, window, page));
+    }
+
+    /**
+     * Lazily pages through the results of a compound search.  See
+     * {@link #pageSearchGallery(SearchQuery, GalleryItem.Sort, GalleryItem.Window)}.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param query the search query to perform
+     * @param sort the method of sorting - Viral | Time | Top
+     * @param window the time range to return when the sort is Top
+     * @return a Pager of GalleryItem objects
+     */
+    public Pager<GalleryItem> pageSearchGallery(
+            CompoundSearchQuery query,
+            GalleryItem.Sort sort,
+            GalleryItem.Window window) {
+        return new Pager<>(page -> async.searchGallery(query, sort, window, page));
+    }
+
     /**
      * This returns a list of random gallery items.  Imgur
      * refreshes this random list once per hour.
@@ -418,19 +464,18 @@ public class GalleryService {
      */
     public List<GalleryItem> getRandomGallery(int page) throws BaringoApiException {
 
-        Call<ImgurResponseWrapper<List<GalleryItemProxy>>> call =
+        Call<ImgurResponseWrapper<List<GalleryItem>>> call =
                 client.getApi().listRandomGallery(page);
 
         try {
-            Response<ImgurResponseWrapper<List<GalleryItemProxy>>> res = call.execute();
-            ImgurResponseWrapper<List<GalleryItemProxy>> list = res.body();
+            Response<ImgurResponseWrapper<List<GalleryItem>>> res = call.execute();
+            ImgurResponseWrapper<List<GalleryItem>> list = res.body();
 
             client.throwOnWrapperError(res);
 
-            // TODO: Look into refactoring this
-            return convertToGalleryItems(list.getData());
+            return list.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
 
     }
@@ -474,7 +519,7 @@ public class GalleryService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -500,7 +545,7 @@ public class GalleryService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -529,7 +574,7 @@ public class GalleryService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -554,7 +599,7 @@ public class GalleryService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -583,11 +628,34 @@ public class GalleryService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
 
+    /**
+     * Hands each comment on a gallery image or album, replies
+     * included, to the consumer as it's read off the wire, without
+     * building the list.  Handy for threads too big to hold at once.
+     * Replies arrive before the comment they reply to and with empty
+     * children lists; thread them with {@link Comment#getParentId()}.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param itemId the id of the item to get comments for
+     * @param sort the sort direction - Best | Top | New
+     * @param consumer gets each comment, on the calling thread
+     * @return the number of comments handed over
+     * @throws BaringoApiException something went south
+     */
+    public int getItemComments(
+            String itemId,
+            Comment.Sort sort,
+            Consumer<Comment> consumer) throws BaringoApiException {
+        return client.commentService().streamComments(
+                client.getApi().streamGalleryItemComments(itemId, sort.name().toLowerCase()),
+                consumer);
+    }
+
     // ================================================
 
     /**
@@ -612,7 +680,7 @@ public class GalleryService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -638,10 +706,75 @@ public class GalleryService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Returns every comment on a gallery image or album, assembled
+     * into threads, best first.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param itemId the id of the item to get comments for
+     * @return the comment tree
+     * @throws BaringoApiException something went south
+     * @see #getCommentTree(String, Comment.Sort)
+     */
+    public CommentTree getCommentTree(
+            String itemId) throws BaringoApiException {
+        return getCommentTree(itemId, Comment.Sort.Best);
+    }
+
+    /**
+     * Returns every comment on a gallery image or album, assembled
+     * into threads.  The item's comments and the full list of its
+     * comment ids are requested at the same time; any comment the
+     * first left out is then fetched, all of them at once, and hung
+     * under its parent.  A big thread takes a few round trips rather
+     * than one per reply.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param itemId the id of the item to get comments for
+     * @param sort the sort direction of top-level comments - Best | Top | New
+     * @return the comment tree
+     * @throws BaringoApiException something went south
+     */
+    public CommentTree getCommentTree(
+            String itemId,
+            Comment.Sort sort) throws BaringoApiException {
+        return client.await(async.getCommentTree(itemId, sort));
+    }
+
+    private Call<ImgurResponseWrapper<List<GalleryItem>>> searchCall(
+            SearchQuery query,
+            GalleryItem.Sort sort,
+            GalleryItem.Window window,
+            int page) {
+
+        String sortStr = sort.name().toLowerCase();
+        String windowStr = window.name().toLowerCase();
+        SearchQuery.ItemType type = query.getItemType();
+        if (type == SearchQuery.ItemType.any) {
+            type = null;
+        } // if
+        String typeStr = type == null ? null : type.name().toLowerCase();
+        SearchQuery.SizeRange range = query.getSizeRange();
+        if (range == SearchQuery.SizeRange.any) {
+            range = null;
+        } // if
+        String rangeStr = range == null ? null : range.name().toLowerCase();
+
+        return client.getApi()
+                .searchGallery(
+                        sortStr, windowStr, page,
+                        query.getAllWords(),
+                        query.getAnyWords(),
+                        query.getThisPhrase(),
+                        query.getNotPhrase(),
+                        typeStr,
+                        rangeStr);
+    } // searchCall
+
     // ditto
     // UPDATE: apparently Imgur doesn't really support this anymore at least
     // as of 6/24/15.  https://groups.google.com/forum/#!msg/imgur/BEyZryAhGi0/yfOFyixuPy4J
@@ -682,78 +815,354 @@ public class GalleryService {
     //	}
 
 
-    /*
-     * Because Imgur gallery lists come in with both GalleryImages and
-     * GalleryAlbums in the same GalleryItemList, and because the only
-     * distinguishing thing is is_album==true, AND because we like type
-     * safety and proper subclassing, we need an Adapter to read
-     * Gallery lists and convert them on the fly from being GalleryItemProxies
-     * to GalleryImages and GalleryAlbums.
+    /**
+     * Non-blocking versions of the GalleryService calls.  Failures
+     * complete the future exceptionally with a BaringoApiException.
      */
-/* WIP .. nice idea but not yet
-	class GalleryItemAdapter extends TypeAdapter<GalleryItem> {
-
-		@Override
-		public void write(JsonWriter out, GalleryItem value) throws IOException {
-			if( value == null ){
-				out.nullValue();
-				return;
-			} // if
-
-			out.value( value.toString() );
-		}
-
-		// We used to load an entire array of GalleryItemProxy objects
-		// and then wholesale convert them.  That was probably twice the
-		// heap pressure as doing it piecemeal as they come in.
-		@Override
-		public GalleryItem read(JsonReader in) throws IOException {
-			if (in.peek() != JsonToken.BEGIN_OBJECT) {
-				in.nextNull();
-				return null;
-			} // if-else
-			// read in a temporary proxy placeholder
-			GalleryItemProxy proxy = new Gson().fromJson( in, GalleryItemProxy.class );
-			if( proxy == null ) {
-				return null;
-			} // if
-			// turn it into the appropriate element and return
-			if( proxy.isAlbum() ) {
-				return new GalleryAlbum( proxy );
-			} else {
-				return new GalleryImage( proxy );
-			} // if-else
-		}
-	}
-*/
-
-    // this approach feels filthy. Convert lame proxy objects to
-    // type-safe GalleryItem derivatives.
-    protected List<GalleryItem> convertToGalleryItems(List<GalleryItemProxy> list) {
-        ArrayList<GalleryItem> items = new ArrayList<>();
-
-        for (GalleryItemProxy proxy : list) {
-            GalleryItem item = null;
-            if (proxy.isAlbum()) {
-                item = new GalleryAlbum(proxy);
-            } else {
-                item = new GalleryImage(proxy);
-            } // if-else
-            if (item != null) {
-                items.add(item);
-            } // if
-        } // for
-        return items;
-    }
+    public class Async {
+
+        /**
+         * Asynchronous version of {@link GalleryService#listGallery}.
+         *
+         * @param section the section of the gallery
+         * @param sort    the sort for the results
+         * @param window  the window of time when the section is Top
+         * @param viral   whether or not viral images are to be returned
+         * @param page    the page number to return, starting at 0
+         * @return a future list of GalleryItem objects
+         */
+        public CompletableFuture<List<GalleryItem>> listGallery(
+                GalleryItem.Section section,
+                GalleryItem.Sort sort,
+                GalleryItem.Window window,
+                boolean viral,
+                int page) {
+            return client.enqueue(client.getApi().listGallery(
+                            section.name().toLowerCase(),
+                            sort.name().toLowerCase(),
+                            window.name().toLowerCase(),
+                            page, viral));
+        }
 
-    protected GalleryItem convertProxyItem(GalleryItemProxy proxy) {
-        GalleryItem item = null;
-        if (proxy.isAlbum()) {
-            item = new GalleryAlbum(proxy);
-        } else {
-            item = new GalleryImage(proxy);
-        } // if-else
-        return item;
-    }
+        /**
+         * Asynchronous version of {@link GalleryService#listMemeGallery}.
+         *
+         * @param sort   the sort direction - Viral | Time | Top
+         * @param window the time range when the sort is Top
+         * @param page   the page number to return, starting at 0
+         * @return a future list of gallery items
+         */
+        public CompletableFuture<List<GalleryItem>> listMemeGallery(
+                GalleryItem.Sort sort,
+                GalleryItem.Window window,
+                int page) {
+            return client.enqueue(client.getApi().listMemeGallery(
+                            sort.name().toLowerCase(),
+                            window.name().toLowerCase(),
+                            page));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#listSubredditGallery}.
+         *
+         * @param subreddit the name of the subreddit in question
+         * @param sort      the sort direction - Time | Top
+         * @param window    the time range when the sort is Top
+         * @param page      the page number to return, starting at 0
+         * @return a future list of gallery items
+         */
+        public CompletableFuture<List<GalleryItem>> listSubredditGallery(
+                String subreddit,
+                GalleryItem.Sort sort,
+                GalleryItem.Window window,
+                int page) {
+            return client.enqueue(client.getApi().listSubredditGallery(
+                            subreddit,
+                            sort.name().toLowerCase(),
+                            window.name().toLowerCase(),
+                            page));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getSubredditImageInfo}.
+         *
+         * @param subreddit the subreddit the image is in
+         * @param id        id of the image to return
+         * @return a future GalleryImage
+         */
+        public CompletableFuture<GalleryImage> getSubredditImageInfo(
+                String subreddit,
+                String id) {
+            return client.enqueue(client.getApi().getSubredditImageInfo(subreddit, id));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getTagGallery}.
+         *
+         * @param tag    the tag for which we want to list a gallery
+         * @param sort   the mechanism for sorting - Viral | Time | Top
+         * @param window the time window to fetch when the sort is Top
+         * @param page   the page number, starting at 0
+         * @return a future TagGallery
+         */
+        public CompletableFuture<TagGallery> getTagGallery(
+                String tag,
+                GalleryItem.Sort sort,
+                GalleryItem.Window window,
+                int page) {
+            return client.enqueue(client.getApi().getTagGallery(
+                            tag,
+                            sort.name().toLowerCase(),
+                            window.name().toLowerCase(),
+                            page));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getImageInfo}.
+         *
+         * @param id the id of the image
+         * @return a future Image
+         */
+        public CompletableFuture<Image> getImageInfo(String id) {
+            return client.imageService().async().getImageInfo(id);
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getGalleryItemTagVotes}.
+         *
+         * @param id the image/album id to return tag votes for
+         * @return a future list of TagVotes
+         */
+        public CompletableFuture<List<TagVote>> getGalleryItemTagVotes(String id) {
+            return client.enqueue(client.getApi().getGalleryItemTagVotes(id))
+                    .thenApply(TagVoteList::getList);
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#voteGalleryItemTag}.
+         *
+         * @param id   the id of the item to vote on
+         * @param tag  the tag to vote up or down
+         * @param vote the vote, Up or Down
+         * @return a future that is true if it worked
+         */
+        public CompletableFuture<Boolean> voteGalleryItemTag(
+                String id,
+                String tag,
+                Vote vote) {
+            return client.enqueue(client.getApi().voteGalleryItemTag(
+                    id, tag, vote.name().toLowerCase()));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#searchGallery(SearchQuery, GalleryItem.Sort, GalleryItem.Window, int)}.
+         *
+         * @param query  the search query to perform
+         * @param sort   the method of sorting - Viral | Time | Top
+         * @param window the time range to return when the sort is Top
+         * @param page   the page number to return, starting at 0
+         * @return a future list of GalleryItem objects
+         */
+        public CompletableFuture<List<GalleryItem>> searchGallery(
+                SearchQuery query,
+                GalleryItem.Sort sort,
+                GalleryItem.Window window,
+                int page) {
+            return client.enqueue(searchCall(query, sort, window, page));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#searchGallery(CompoundSearchQuery, GalleryItem.Sort, GalleryItem.Window, int)}.
+         *
+         * @param query  the search query to perform
+         * @param sort   the method of sorting- Viral | Time | Top
+         * @param window the time range to return when the sort is Top
+         * @param page   the page number to return, starting at 0
+         * @return a future list of GalleryItem objects
+         */
+        public CompletableFuture<List<GalleryItem>> searchGallery(
+                CompoundSearchQuery query,
+                GalleryItem.Sort sort,
+                GalleryItem.Window window,
+                int page) {
+            return client.enqueue(client.getApi().compoundSearchGallery(
+                            sort.name().toLowerCase(),
+                            window.name().toLowerCase(),
+                            page,
+                            query.toString()));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getRandomGallery}.
+         *
+         * @param page the page number to return, starting at 0
+         * @return a future list of GalleryItem objects
+         */
+        public CompletableFuture<List<GalleryItem>> getRandomGallery(int page) {
+            return client.enqueue(client.getApi().listRandomGallery(page));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#shareItem}.
+         *
+         * @param itemId        id of the item to share
+         * @param title         title of the post
+         * @param topicId       numeric id of the topic to post to, or 0 if none
+         * @param agreedToTerms whether or not the user agreed to the terms
+         * @param nsfw          true if this item should be marked as "mature"
+         * @return a future that is true if it worked
+         */
+        public CompletableFuture<Boolean> shareItem(
+                String itemId,
+                String title,
+                int topicId,
+                boolean agreedToTerms,
+                boolean nsfw) {
+            return client.enqueue(client.getApi().shareGalleryItem(
+                    itemId, title, topicId,
+                    agreedToTerms ? 1 : 0,
+                    nsfw ? 1 : 0));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#unshareItem}.
+         *
+         * @param itemId the id of the item to remove
+         * @return a future that is true if it worked
+         */
+        public CompletableFuture<Boolean> unshareItem(String itemId) {
+            return client.enqueue(client.getApi().unshareGalleryItem(itemId));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#reportItem}.
+         *
+         * @param itemId the item id to report
+         * @param reason why
+         * @return a future that is true if it worked
+         */
+        public CompletableFuture<Boolean> reportItem(
+                String itemId,
+                ReportReason reason) {
+            return client.enqueue(client.getApi().reportGalleryItem(itemId, reason.ordinal() + 1));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getItemVotes}.
+         *
+         * @param itemId the item to get votes for
+         * @return a future for its vote counts
+         */
+        public CompletableFuture<Votes> getItemVotes(String itemId) {
+            return client.enqueue(client.getApi().getGalleryItemVotes(itemId));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getItemComments}.
+         *
+         * @param itemId the id of the item to get comments for
+         * @param sort   the sort direction - Best | Top | New
+         * @return a future list of comments
+         */
+        public CompletableFuture<List<Comment>> getItemComments(
+                String itemId,
+                Comment.Sort sort) {
+            return client.enqueue(client.getApi().getGalleryItemComments(
+                    itemId, sort.name().toLowerCase()));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getItemCommentIds}.
+         *
+         * @param itemId the id of the item to get comment ids for
+         * @return a future list of comment ids
+         */
+        public CompletableFuture<List<Long>> getItemCommentIds(String itemId) {
+            return client.enqueue(client.getApi().getGalleryItemCommentIds(itemId));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getItemCommentCount}.
+         *
+         * @param itemId the id of the item to count comments for
+         * @return a future for the total number of comments
+         */
+        public CompletableFuture<Integer> getItemCommentCount(String itemId) {
+            return client.enqueue(client.getApi().getGalleryItemCommentCount(itemId));
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getCommentTree(String)}.
+         *
+         * @param itemId the id of the item to get comments for
+         * @return a future for the comment tree
+         */
+        public CompletableFuture<CommentTree> getCommentTree(String itemId) {
+            return getCommentTree(itemId, Comment.Sort.Best);
+        }
+
+        /**
+         * Asynchronous version of {@link GalleryService#getCommentTree(String, Comment.Sort)}.
+         *
+         * @param itemId the id of the item to get comments for
+         * @param sort   the sort direction of top-level comments - Best | Top | New
+         * @return a future for the comment tree
+         */
+        public CompletableFuture<CommentTree> getCommentTree(
+                String itemId,
+                Comment.Sort sort) {
+            CompletableFuture<List<Long>> ids = getItemCommentIds(itemId);
+            return getItemComments(itemId, sort)
+                    .thenCompose(comments -> ids.thenCompose(allIds -> {
+                        CommentTree tree = new CommentTree(comments);
+                        List<Long> missing = new ArrayList<>();
+                        for (Long id : allIds) {
+                            if (tree.get(id) == null) {
+                                missing.add(id);
+                            } // if
+                        } // for
+                        return fillCommentTree(tree, missing);
+                    }));
+        }
+
+        /**
+         * Fetches the comments the tree is missing, concurrently, and
+         * attaches them oldest first so parents go in before replies.
+         * One that's gone by the time it's fetched is left out rather
+         * than failing the whole tree.  The comment cache hands out
+         * copies, so attaching never touches a cached comment.
+         */
+        private CompletableFuture<CommentTree> fillCommentTree(CommentTree tree, List<Long> missing) {
+            if (missing.isEmpty()) {
+                return CompletableFuture.completedFuture(tree);
+            } // if
+            Collections.sort(missing);
+            List<CompletableFuture<Comment>> fetches = new ArrayList<>();
+            for (Long id : missing) {
+                fetches.add(client.commentService().async().getComment(id)
+                        .handle((comment, e) -> {
+                            if (e == null) {
+                                return comment;
+                            } // if
+                            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                            if (cause instanceof BaringoApiException
+                                    && ((BaringoApiException) cause).getHttpCode() == 404) {
+                                return null; // deleted since the ids were listed
+                            } // if
+                            throw new CompletionException(cause);
+                        }));
+            } // for
+            return CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0]))
+                    .thenApply(v -> {
+                        for (CompletableFuture<Comment> fetch : fetches) {
+                            Comment comment = fetch.join();
+                            if (comment != null) {
+                                tree.attach(comment);
+                            } // if
+                        } // for
+                        return tree;
+                    });
+        }
+    } // class Async
 
 }
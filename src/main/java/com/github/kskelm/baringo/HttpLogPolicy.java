@@ -0,0 +1,188 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.util.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Decides how much of the API traffic gets written to the Baringo
+ * log, set with {@link BaringoClient.Builder#httpLogging}.
+ * <p>
+ * Logging is off unless a policy says otherwise, and when it's off
+ * nothing is even installed on the HTTP client.  When it's on:
+ * <ul>
+ * <li>{@link Level} picks how much of each exchange is logged</li>
+ * <li>{@link #sample} logs only a fraction of the calls to busy paths</li>
+ * <li>{@link #maxBodyBytes} caps how much of a body is logged; bodies
+ * are only ever read that far, and only textual ones are logged</li>
+ * <li>the Authorization header, and any others named with
+ * {@link #redactHeader}, are logged without their values</li>
+ * </ul>
+ * Entries go to the java.util.logging logger named
+ * {@link BaringoClient#LOG_NAME} at INFO, and are skipped without any
+ * formatting if that logger wouldn't print them.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class HttpLogPolicy {
+
+    /**
+     * How much of each request and response to log
+     */
+    public enum Level {
+        /**
+         * nothing at all
+         */
+        NONE,
+        /**
+         * the request line, and the response status, time and size
+         */
+        BASIC,
+        /**
+         * BASIC plus the headers
+         */
+        HEADERS,
+        /**
+         * HEADERS plus the bodies, up to the size cap.  OAuth2 token
+         * requests and responses carry secrets, so their bodies never are.
+         */
+        BODY
+    }
+
+    private final Level level;
+    private final List<Rule> rules = new ArrayList<>();
+    private final Set<String> redacted = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private long maxBodyBytes = 4096;
+
+    /**
+     * Creates a policy logging everything at the given level
+     * @param level how much to log
+     */
+    public HttpLogPolicy(Level level) {
+        this.level = level;
+        this.redacted.add("Authorization");
+    } // constructor
+
+    /**
+     * Returns a policy that logs nothing, which is the default
+     * @return a new policy
+     */
+    public static HttpLogPolicy off() {
+        return new HttpLogPolicy(Level.NONE);
+    }
+
+    /**
+     * Logs only a fraction of the calls whose path matches.  Rules
+     * added later win over earlier ones.  Paths that match no rule
+     * are always logged.
+     *
+     * @param pathRegex a regular expression matched against the whole
+     *                  request path, e.g. "/3/gallery/.*"
+     * @param rate      the fraction to log, from 0 (none) to 1 (all)
+     * @return this policy
+     */
+    public HttpLogPolicy sample(String pathRegex, double rate) {
+        rules.add(0, new Rule(Pattern.compile(pathRegex), Math.max(0, Math.min(1, rate))));
+
+        return this;
+    }
+
+    /**
+     * Sets the most of any one body that's logged at {@link Level#BODY}.
+     * Defaults to 4096 bytes.
+     *
+     * @param maxBodyBytes the cap in bytes
+     * @return this policy
+     */
+    public HttpLogPolicy maxBodyBytes(long maxBodyBytes) {
+        this.maxBodyBytes = Math.max(0, maxBodyBytes);
+
+        return this;
+    }
+
+    /**
+     * Logs a header's name but not its value.  Authorization is
+     * always redacted.
+     *
+     * @param name the header name, in any case
+     * @return this policy
+     */
+    public HttpLogPolicy redactHeader(String name) {
+        redacted.add(name);
+
+        return this;
+    }
+
+    /**
+     * Returns how much gets logged
+     * @return the level
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the most of any one body that's logged
+     * @return the cap in bytes
+     */
+    public long getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    /**
+     * Returns the fraction of calls to the given path that are logged
+     *
+     * @param path the encoded request path
+     * @return the sample rate, from 0 to 1
+     */
+    public double sampleRate(String path) {
+        for (Rule rule : rules) {
+            if (rule.pattern.matcher(path).matches()) {
+                return rule.rate;
+            } // if
+        } // for
+        return 1;
+    }
+
+    /**
+     * Returns true if the named header's value should be left out
+     *
+     * @param name the header name
+     * @return true if redacted
+     */
+    public boolean isRedacted(String name) {
+        return redacted.contains(name);
+    }
+
+    @Override
+    public String toString() {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        map.put("level", level);
+        map.put("maxBodyBytes", maxBodyBytes);
+        map.put("redacted", Collections.unmodifiableSet(redacted));
+        for (Rule rule : rules) {
+            map.put(rule.pattern.pattern(), rule.rate);
+        } // for
+        return Utils.toString(map, HttpLogPolicy.class.getSimpleName());
+    }
+
+    private static class Rule {
+        private final Pattern pattern;
+        private final double rate;
+
+        Rule(Pattern pattern, double rate) {
+            this.pattern = pattern;
+            this.rate = rate;
+        } // constructor
+    } // class Rule
+
+} // class HttpLogPolicy
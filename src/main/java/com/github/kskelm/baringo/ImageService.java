@@ -7,18 +7,27 @@ import com.github.kskelm.baringo.model.Image;
 import com.github.kskelm.baringo.model.ImgurResponseWrapper;
 import com.github.kskelm.baringo.util.BaringoApiException;
 import com.github.kskelm.baringo.util.BaringoAuthException;
+import com.github.kskelm.baringo.util.Utils;
 import com.google.gson.GsonBuilder;
+import okhttp3.Callback;
 import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import okio.Okio;
+import okio.Sink;
+import org.jetbrains.annotations.NotNull;
 import retrofit2.Call;
 import retrofit2.Response;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -30,22 +39,42 @@ public class ImageService {
 
     private BaringoClient client = null;
     private final HashMap<String, String> extensionToMimeType = new HashMap<>();
+    private final Async async = new Async();
+    private final EntityCache<String, Image> cache;
+
+    // enough to recognize any of the formats Imgur takes
+    private static final int SNIFF_LENGTH = 16;
 
     // ================================================
     protected ImageService(BaringoClient imgurClient, GsonBuilder gsonBuilder) {
         this.client = imgurClient;
+        this.cache = imgurClient.newEntityCache("image", Image.class);
 
         extensionToMimeType.put("apng", "image/png");
+        extensionToMimeType.put("bmp", "image/bmp");
         extensionToMimeType.put("gif", "image/gif");
         extensionToMimeType.put("jpeg", "image/jpeg");
         extensionToMimeType.put("jpg", "image/jpeg");
+        extensionToMimeType.put("mp4", "video/mp4");
         extensionToMimeType.put("pdf", "application/pdf");
         extensionToMimeType.put("png", "image/png");
         extensionToMimeType.put("tif", "image/tiff");
         extensionToMimeType.put("tiff", "image/tiff");
+        extensionToMimeType.put("webm", "video/webm");
+        extensionToMimeType.put("webp", "image/webp");
         extensionToMimeType.put("xcf", "image/xcf");
     } // constructor
 
+    /**
+     * Returns the non-blocking flavor of this service.  Every method
+     * mirrors its blocking counterpart but returns a CompletableFuture.
+     *
+     * @return the async image service
+     */
+    public Async async() {
+        return async;
+    }
+
     /**
      * Given an image id, return info about the Image object for it.
      * <p>
@@ -58,6 +87,10 @@ public class ImageService {
      * @throws BaringoApiException something went pear-shaped
      */
     public Image getImageInfo(String id) throws BaringoApiException {
+        Image cached = cache.get(id);
+        if (cached != null) {
+            return cached;
+        } // if
 
         Call<ImgurResponseWrapper<Image>> call =
                 client.getApi().getImageInfo(id);
@@ -68,9 +101,10 @@ public class ImageService {
 
             client.throwOnWrapperError(res);
 
+            cache.put(id, out.getData());
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
@@ -93,6 +127,7 @@ public class ImageService {
             String albumId,
             String title,
             String description) throws BaringoApiException {
+        client.albumService().forget(albumId);
 
         RequestBody body = RequestBody.create(
                 MediaType.parse("text/plain"), Url);
@@ -112,7 +147,9 @@ public class ImageService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            client.albumService().forget(albumId);
         } // try-catch
     }
 
@@ -137,42 +174,132 @@ public class ImageService {
             String title,
             String description) throws IOException, BaringoApiException { // can be null
 
-        File file = new File(fileName);
+        return executeUpload(albumId,
+                localImageCall(mimeType, Paths.get(fileName), albumId, title, description, null));
+    }
 
-        if (!file.exists()) {
-            throw new FileNotFoundException("File not found: " + fileName);
-        } // if
-        if (!file.canRead()) {
-            throw new IOException("Cannot access file " + fileName);
-        } // if
-        if (mimeType == null) { // infer from file prefix
-            int dotAt = fileName.lastIndexOf('.');
-            if (dotAt == -1) {
-                throw new BaringoApiException("Could not infer mime type"
-                        + " from file name; no extension");
-            } // if
-            String ext = fileName.substring(dotAt + 1).toLowerCase();
-            mimeType = extensionToMimeType.get(ext);
-            if (mimeType == null) {
-                throw new BaringoApiException("Could not infer mime type"
-                        + " from extension '" + ext + "'");
-            } // if
-        } // if
+    /**
+     * Upload an image file to Imgur, streaming it from disk.  If no
+     * mime type is given it's inferred from the file's extension, or
+     * failing that from its first few bytes.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b> or <b>AUTHENTICATED USER</b>
+     * @param path the file to upload
+     * @param mimeType mime type like image/png, or null to work it out
+     * @param albumId the name of the album, the album's deleteHash if it's anonymous, or null if none
+     * @param title title of image or null if none
+     * @param description description of image or null if none
+     * @param listener told how the upload is going, or null
+     * @return The new Image object.  If this is anonymous, <i>hang on to the delete hash</i> or you won't be able to manipulate it in the future!
+     * @throws IOException Something was wrong with the file or streaming didn't work
+     * @throws BaringoApiException couldn't work out the mime type, or Imgur said no
+     */
+    public Image uploadImage(
+            Path path,
+            String mimeType,
+            String albumId,
+            String title,
+            String description,
+            UploadProgressListener listener) throws IOException, BaringoApiException {
 
-        // strip the directory hierarchy off the filename.
-        Path path = Paths.get(fileName);
-        fileName = path.getFileName().toString();
+        return executeUpload(albumId,
+                localImageCall(mimeType, path, albumId, title, description, listener));
+    }
 
-        RequestBody body = RequestBody.create(MediaType.parse(mimeType), file);
-        Call<ImgurResponseWrapper<Image>> call =
-                client.getApi().uploadLocalImage(
-                        albumId,
-                        "file",
-                        title,
-                        description,
-                        fileName,
-                        body);
+    /**
+     * Upload an image to Imgur straight from a stream, without
+     * spilling it to disk or reading it all into memory first.  The
+     * stream is read to the end (or for length bytes) but not closed.
+     * Since a stream can only be read once, the upload can't be
+     * retried automatically.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b> or <b>AUTHENTICATED USER</b>
+     * @param in the image data
+     * @param length how many bytes to send, or -1 if unknown
+     * @param mimeType mime type like image/png, or null to work it out from fileName or the data itself
+     * @param fileName name to give the upload, or null
+     * @param albumId the name of the album, the album's deleteHash if it's anonymous, or null if none
+     * @param title title of image or null if none
+     * @param description description of image or null if none
+     * @param listener told how the upload is going, or null
+     * @return The new Image object.  If this is anonymous, <i>hang on to the delete hash</i> or you won't be able to manipulate it in the future!
+     * @throws IOException the stream couldn't be read
+     * @throws BaringoApiException couldn't work out the mime type, or Imgur said no
+     */
+    public Image uploadImage(
+            InputStream in,
+            long length,
+            String mimeType,
+            String fileName,
+            String albumId,
+            String title,
+            String description,
+            UploadProgressListener listener) throws IOException, BaringoApiException {
+
+        return executeUpload(albumId,
+                streamImageCall(in, length, mimeType, fileName, albumId, title, description, listener));
+    }
 
+    /**
+     * Upload an image to Imgur from memory.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b> or <b>AUTHENTICATED USER</b>
+     * @param data the image data
+     * @param mimeType mime type like image/png, or null to work it out from fileName or the data itself
+     * @param fileName name to give the upload, or null
+     * @param albumId the name of the album, the album's deleteHash if it's anonymous, or null if none
+     * @param title title of image or null if none
+     * @param description description of image or null if none
+     * @param listener told how the upload is going, or null
+     * @return The new Image object.  If this is anonymous, <i>hang on to the delete hash</i> or you won't be able to manipulate it in the future!
+     * @throws BaringoApiException couldn't work out the mime type, or the upload failed
+     */
+    public Image uploadImage(
+            byte[] data,
+            String mimeType,
+            String fileName,
+            String albumId,
+            String title,
+            String description,
+            UploadProgressListener listener) throws BaringoApiException {
+
+        return executeUpload(albumId,
+                bytesImageCall(data, mimeType, fileName, albumId, title, description, listener));
+    }
+
+    /**
+     * Upload an image to Imgur from a ByteBuffer, heap or direct.
+     * The bytes between its position and limit are sent; neither is
+     * changed, and a direct buffer's contents aren't copied to the heap
+     * all at once.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b> or <b>AUTHENTICATED USER</b>
+     * @param data the image data
+     * @param mimeType mime type like image/png, or null to work it out from fileName or the data itself
+     * @param fileName name to give the upload, or null
+     * @param albumId the name of the album, the album's deleteHash if it's anonymous, or null if none
+     * @param title title of image or null if none
+     * @param description description of image or null if none
+     * @param listener told how the upload is going, or null
+     * @return The new Image object.  If this is anonymous, <i>hang on to the delete hash</i> or you won't be able to manipulate it in the future!
+     * @throws BaringoApiException couldn't work out the mime type, or the upload failed
+     */
+    public Image uploadImage(
+            ByteBuffer data,
+            String mimeType,
+            String fileName,
+            String albumId,
+            String title,
+            String description,
+            UploadProgressListener listener) throws BaringoApiException {
+
+        return executeUpload(albumId,
+                bufferImageCall(data, mimeType, fileName, albumId, title, description, listener));
+    }
+
+    private Image executeUpload(
+            String albumId,
+            Call<ImgurResponseWrapper<Image>> call) throws BaringoApiException {
         try {
             Response<ImgurResponseWrapper<Image>> res = call.execute();
             ImgurResponseWrapper<Image> out = res.body();
@@ -180,10 +307,157 @@ public class ImageService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            client.albumService().forget(albumId);
         } // try-catch
+    } // executeUpload
 
-    }
+    private Call<ImgurResponseWrapper<Image>> localImageCall(
+            String mimeType,
+            Path path,
+            String albumId,
+            String title,
+            String description,
+            UploadProgressListener listener) throws IOException, BaringoApiException {
+
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("File not found: " + path);
+        } // if
+        if (!Files.isReadable(path)) {
+            throw new IOException("Cannot access file " + path);
+        } // if
+
+        // strip the directory hierarchy off the filename.
+        String fileName = path.getFileName().toString();
+
+        if (mimeType == null) {
+            mimeType = mimeTypeFromName(fileName);
+        } // if
+        if (mimeType == null) {
+            byte[] head = new byte[SNIFF_LENGTH];
+            int length;
+            try (InputStream in = Files.newInputStream(path)) {
+                length = in.readNBytes(head, 0, head.length);
+            } // try
+            mimeType = resolveMimeType(null, fileName, head, length);
+        } // if
+
+        return uploadCall(UploadBody.of(path, MediaType.parse(mimeType), listener),
+                fileName, albumId, title, description);
+    } // localImageCall
+
+    private Call<ImgurResponseWrapper<Image>> streamImageCall(
+            InputStream in,
+            long length,
+            String mimeType,
+            String fileName,
+            String albumId,
+            String title,
+            String description,
+            UploadProgressListener listener) throws IOException, BaringoApiException {
+
+        if (mimeType == null && mimeTypeFromName(fileName) == null) {
+            // peek at the first few bytes and put them back
+            if (!in.markSupported()) {
+                in = new BufferedInputStream(in);
+            } // if
+            byte[] head = new byte[SNIFF_LENGTH];
+            in.mark(head.length);
+            int headLength = in.readNBytes(head, 0, head.length);
+            in.reset();
+            mimeType = resolveMimeType(null, fileName, head, headLength);
+        } else {
+            mimeType = resolveMimeType(mimeType, fileName, null, 0);
+        } // if-else
+
+        return uploadCall(UploadBody.of(in, length, MediaType.parse(mimeType), listener),
+                fileName, albumId, title, description);
+    } // streamImageCall
+
+    private Call<ImgurResponseWrapper<Image>> bytesImageCall(
+            byte[] data,
+            String mimeType,
+            String fileName,
+            String albumId,
+            String title,
+            String description,
+            UploadProgressListener listener) throws BaringoApiException {
+
+        mimeType = resolveMimeType(mimeType, fileName, data, data.length);
+        return uploadCall(UploadBody.of(data, MediaType.parse(mimeType), listener),
+                fileName, albumId, title, description);
+    } // bytesImageCall
+
+    private Call<ImgurResponseWrapper<Image>> bufferImageCall(
+            ByteBuffer data,
+            String mimeType,
+            String fileName,
+            String albumId,
+            String title,
+            String description,
+            UploadProgressListener listener) throws BaringoApiException {
+
+        byte[] head = new byte[Math.min(SNIFF_LENGTH, data.remaining())];
+        data.duplicate().get(head);
+        mimeType = resolveMimeType(mimeType, fileName, head, head.length);
+        return uploadCall(UploadBody.of(data, MediaType.parse(mimeType), listener),
+                fileName, albumId, title, description);
+    } // bufferImageCall
+
+    private Call<ImgurResponseWrapper<Image>> uploadCall(
+            RequestBody body,
+            String fileName,
+            String albumId,
+            String title,
+            String description) {
+
+        client.albumService().forget(albumId);
+
+        return client.getApi().uploadLocalImage(
+                albumId,
+                "file",
+                title,
+                description,
+                fileName,
+                body);
+    } // uploadCall
+
+    /**
+     * Works out the mime type for an upload: the one given if any,
+     * else from the file name's extension, else from the content's
+     * magic bytes.
+     */
+    private String resolveMimeType(
+            String mimeType,
+            String fileName,
+            byte[] head,
+            int headLength) throws BaringoApiException {
+
+        if (mimeType != null) {
+            return mimeType;
+        } // if
+        mimeType = mimeTypeFromName(fileName);
+        if (mimeType == null && head != null) {
+            mimeType = Utils.sniffMimeType(head, headLength);
+        } // if
+        if (mimeType == null) {
+            throw new BaringoApiException("Could not infer mime type"
+                    + " from file name or content");
+        } // if
+        return mimeType;
+    } // resolveMimeType
+
+    private String mimeTypeFromName(String fileName) {
+        if (fileName == null) {
+            return null;
+        } // if
+        int dotAt = fileName.lastIndexOf('.');
+        if (dotAt == -1) {
+            return null;
+        } // if
+        return extensionToMimeType.get(fileName.substring(dotAt + 1).toLowerCase());
+    } // mimeTypeFromName
 
     /**
      * Given an image id and an output stream, download the image
@@ -208,10 +482,27 @@ public class ImageService {
                 .url(imageLink)
                 .build();
 
-        OkHttpClient client = new OkHttpClient();
-        okhttp3.Response resp = client
+        try (okhttp3.Response resp = client.getHttpClient()
                 .newCall(request)
-                .execute();
+                .execute()) {
+            return writeResponse(request, resp, outStream);
+        } // try
+    }
+
+    private long writeResponse(
+            Request request,
+            okhttp3.Response resp,
+            OutputStream outStream) throws IOException, BaringoApiException {
+
+        checkDownloadResponse(request, resp);
+
+        // Okio hands its segments straight to the stream; no copy loop
+        return resp.body().source().readAll(Okio.sink(outStream));
+    }
+
+    private void checkDownloadResponse(
+            Request request,
+            okhttp3.Response resp) throws BaringoApiException {
 
         if (resp.code() != 200 || !resp.isSuccessful()) {
             throw new BaringoApiException(request.url()
@@ -220,25 +511,14 @@ public class ImageService {
         if (resp.body() == null) {
             throw new BaringoApiException("No response body found");
         } // if
-
-        InputStream is = resp.body().byteStream();
-
-        BufferedInputStream input = new BufferedInputStream(is);
-        byte[] data = new byte[8192]; // because powers of two are magic
-
-        long total = 0;
-        int count = 0;
-        while ((count = input.read(data)) != -1) {
-            total += count;
-            outStream.write(data, 0, count);
-        } // while
-
-        return total;
     }
 
     /**
      * Given an image id and a file path to store it to, download
      * the image.  File must be writeable and the path must exist.
+     * The image is written to a temporary file in the same directory
+     * and renamed into place once complete, so the file never holds
+     * a partial image.
      * <p>
      * NOTE: This is synchronous.
      * <p>
@@ -253,9 +533,99 @@ public class ImageService {
             String imageLink,
             String fileName) throws IOException, BaringoApiException {
 
-        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(fileName))) {
-            return downloadImage(imageLink, output);
-        }
+        return downloadToFile(imageLink, new File(fileName), 0);
+    }
+
+    /**
+     * Downloads an image to a file the same way as
+     * {@link #downloadImage(String, String)}, and also checks that
+     * the number of bytes received matches {@link Image#getSize()}.
+     * <p>
+     * NOTE: This is synchronous.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param image the image to download
+     * @param file the file to write to
+     * @return the number of bytes written
+     * @throws IOException myriad, including a size mismatch
+     * @throws BaringoApiException Imgur didn't like something
+     */
+    public long downloadImage(
+            Image image,
+            File file) throws IOException, BaringoApiException {
+
+        return downloadToFile(image.getLink(), file, image.getSize());
+    }
+
+    private long downloadToFile(
+            String imageLink,
+            File file,
+            long expectedSize) throws IOException, BaringoApiException {
+
+        Request request = new Request
+                .Builder()
+                .url(imageLink)
+                .build();
+
+        try (okhttp3.Response resp = client.getHttpClient()
+                .newCall(request)
+                .execute()) {
+            return writeResponse(request, resp, file, expectedSize);
+        } // try
+    }
+
+    private long writeResponse(
+            Request request,
+            okhttp3.Response resp,
+            File file,
+            long expectedSize) throws IOException, BaringoApiException {
+
+        checkDownloadResponse(request, resp);
+
+        File dir = file.getAbsoluteFile().getParentFile();
+        // unlike File.createTempFile, happy with a name under 3 characters
+        Path temp = Files.createTempFile(dir.toPath(), file.getName() + ".", ".part");
+        try {
+            long total;
+            try (Sink sink = Okio.sink(temp)) {
+                // moves the response's buffered segments to the file
+                // without staging them in a byte array first
+                total = resp.body().source().readAll(sink);
+            } // try
+            if (expectedSize > 0 && total != expectedSize) {
+                throw new IOException(request.url() + ": expected "
+                        + expectedSize + " bytes, got " + total);
+            } // if
+            try {
+                Files.move(temp, file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } // try-catch
+            return total;
+        } finally {
+            Files.deleteIfExists(temp);
+        } // try-finally
+    }
+
+    /**
+     * Returns a new uploader for sending a batch of files, optionally
+     * into an album, while staying within the post credit limit.
+     *
+     * @return a BatchUploader with default settings
+     */
+    public BatchUploader batchUploader() {
+        return new BatchUploader(client);
+    }
+
+    /**
+     * Returns a new downloader for fetching many images into a
+     * directory concurrently, with resume and retry.
+     *
+     * @return a BulkDownloader with default settings
+     */
+    public BulkDownloader bulkDownloader() {
+        return new BulkDownloader(client);
     }
 
     /**
@@ -272,6 +642,7 @@ public class ImageService {
             String idOrDeleteHash,
             String title,
             String description) throws BaringoApiException {
+        forget(idOrDeleteHash);
 
         Call<ImgurResponseWrapper<Boolean>> call =
                 client.getApi().updateImageInfo(idOrDeleteHash, title, description);
@@ -283,7 +654,9 @@ public class ImageService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            forget(idOrDeleteHash);
         } // try-catch
 
     }
@@ -298,6 +671,7 @@ public class ImageService {
      */
     public boolean deleteImage(
             String idOrDeleteHash) throws BaringoApiException {
+        forget(idOrDeleteHash);
 
         Call<ImgurResponseWrapper<Boolean>> call =
                 client.getApi().deleteImage(idOrDeleteHash);
@@ -309,7 +683,9 @@ public class ImageService {
             client.throwOnWrapperError(res);
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            forget(idOrDeleteHash);
         } // try-catch
 
     }
@@ -337,6 +713,8 @@ public class ImageService {
             return image; // already done
         } // if
 
+        cache.invalidate(image.getId());
+
         Call<ImgurResponseWrapper<Image>> call =
                 client.getApi().toggleImageFavorite(image.getId());
 
@@ -347,7 +725,9 @@ public class ImageService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            cache.invalidate(image.getId());
         }
     }
 
@@ -374,6 +754,8 @@ public class ImageService {
             return image; // already done
         } // if
 
+        cache.invalidate(image.getId());
+
         Call<ImgurResponseWrapper<Image>> call =
                 client.getApi().toggleImageFavorite(image.getId());
 
@@ -384,8 +766,375 @@ public class ImageService {
 
             return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
+        } finally {
+            cache.invalidate(image.getId());
         }
     }
 
-} // class AccountService
+    // anonymous images are addressed by delete hash rather than id
+    private void forget(String idOrDeleteHash) {
+        cache.invalidate(idOrDeleteHash);
+        cache.invalidateIf(image -> idOrDeleteHash.equals(image.getDeleteHash()));
+    } // forget
+
+    /**
+     * Non-blocking versions of the ImageService calls.  Failures
+     * complete the future exceptionally with a BaringoApiException.
+     */
+    public class Async {
+
+        /**
+         * Asynchronous version of {@link ImageService#getImageInfo}.
+         *
+         * @param id the id of the image, for example "PgZtz0j"
+         * @return a future Image
+         */
+        public CompletableFuture<Image> getImageInfo(String id) {
+            Image cached = cache.get(id);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            } // if
+            return client.enqueue(client.getApi().getImageInfo(id))
+                    .thenApply(image -> {
+                        cache.put(id, image);
+                        return image;
+                    });
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#uploadUrlImage}.
+         *
+         * @param Url         the full URL of the image
+         * @param fileName    original of the file being uploaded (pick something)
+         * @param albumId     the name of the album, the album's deleteHash if it's anonymous, or null if none
+         * @param title       title of image or null if none
+         * @param description description of image or null if none
+         * @return a future for the new Image
+         */
+        public CompletableFuture<Image> uploadUrlImage(
+                String Url,
+                String fileName,
+                String albumId,
+                String title,
+                String description) {
+            client.albumService().forget(albumId);
+            RequestBody body = RequestBody.create(
+                    MediaType.parse("text/plain"), Url);
+
+            return client.enqueue(client.getApi().uploadUrlImage(
+                    albumId, "URL", title, description, body))
+                    .whenComplete((r, e) -> client.albumService().forget(albumId));
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#uploadLocalImage}.
+         * Problems with the local file fail the future rather than
+         * being thrown.
+         *
+         * @param mimeType    mime type like image/png, or null to infer it from the fileName
+         * @param fileName    name of the file being uploaded
+         * @param albumId     the name of the album, the album's deleteHash if it's anonymous, or null if none
+         * @param title       title of image or null if none
+         * @param description description of image or null if none
+         * @return a future for the new Image
+         */
+        public CompletableFuture<Image> uploadLocalImage(
+                String mimeType,
+                String fileName,
+                String albumId,
+                String title,
+                String description) {
+            try {
+                return client.enqueue(
+                        localImageCall(mimeType, Paths.get(fileName), albumId, title, description, null))
+                        .whenComplete((r, e) -> client.albumService().forget(albumId));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(new BaringoApiException(e.getMessage(), e));
+            } catch (BaringoApiException e) {
+                return CompletableFuture.failedFuture(e);
+            } // try-catch
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#uploadImage(Path, String, String, String, String, UploadProgressListener)}.
+         * The listener is called from an OkHttp dispatcher thread.
+         *
+         * @param path        the file to upload
+         * @param mimeType    mime type like image/png, or null to work it out
+         * @param albumId     the name of the album, the album's deleteHash if it's anonymous, or null if none
+         * @param title       title of image or null if none
+         * @param description description of image or null if none
+         * @param listener    told how the upload is going, or null
+         * @return a future for the new Image
+         */
+        public CompletableFuture<Image> uploadImage(
+                Path path,
+                String mimeType,
+                String albumId,
+                String title,
+                String description,
+                UploadProgressListener listener) {
+            try {
+                return client.enqueue(
+                        localImageCall(mimeType, path, albumId, title, description, listener))
+                        .whenComplete((r, e) -> client.albumService().forget(albumId));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(new BaringoApiException(e.getMessage(), e));
+            } catch (BaringoApiException e) {
+                return CompletableFuture.failedFuture(e);
+            } // try-catch
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#uploadImage(InputStream, long, String, String, String, String, String, UploadProgressListener)}.
+         * The stream is read from an OkHttp dispatcher thread, so leave
+         * it alone until the future completes.
+         *
+         * @param in          the image data
+         * @param length      how many bytes to send, or -1 if unknown
+         * @param mimeType    mime type like image/png, or null to work it out
+         * @param fileName    name to give the upload, or null
+         * @param albumId     the name of the album, the album's deleteHash if it's anonymous, or null if none
+         * @param title       title of image or null if none
+         * @param description description of image or null if none
+         * @param listener    told how the upload is going, or null
+         * @return a future for the new Image
+         */
+        public CompletableFuture<Image> uploadImage(
+                InputStream in,
+                long length,
+                String mimeType,
+                String fileName,
+                String albumId,
+                String title,
+                String description,
+                UploadProgressListener listener) {
+            try {
+                return client.enqueue(
+                        streamImageCall(in, length, mimeType, fileName, albumId, title, description, listener))
+                        .whenComplete((r, e) -> client.albumService().forget(albumId));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(new BaringoApiException(e.getMessage(), e));
+            } catch (BaringoApiException e) {
+                return CompletableFuture.failedFuture(e);
+            } // try-catch
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#uploadImage(byte[], String, String, String, String, String, UploadProgressListener)}.
+         *
+         * @param data        the image data
+         * @param mimeType    mime type like image/png, or null to work it out
+         * @param fileName    name to give the upload, or null
+         * @param albumId     the name of the album, the album's deleteHash if it's anonymous, or null if none
+         * @param title       title of image or null if none
+         * @param description description of image or null if none
+         * @param listener    told how the upload is going, or null
+         * @return a future for the new Image
+         */
+        public CompletableFuture<Image> uploadImage(
+                byte[] data,
+                String mimeType,
+                String fileName,
+                String albumId,
+                String title,
+                String description,
+                UploadProgressListener listener) {
+            try {
+                return client.enqueue(
+                        bytesImageCall(data, mimeType, fileName, albumId, title, description, listener))
+                        .whenComplete((r, e) -> client.albumService().forget(albumId));
+            } catch (BaringoApiException e) {
+                return CompletableFuture.failedFuture(e);
+            } // try-catch
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#uploadImage(ByteBuffer, String, String, String, String, String, UploadProgressListener)}.
+         * Leave the buffer's contents alone until the future completes.
+         *
+         * @param data        the image data
+         * @param mimeType    mime type like image/png, or null to work it out
+         * @param fileName    name to give the upload, or null
+         * @param albumId     the name of the album, the album's deleteHash if it's anonymous, or null if none
+         * @param title       title of image or null if none
+         * @param description description of image or null if none
+         * @param listener    told how the upload is going, or null
+         * @return a future for the new Image
+         */
+        public CompletableFuture<Image> uploadImage(
+                ByteBuffer data,
+                String mimeType,
+                String fileName,
+                String albumId,
+                String title,
+                String description,
+                UploadProgressListener listener) {
+            try {
+                return client.enqueue(
+                        bufferImageCall(data, mimeType, fileName, albumId, title, description, listener))
+                        .whenComplete((r, e) -> client.albumService().forget(albumId));
+            } catch (BaringoApiException e) {
+                return CompletableFuture.failedFuture(e);
+            } // try-catch
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#downloadImage(String, OutputStream)}.
+         * The stream is written from an OkHttp dispatcher thread.
+         * It is the caller's responsibility to close it.
+         *
+         * @param imageLink the image link to download (could be a thumb too)
+         * @param outStream an output stream to write the data to
+         * @return a future for the number of bytes written
+         */
+        public CompletableFuture<Long> downloadImage(
+                String imageLink,
+                OutputStream outStream) {
+            CompletableFuture<Long> future = new CompletableFuture<>();
+
+            Request request = new Request
+                    .Builder()
+                    .url(imageLink)
+                    .build();
+
+            okhttp3.Call call = client.getHttpClient().newCall(request);
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(@NotNull okhttp3.Call c, @NotNull IOException e) {
+                    future.completeExceptionally(new BaringoApiException(e.getMessage(), e));
+                }
+
+                @Override
+                public void onResponse(@NotNull okhttp3.Call c, @NotNull okhttp3.Response resp) {
+                    try (resp) {
+                        future.complete(writeResponse(request, resp, outStream));
+                    } catch (IOException e) {
+                        future.completeExceptionally(new BaringoApiException(e.getMessage(), e));
+                    } catch (BaringoApiException e) {
+                        future.completeExceptionally(e);
+                    } // try-catch
+                }
+            });
+
+            future.whenComplete((r, e) -> {
+                if (future.isCancelled()) {
+                    call.cancel();
+                } // if
+            });
+            return future;
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#downloadImage(Image, File)}.
+         * The file is written from an OkHttp dispatcher thread.
+         *
+         * @param image the image to download
+         * @param file  the file to write to
+         * @return a future for the number of bytes written
+         */
+        public CompletableFuture<Long> downloadImage(
+                Image image,
+                File file) {
+            CompletableFuture<Long> future = new CompletableFuture<>();
+
+            Request request = new Request
+                    .Builder()
+                    .url(image.getLink())
+                    .build();
+
+            okhttp3.Call call = client.getHttpClient().newCall(request);
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(@NotNull okhttp3.Call c, @NotNull IOException e) {
+                    future.completeExceptionally(new BaringoApiException(e.getMessage(), e));
+                }
+
+                @Override
+                public void onResponse(@NotNull okhttp3.Call c, @NotNull okhttp3.Response resp) {
+                    try (resp) {
+                        future.complete(writeResponse(request, resp, file, image.getSize()));
+                    } catch (IOException e) {
+                        future.completeExceptionally(new BaringoApiException(e.getMessage(), e));
+                    } catch (BaringoApiException e) {
+                        future.completeExceptionally(e);
+                    } // try-catch
+                }
+            });
+
+            future.whenComplete((r, e) -> {
+                if (future.isCancelled()) {
+                    call.cancel();
+                } // if
+            });
+            return future;
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#updateImage}.
+         *
+         * @param idOrDeleteHash the delete hash for anonymous images, else the imageId
+         * @param title          title of the image or null if none
+         * @param description    description of the image or null if none
+         * @return a future that is true if it worked
+         */
+        public CompletableFuture<Boolean> updateImage(
+                String idOrDeleteHash,
+                String title,
+                String description) {
+            forget(idOrDeleteHash);
+            return client.enqueue(client.getApi().updateImageInfo(idOrDeleteHash, title, description))
+                    .whenComplete((r, e) -> forget(idOrDeleteHash));
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#deleteImage}.
+         *
+         * @param idOrDeleteHash the delete hash for anonymous images, else the imageId
+         * @return a future that is true if it worked
+         */
+        public CompletableFuture<Boolean> deleteImage(String idOrDeleteHash) {
+            forget(idOrDeleteHash);
+            return client.enqueue(client.getApi().deleteImage(idOrDeleteHash))
+                    .whenComplete((r, e) -> forget(idOrDeleteHash));
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#favoriteImage}.
+         *
+         * @param image the image to favorite
+         * @return a future for the updated image object
+         */
+        public CompletableFuture<Image> favoriteImage(Image image) {
+            if (!client.authService().isUserAuthenticated()) {
+                return CompletableFuture.failedFuture(new BaringoAuthException("No user logged in", 401));
+            } // if
+            if (image.isFavorite()) {
+                return CompletableFuture.completedFuture(image); // already done
+            } // if
+            cache.invalidate(image.getId());
+            return client.enqueue(client.getApi().toggleImageFavorite(image.getId()))
+                    .whenComplete((r, e) -> cache.invalidate(image.getId()));
+        }
+
+        /**
+         * Asynchronous version of {@link ImageService#unfavoriteImage}.
+         *
+         * @param image the image to unfavorite
+         * @return a future for the updated image object
+         */
+        public CompletableFuture<Image> unfavoriteImage(Image image) {
+            if (!client.authService().isUserAuthenticated()) {
+                return CompletableFuture.failedFuture(new BaringoAuthException("No user logged in", 401));
+            } // if
+            if (!image.isFavorite()) {
+                return CompletableFuture.completedFuture(image); // already done
+            } // if
+            cache.invalidate(image.getId());
+            return client.enqueue(client.getApi().toggleImageFavorite(image.getId()))
+                    .whenComplete((r, e) -> cache.invalidate(image.getId()));
+        }
+    } // class Async
+
+} // class ImageService
@@ -0,0 +1,138 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MetricsCollector} that keeps running totals in memory,
+ * per endpoint, to be read back with {@link #snapshot()}.  Recording
+ * a call is a handful of lock-free additions.
+ * <p>
+ * Latencies are counted into fixed buckets from 1ms to 60s, so
+ * memory use doesn't grow with the number of calls, and percentiles
+ * come out as the upper edge of the bucket they land in.
+ * <pre>
+ * InMemoryMetrics metrics = new InMemoryMetrics();
+ * BaringoClient client = new BaringoClient.Builder()
+ *     ...
+ *     .metrics(metrics)
+ *     .build();
+ * ...
+ * System.out.println(metrics.snapshot());
+ * </pre>
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class InMemoryMetrics implements MetricsCollector {
+
+    /**
+     * The upper edges of the latency buckets, in milliseconds.
+     * Anything slower lands in one more bucket on the end.
+     */
+    public static final long[] LATENCY_BUCKETS_MILLIS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500,
+            1000, 2000, 5000, 10000, 30000, 60000
+    };
+
+    private final ConcurrentHashMap<String, Totals> endpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordCall(CallRecord call) {
+        Totals totals = totals(call.getEndpoint());
+        totals.calls.increment();
+        if (call.isFailure()) {
+            totals.failures.increment();
+        } // if
+        if (call.isFromCache()) {
+            totals.cacheHits.increment();
+        } // if
+        totals.statuses.computeIfAbsent(call.getStatus(), s -> new LongAdder()).increment();
+        totals.requestBytes.add(call.getRequestBytes());
+        totals.responseBytes.add(call.getResponseBytes());
+        totals.userCredits.add(call.getUserCreditsUsed());
+        totals.applicationCredits.add(call.getApplicationCreditsUsed());
+
+        long nanos = call.getLatencyNanos();
+        totals.latencyNanos.add(nanos);
+        totals.maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        totals.buckets.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMillis(nanos)));
+    } // recordCall
+
+    @Override
+    public void recordRetry(String endpoint) {
+        totals(endpoint).retries.increment();
+    } // recordRetry
+
+    /**
+     * Copies out the totals so far.  Calls recorded while the copy is
+     * being made may be partly in it.
+     * @return the snapshot
+     */
+    public MetricsSnapshot snapshot() {
+        TreeMap<String, MetricsSnapshot.EndpointStats> stats = new TreeMap<>();
+        for (Map.Entry<String, Totals> entry : endpoints.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().toStats(entry.getKey()));
+        } // for
+        return new MetricsSnapshot(stats);
+    } // snapshot
+
+    /**
+     * Forgets everything recorded so far
+     */
+    public void reset() {
+        endpoints.clear();
+    } // reset
+
+    private Totals totals(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, e -> new Totals());
+    } // totals
+
+    private static int bucketOf(long millis) {
+        for (int i = 0; i < LATENCY_BUCKETS_MILLIS.length; i++) {
+            if (millis <= LATENCY_BUCKETS_MILLIS[i]) {
+                return i;
+            } // if
+        } // for
+        return LATENCY_BUCKETS_MILLIS.length;
+    } // bucketOf
+
+    private static class Totals {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final LongAdder userCredits = new LongAdder();
+        private final LongAdder applicationCredits = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(LATENCY_BUCKETS_MILLIS.length + 1);
+        private final ConcurrentHashMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        MetricsSnapshot.EndpointStats toStats(String endpoint) {
+            TreeMap<Integer, Long> statusCounts = new TreeMap<>();
+            for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+                statusCounts.put(entry.getKey(), entry.getValue().sum());
+            } // for
+            long[] bucketCounts = new long[buckets.length()];
+            for (int i = 0; i < bucketCounts.length; i++) {
+                bucketCounts[i] = buckets.get(i);
+            } // for
+            return new MetricsSnapshot.EndpointStats(endpoint, calls.sum(), failures.sum(),
+                    retries.sum(), cacheHits.sum(), statusCounts,
+                    requestBytes.sum(), responseBytes.sum(),
+                    userCredits.sum(), applicationCredits.sum(),
+                    latencyNanos.sum(), maxLatencyNanos.get(), bucketCounts);
+        } // toStats
+    } // class Totals
+
+} // class InMemoryMetrics
@@ -12,6 +12,7 @@ import retrofit2.Response;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -23,6 +24,7 @@ import java.util.List;
 public class MemeService {
 
     private BaringoClient client = null;
+    private final Async async = new Async();
 
 
     // ================================================
@@ -30,6 +32,16 @@ public class MemeService {
         this.client = imgurClient;
     } // constructor
 
+    /**
+     * Returns the non-blocking flavor of this service.  Every method
+     * mirrors its blocking counterpart but returns a CompletableFuture.
+     *
+     * @return the async meme service
+     */
+    public Async async() {
+        return async;
+    }
+
     /**
      * Returns a list of the default meme images.
      *
@@ -48,8 +60,24 @@ public class MemeService {
             return out.getData();
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
+    /**
+     * Non-blocking versions of the MemeService calls.  Failures
+     * complete the future exceptionally with a BaringoApiException.
+     */
+    public class Async {
+
+        /**
+         * Asynchronous version of {@link MemeService#listDefaultMemes}.
+         *
+         * @return a future image list
+         */
+        public CompletableFuture<List<Image>> listDefaultMemes() {
+            return client.enqueue(client.getApi().listDefaultMemes());
+        }
+    } // class Async
+
 }
@@ -0,0 +1,39 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+/**
+ * Receives a record of every API call a client makes, for anyone
+ * who wants to see which endpoints are slow, failing or eating the
+ * quota.  Install one with {@link BaringoClient.Builder#metrics};
+ * {@link InMemoryMetrics} is a ready-made one with no dependencies.
+ * Wire up your own to feed an existing metrics system.
+ * <p>
+ * Calls are keyed by endpoint, the name of the Retrofit interface
+ * method that made them (e.g. "getImageInfo").  Methods are called
+ * from OkHttp's threads, so they must be thread-safe and quick.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public interface MetricsCollector {
+
+    /**
+     * Called once per API call, when it's finished: once the response
+     * body has been read and closed, or when the call failed outright.
+     * A call the client retried on its own counts once.
+     *
+     * @param call what happened
+     */
+    void recordCall(CallRecord call);
+
+    /**
+     * Called whenever the client re-sends a request on its own, for
+     * instance after refreshing an expired token.
+     *
+     * @param endpoint the endpoint being retried
+     */
+    default void recordRetry(String endpoint) {
+    }
+
+}
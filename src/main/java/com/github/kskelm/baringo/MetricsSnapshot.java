@@ -0,0 +1,286 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.util.Utils;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The totals an {@link InMemoryMetrics} had at one moment, per
+ * endpoint.  It doesn't change after it's taken.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class MetricsSnapshot {
+
+    private final Date takenAt = new Date();
+    private final SortedMap<String, EndpointStats> endpoints;
+
+    protected MetricsSnapshot(SortedMap<String, EndpointStats> endpoints) {
+        this.endpoints = Collections.unmodifiableSortedMap(endpoints);
+    } // constructor
+
+    /**
+     * Returns when the snapshot was taken
+     * @return the date
+     */
+    public Date getTakenAt() {
+        return takenAt;
+    }
+
+    /**
+     * Returns the stats for every endpoint called so far, by name
+     * @return the stats
+     */
+    public SortedMap<String, EndpointStats> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Returns the stats for one endpoint
+     * @param endpoint the endpoint name, e.g. "getImageInfo"
+     * @return the stats, or null if it hasn't been called
+     */
+    public EndpointStats get(String endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    /**
+     * Returns the total calls across all endpoints
+     * @return the count
+     */
+    public long getTotalCalls() {
+        long total = 0;
+        for (EndpointStats stats : endpoints.values()) {
+            total += stats.getCalls();
+        } // for
+        return total;
+    } // getTotalCalls
+
+    @Override
+    public String toString() {
+        LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+        fields.put("takenAt", takenAt);
+        fields.putAll(endpoints);
+        return Utils.toString(fields, MetricsSnapshot.class.getSimpleName());
+    } // toString
+
+    /**
+     * The totals for one endpoint
+     */
+    public static class EndpointStats {
+
+        private final String endpoint;
+        private final long calls;
+        private final long failures;
+        private final long retries;
+        private final long cacheHits;
+        private final Map<Integer, Long> statusCounts;
+        private final long requestBytes;
+        private final long responseBytes;
+        private final long userCreditsUsed;
+        private final long applicationCreditsUsed;
+        private final long totalLatencyNanos;
+        private final long maxLatencyNanos;
+        private final long[] latencyBuckets;
+
+        protected EndpointStats(String endpoint, long calls, long failures, long retries,
+                                long cacheHits, Map<Integer, Long> statusCounts,
+                                long requestBytes, long responseBytes,
+                                long userCreditsUsed, long applicationCreditsUsed,
+                                long totalLatencyNanos, long maxLatencyNanos,
+                                long[] latencyBuckets) {
+            this.endpoint = endpoint;
+            this.calls = calls;
+            this.failures = failures;
+            this.retries = retries;
+            this.cacheHits = cacheHits;
+            this.statusCounts = Collections.unmodifiableMap(statusCounts);
+            this.requestBytes = requestBytes;
+            this.responseBytes = responseBytes;
+            this.userCreditsUsed = userCreditsUsed;
+            this.applicationCreditsUsed = applicationCreditsUsed;
+            this.totalLatencyNanos = totalLatencyNanos;
+            this.maxLatencyNanos = maxLatencyNanos;
+            this.latencyBuckets = latencyBuckets;
+        } // constructor
+
+        /**
+         * Returns the endpoint name
+         * @return the name
+         */
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        /**
+         * Returns the number of calls finished
+         * @return the count
+         */
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * Returns the number of calls that got no response or a 4xx/5xx
+         * @return the count
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Returns the fraction of calls that failed
+         * @return the error rate, from 0 to 1
+         */
+        public double getErrorRate() {
+            return calls == 0 ? 0 : (double) failures / calls;
+        }
+
+        /**
+         * Returns the number of times the client re-sent a request
+         * @return the count
+         */
+        public long getRetries() {
+            return retries;
+        }
+
+        /**
+         * Returns the number of calls the response cache answered
+         * @return the count
+         */
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        /**
+         * Returns the number of calls per HTTP status, 0 meaning no
+         * response came back
+         * @return the counts, by status
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            return statusCounts;
+        }
+
+        /**
+         * Returns the total request body bytes sent
+         * @return the byte count
+         */
+        public long getRequestBytes() {
+            return requestBytes;
+        }
+
+        /**
+         * Returns the total response body bytes read
+         * @return the byte count
+         */
+        public long getResponseBytes() {
+            return responseBytes;
+        }
+
+        /**
+         * Returns the user credits these calls used up
+         * @return the credits
+         */
+        public long getUserCreditsUsed() {
+            return userCreditsUsed;
+        }
+
+        /**
+         * Returns the application credits these calls used up
+         * @return the credits
+         */
+        public long getApplicationCreditsUsed() {
+            return applicationCreditsUsed;
+        }
+
+        /**
+         * Returns the mean latency
+         * @return the mean in milliseconds
+         */
+        public double getMeanLatencyMillis() {
+            return calls == 0 ? 0 : totalLatencyNanos / 1e6 / calls;
+        }
+
+        /**
+         * Returns the slowest latency seen
+         * @return the max in milliseconds
+         */
+        public long getMaxLatencyMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos);
+        }
+
+        /**
+         * Returns the latency the given fraction of calls came in
+         * under, to the resolution of the histogram buckets.  Calls
+         * beyond the last bucket report the max seen.
+         *
+         * @param percentile the fraction, e.g. 0.99 for p99
+         * @return the latency in milliseconds, or 0 if no calls
+         */
+        public long getLatencyPercentile(double percentile) {
+            long total = 0;
+            for (long count : latencyBuckets) {
+                total += count;
+            } // for
+            if (total == 0) {
+                return 0;
+            } // if
+            long rank = Math.max(1, (long) Math.ceil(Math.min(1, percentile) * total));
+            long seen = 0;
+            for (int i = 0; i < InMemoryMetrics.LATENCY_BUCKETS_MILLIS.length; i++) {
+                seen += latencyBuckets[i];
+                if (seen >= rank) {
+                    return Math.min(InMemoryMetrics.LATENCY_BUCKETS_MILLIS[i], getMaxLatencyMillis());
+                } // if
+            } // for
+            return getMaxLatencyMillis();
+        } // getLatencyPercentile
+
+        /**
+         * Returns the latency histogram: the number of calls per
+         * bucket, keyed by the bucket's upper edge in milliseconds.
+         * The last bucket, for everything slower, is keyed by
+         * Long.MAX_VALUE.
+         * @return the histogram, fastest bucket first
+         */
+        public Map<Long, Long> getLatencyHistogram() {
+            LinkedHashMap<Long, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < latencyBuckets.length; i++) {
+                long edge = i < InMemoryMetrics.LATENCY_BUCKETS_MILLIS.length
+                        ? InMemoryMetrics.LATENCY_BUCKETS_MILLIS[i]
+                        : Long.MAX_VALUE;
+                histogram.put(edge, latencyBuckets[i]);
+            } // for
+            return histogram;
+        } // getLatencyHistogram
+
+        @Override
+        public String toString() {
+            LinkedHashMap<String, Object> fields = new LinkedHashMap<>();
+            fields.put("calls", calls);
+            fields.put("errorRate", getErrorRate());
+            fields.put("retries", retries);
+            fields.put("cacheHits", cacheHits);
+            fields.put("statuses", statusCounts);
+            fields.put("p50", getLatencyPercentile(0.50));
+            fields.put("p95", getLatencyPercentile(0.95));
+            fields.put("p99", getLatencyPercentile(0.99));
+            fields.put("maxMillis", getMaxLatencyMillis());
+            fields.put("requestBytes", requestBytes);
+            fields.put("responseBytes", responseBytes);
+            fields.put("userCreditsUsed", userCreditsUsed);
+            fields.put("applicationCreditsUsed", applicationCreditsUsed);
+            return Utils.toString(fields, endpoint);
+        } // toString
+
+    } // class EndpointStats
+
+} // class MetricsSnapshot
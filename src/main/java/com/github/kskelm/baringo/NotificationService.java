@@ -13,7 +13,9 @@ import retrofit2.Call;
 import retrofit2.Response;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -24,6 +26,7 @@ import java.util.List;
 public class NotificationService {
 
     private BaringoClient client = null;
+    private final Async async = new Async();
 
 
     // ================================================
@@ -31,6 +34,45 @@ public class NotificationService {
         this.client = imgurClient;
     } // constructor
 
+    /**
+     * Returns the non-blocking flavor of this service.  Every method
+     * mirrors its blocking counterpart but returns a CompletableFuture.
+     *
+     * @return the async notification service
+     */
+    public Async async() {
+        return async;
+    }
+
+    /**
+     * Returns both the reply and the message notifications from a
+     * single request, for when both are wanted.
+     * <p>
+     * <b>ACCESS: AUTHENTICATED USER</b>
+     * @param onlyNew true if the request is for only the unviewed notifications
+     * @return the replies and messages
+     * @throws BaringoApiException something failed
+     */
+    public NotificationList listNotifications(
+            boolean onlyNew) throws BaringoApiException {
+        String userName = client.getAuthenticatedUserName();
+        if (userName == null) {
+            throw new BaringoAuthException("No user logged in", 401);
+        } // if
+
+        Call<ImgurResponseWrapper<NotificationList>> call =
+                client.getApi().listNotifications(onlyNew);
+        try {
+            Response<ImgurResponseWrapper<NotificationList>> res = call.execute();
+            ImgurResponseWrapper<NotificationList> out = res.body();
+            client.throwOnWrapperError(res);
+            return out.getData();
+
+        } catch (IOException e) {
+            throw new BaringoApiException(e.getMessage(), e);
+        }
+    } // listNotifications
+
     /**
      * Specifically, returns only the notifications that someone
      * has replied to the user in comments or somewhere.
@@ -56,7 +98,7 @@ public class NotificationService {
             return out.getData().getReplyNotifications();
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listReplyNotifications
 
@@ -84,7 +126,7 @@ public class NotificationService {
             return out.getData().getMessageNotifications();
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     } // listMessageNotifications
 
@@ -111,7 +153,7 @@ public class NotificationService {
             return out.getData();
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
@@ -138,8 +180,153 @@ public class NotificationService {
             return out.getData();
 
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Marks several notifications as viewed in one request
+     * <p>
+     * <b>ACCESS: AUTHENTICATED USER</b>
+     * @param ids the ids of the notifications to mark viewed
+     * @return true if successful
+     * @throws BaringoApiException something failed
+     */
+    public boolean markNotificationsViewed(Collection<Long> ids) throws BaringoApiException {
+        String userName = client.getAuthenticatedUserName();
+        if (userName == null) {
+            throw new BaringoAuthException("No user logged in", 401);
+        } // if
+        if (ids.isEmpty()) {
+            return true;
+        } // if
+
+        Call<ImgurResponseWrapper<Boolean>> call =
+                client.getApi().markNotificationsViewed(joinIds(ids));
+        try {
+            Response<ImgurResponseWrapper<Boolean>> res = call.execute();
+            ImgurResponseWrapper<Boolean> out = res.body();
+            client.throwOnWrapperError(res);
+            return out.getData();
+
+        } catch (IOException e) {
+            throw new BaringoApiException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a new watcher that polls for notifications in the
+     * background and tells listeners about new ones.
+     *
+     * @return a NotificationWatcher with default settings, not yet started
+     */
+    public NotificationWatcher watcher() {
+        return new NotificationWatcher(client);
+    }
+
+    private static String joinIds(Collection<Long> ids) {
+        StringBuilder buf = new StringBuilder();
+        for (Long id : ids) {
+            if (buf.length() > 0) {
+                buf.append(',');
+            } // if
+            buf.append(id);
+        } // for
+        return buf.toString();
+    } // joinIds
+
+    /**
+     * Non-blocking versions of the NotificationService calls.  Failures
+     * complete the future exceptionally with a BaringoApiException.
+     */
+    public class Async {
+
+        /**
+         * Asynchronous version of {@link NotificationService#listNotifications}.
+         *
+         * @param onlyNew true if the request is for only the unviewed notifications
+         * @return a future for the replies and messages
+         */
+        public CompletableFuture<NotificationList> listNotifications(boolean onlyNew) {
+            if (client.getAuthenticatedUserName() == null) {
+                return notLoggedIn();
+            } // if
+            return client.enqueue(client.getApi().listNotifications(onlyNew));
+        }
+
+        /**
+         * Asynchronous version of {@link NotificationService#listReplyNotifications}.
+         *
+         * @param onlyNew true if the request is for only the unviewed notifications
+         * @return a future list of Notification objects
+         */
+        public CompletableFuture<List<Notification>> listReplyNotifications(boolean onlyNew) {
+            if (client.getAuthenticatedUserName() == null) {
+                return notLoggedIn();
+            } // if
+            return client.enqueue(client.getApi().listNotifications(onlyNew))
+                    .thenApply(NotificationList::getReplyNotifications);
+        }
+
+        /**
+         * Asynchronous version of {@link NotificationService#listMessageNotifications}.
+         *
+         * @param onlyNew whether to get non-viewed notifications
+         * @return a future list of notifications
+         */
+        public CompletableFuture<List<Notification>> listMessageNotifications(boolean onlyNew) {
+            if (client.getAuthenticatedUserName() == null) {
+                return notLoggedIn();
+            } // if
+            return client.enqueue(client.getApi().listNotifications(onlyNew))
+                    .thenApply(NotificationList::getMessageNotifications);
+        }
+
+        /**
+         * Asynchronous version of {@link NotificationService#getNotification}.
+         *
+         * @param id the id of the notification to return
+         * @return a future Notification
+         */
+        public CompletableFuture<Notification> getNotification(long id) {
+            if (client.getAuthenticatedUserName() == null) {
+                return notLoggedIn();
+            } // if
+            return client.enqueue(client.getApi().getNotification(id));
+        }
+
+        /**
+         * Asynchronous version of {@link NotificationService#markNotificiationViewed}.
+         *
+         * @param id the id of the notification to mark viewed
+         * @return a future that is true if successful
+         */
+        public CompletableFuture<Boolean> markNotificiationViewed(long id) {
+            if (client.getAuthenticatedUserName() == null) {
+                return notLoggedIn();
+            } // if
+            return client.enqueue(client.getApi().markNotificationViewed(id));
+        }
+
+        /**
+         * Asynchronous version of {@link NotificationService#markNotificationsViewed}.
+         *
+         * @param ids the ids of the notifications to mark viewed
+         * @return a future that is true if successful
+         */
+        public CompletableFuture<Boolean> markNotificationsViewed(Collection<Long> ids) {
+            if (client.getAuthenticatedUserName() == null) {
+                return notLoggedIn();
+            } // if
+            if (ids.isEmpty()) {
+                return CompletableFuture.completedFuture(true);
+            } // if
+            return client.enqueue(client.getApi().markNotificationsViewed(joinIds(ids)));
+        }
+
+        private <T> CompletableFuture<T> notLoggedIn() {
+            return CompletableFuture.failedFuture(new BaringoAuthException("No user logged in", 401));
+        }
+    } // class Async
+
 }
@@ -0,0 +1,383 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.model.Notification;
+import com.github.kskelm.baringo.model.NotificationList;
+import com.github.kskelm.baringo.util.BaringoApiException;
+import com.github.kskelm.baringo.util.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Polls for the logged-in user's unviewed notifications in the
+ * background and tells listeners about the ones they haven't heard
+ * about yet.
+ * <p>
+ * Each tick is a single request; replies and messages are split out
+ * of the one response.  Ids already delivered are remembered, so a
+ * notification is only delivered once even while it stays unviewed.
+ * The watcher polls quickly while notifications are arriving and
+ * backs off, doubling its interval up to a ceiling, while things are
+ * quiet or failing.
+ * <p>
+ * Notifications queued with {@link #markViewed(long)}, or all of them
+ * if {@link #autoMarkViewed(boolean)} is on, are marked viewed
+ * together in one request on the next tick.
+ * <pre>
+ * NotificationWatcher watcher = client.notificationService().watcher()
+ *     .addListener(new NotificationWatcher.Listener() {
+ *         public void onReplies(List&lt;Notification&gt; replies) { ... }
+ *     })
+ *     .start();
+ * ...
+ * watcher.stop();
+ * </pre>
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class NotificationWatcher implements AutoCloseable {
+
+    private static final Logger log = Logger.getLogger(BaringoClient.LOG_NAME);
+
+    // an id Imgur won't mark viewed after this many tries is dropped
+    private static final int MAX_VIEWED_ATTEMPTS = 3;
+
+    private final BaringoClient client;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private long minIntervalMillis = TimeUnit.SECONDS.toMillis(15);
+    private long maxIntervalMillis = TimeUnit.MINUTES.toMillis(5);
+    private volatile boolean autoMarkViewed = false;
+    // one poll at a time; the network and listener calls happen
+    // under this rather than the watcher's own lock
+    private final Object pollLock = new Object();
+
+    // everything below is guarded by this
+    private final Set<Long> seen = new HashSet<>();
+    private final Set<Long> toMarkViewed = new LinkedHashSet<>();
+    private final HashMap<Long, Integer> viewedAttempts = new HashMap<>();
+    private long intervalMillis;
+    private ScheduledExecutorService scheduler = null;
+
+    /**
+     * Hears about new notifications.  Listeners are called from the
+     * watcher's thread, one tick at a time.
+     */
+    public interface Listener {
+        /**
+         * Called with reply notifications that are new since the last tick
+         * @param replies the new replies, never empty
+         */
+        default void onReplies(List<Notification> replies) {
+        }
+
+        /**
+         * Called with message notifications that are new since the last tick
+         * @param messages the new messages, never empty
+         */
+        default void onMessages(List<Notification> messages) {
+        }
+
+        /**
+         * Called when a poll, or marking notifications viewed, fails.
+         * The watcher keeps going, backing off if the poll failed.
+         * @param error what went wrong
+         */
+        default void onError(BaringoApiException error) {
+        }
+    }
+
+    protected NotificationWatcher(BaringoClient client) {
+        this.client = client;
+        this.intervalMillis = minIntervalMillis;
+    } // constructor
+
+    /**
+     * Sets the fastest and slowest the watcher will poll.  It starts
+     * at the fastest, and drops back there whenever something new
+     * shows up.  Defaults to 15 seconds and 5 minutes.
+     * @param min  the shortest wait between polls
+     * @param max  the longest wait between polls
+     * @param unit the unit of min and max
+     * @return this watcher
+     */
+    public synchronized NotificationWatcher interval(long min, long max, TimeUnit unit) {
+        if (min <= 0 || max < min) {
+            throw new IllegalArgumentException("need 0 < min <= max");
+        } // if
+        this.minIntervalMillis = unit.toMillis(min);
+        this.maxIntervalMillis = unit.toMillis(max);
+        this.intervalMillis = minIntervalMillis;
+
+        return this;
+    }
+
+    /**
+     * Sets whether notifications are marked viewed once they've been
+     * delivered.  Defaults to false.
+     * @param autoMarkViewed true to mark delivered notifications viewed
+     * @return this watcher
+     */
+    public NotificationWatcher autoMarkViewed(boolean autoMarkViewed) {
+        this.autoMarkViewed = autoMarkViewed;
+
+        return this;
+    }
+
+    /**
+     * Adds a listener
+     * @param listener the listener
+     * @return this watcher
+     */
+    public NotificationWatcher addListener(Listener listener) {
+        listeners.add(listener);
+
+        return this;
+    }
+
+    /**
+     * Removes a listener
+     * @param listener the listener
+     * @return this watcher
+     */
+    public NotificationWatcher removeListener(Listener listener) {
+        listeners.remove(listener);
+
+        return this;
+    }
+
+    /**
+     * Queues a notification to be marked viewed on the next tick,
+     * along with any others queued by then.  If that request fails
+     * the id stays queued, but only for a few more tries.
+     * @param id the notification id
+     */
+    public synchronized void markViewed(long id) {
+        toMarkViewed.add(id);
+    } // markViewed
+
+    /**
+     * Starts polling in the background, the first poll right away.
+     * Does nothing if already started.
+     * @return this watcher
+     */
+    public synchronized NotificationWatcher start() {
+        if (scheduler != null) {
+            return this;
+        } // if
+        ScheduledExecutorService s = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "baringo-notifications");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler = s;
+        intervalMillis = minIntervalMillis;
+        s.execute(() -> tick(s));
+        return this;
+    } // start
+
+    /**
+     * Stops polling.  Ids queued to be marked viewed but not yet sent
+     * stay queued for {@link #poll()} or the next start().
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        } // if
+    } // stop
+
+    @Override
+    public void close() {
+        stop();
+    } // close
+
+    /**
+     * Returns true if the watcher is polling in the background
+     * @return true if started
+     */
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Returns how long the watcher will wait before its next poll
+     * @return the current interval in milliseconds
+     */
+    public synchronized long getCurrentInterval() {
+        return intervalMillis;
+    }
+
+    /**
+     * Polls once, right now, delivering anything new to the listeners
+     * on the calling thread.  Doesn't change the background schedule
+     * apart from the interval it's working from.
+     * <p>
+     * Failing to mark queued notifications viewed doesn't fail the
+     * poll; listeners hear about it through {@link Listener#onError}.
+     * <p>
+     * <b>ACCESS: AUTHENTICATED USER</b>
+     *
+     * @return the number of new notifications delivered
+     * @throws BaringoApiException the poll failed
+     */
+    public int poll() throws BaringoApiException {
+        synchronized (pollLock) {
+            flushViewed();
+
+            NotificationList list = client.notificationService().listNotifications(true);
+            List<Notification> replies;
+            List<Notification> messages;
+            synchronized (this) {
+                replies = unseen(list.getReplyNotifications());
+                messages = unseen(list.getMessageNotifications());
+
+                // only what's still unviewed can come back, so that's all
+                // that needs remembering
+                seen.clear();
+                remember(list.getReplyNotifications());
+                remember(list.getMessageNotifications());
+            } // synchronized
+
+            for (Listener listener : listeners) {
+                try {
+                    if (!replies.isEmpty()) {
+                        listener.onReplies(Collections.unmodifiableList(replies));
+                    } // if
+                    if (!messages.isEmpty()) {
+                        listener.onMessages(Collections.unmodifiableList(messages));
+                    } // if
+                } catch (RuntimeException e) {
+                    log.warning("Notification listener failed: " + e);
+                } // try-catch
+            } // for
+
+            int fresh = replies.size() + messages.size();
+            synchronized (this) {
+                if (autoMarkViewed) {
+                    for (Notification n : replies) {
+                        toMarkViewed.add(n.getId());
+                    } // for
+                    for (Notification n : messages) {
+                        toMarkViewed.add(n.getId());
+                    } // for
+                } // if
+                intervalMillis = fresh > 0
+                        ? minIntervalMillis
+                        : Math.min(maxIntervalMillis, intervalMillis * 2);
+            } // synchronized
+            return fresh;
+        } // synchronized
+    } // poll
+
+    private void tick(ScheduledExecutorService owner) {
+        try {
+            poll();
+        } catch (BaringoApiException e) {
+            synchronized (this) {
+                intervalMillis = Math.min(maxIntervalMillis, intervalMillis * 2);
+            } // synchronized
+            reportError(e);
+        } catch (RuntimeException e) {
+            // never let the schedule die quietly
+            log.warning("Notification poll failed: " + e);
+        } // try-catch
+
+        synchronized (this) {
+            // not if stopped, or stopped and started again meanwhile
+            if (scheduler == owner && !owner.isShutdown()) {
+                owner.schedule(() -> tick(owner), intervalMillis, TimeUnit.MILLISECONDS);
+            } // if
+        } // synchronized
+    } // tick
+
+    private void reportError(BaringoApiException error) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onError(error);
+            } catch (RuntimeException e) {
+                log.warning("Notification listener failed: " + e);
+            } // try-catch
+        } // for
+    } // reportError
+
+    // sends everything queued to be marked viewed as one request.  A
+    // failure is reported but doesn't stop the poll, and ids that keep
+    // failing are given up on so they can't wedge every later tick.
+    private void flushViewed() {
+        List<Long> ids;
+        synchronized (this) {
+            if (toMarkViewed.isEmpty()) {
+                return;
+            } // if
+            ids = new ArrayList<>(toMarkViewed);
+        } // synchronized
+
+        try {
+            client.notificationService().markNotificationsViewed(ids);
+        } catch (BaringoApiException e) {
+            int dropped = 0;
+            synchronized (this) {
+                for (Long id : ids) {
+                    if (viewedAttempts.merge(id, 1, Integer::sum) >= MAX_VIEWED_ATTEMPTS) {
+                        toMarkViewed.remove(id);
+                        viewedAttempts.remove(id);
+                        dropped++;
+                    } // if
+                } // for
+            } // synchronized
+            log.warning("Couldn't mark notifications viewed: " + e.getMessage()
+                    + (dropped > 0 ? " (giving up on " + dropped + ")" : ""));
+            reportError(e);
+            return;
+        } // try-catch
+
+        synchronized (this) {
+            toMarkViewed.removeAll(ids);
+            viewedAttempts.keySet().removeAll(ids);
+        } // synchronized
+    } // flushViewed
+
+    private List<Notification> unseen(List<Notification> notifications) {
+        List<Notification> list = new ArrayList<>();
+        if (notifications != null) {
+            for (Notification n : notifications) {
+                if (!seen.contains(n.getId())) {
+                    list.add(n);
+                } // if
+            } // for
+        } // if
+        return list;
+    } // unseen
+
+    private void remember(List<Notification> notifications) {
+        if (notifications != null) {
+            for (Notification n : notifications) {
+                seen.add(n.getId());
+            } // for
+        } // if
+    } // remember
+
+    @Override
+    public synchronized String toString() {
+        HashMap<String, Object> fields = new HashMap<>();
+        fields.put("running", scheduler != null);
+        fields.put("intervalMillis", intervalMillis);
+        fields.put("seen", seen.size());
+        fields.put("pendingViewed", toMarkViewed.size());
+        return Utils.toString(fields, NotificationWatcher.class.getSimpleName());
+    } // toString
+
+} // class NotificationWatcher
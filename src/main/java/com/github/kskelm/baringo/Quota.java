@@ -20,14 +20,15 @@ import java.util.Date;
 public class Quota {
 
 
-    private int userCreditsAllocated;
-    private int userCreditsAvailable;
-    private Date userCreditResetDate;
-    private int applicationCreditsAllocated;
-    private int applicationCreditsAvailable;
-    private int postCreditsAllocated;
-    private int postCreditsAvailable;
-    private Date postCreditResetDate;
+    // written from OkHttp threads, read from anywhere
+    private volatile int userCreditsAllocated;
+    private volatile int userCreditsAvailable;
+    private volatile Date userCreditResetDate;
+    private volatile int applicationCreditsAllocated;
+    private volatile int applicationCreditsAvailable;
+    private volatile int postCreditsAllocated;
+    private volatile int postCreditsAvailable;
+    private volatile Date postCreditResetDate;
 
     /**
      * The number of credits allocated to this IP address per hour
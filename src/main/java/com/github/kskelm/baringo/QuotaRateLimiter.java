@@ -0,0 +1,271 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.util.Utils;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Paces outgoing requests so a client spreads its Imgur credits
+ * evenly across the quota window instead of burning through them
+ * and then failing until the reset.
+ * <p>
+ * The limiter keeps a token bucket per kind of credit: user credits
+ * (reset hourly), application credits (reset daily) and post credits
+ * (reset hourly, consumed only by POSTs).  Every response's quota
+ * headers re-sync the buckets, so the refill rate is always the
+ * remaining credits divided by the time left until the reset.  Until
+ * the first response arrives nothing is known, so nothing is held back.
+ * <p>
+ * One limiter is shared by every thread using the client.  Install it
+ * with {@link BaringoClient.Builder#rateLimiter(QuotaRateLimiter)}.
+ * <p>
+ * See <a href="http://api.imgur.com/#limits">Imgur documentation</a>
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class QuotaRateLimiter {
+
+    private final Bucket userCredits;
+    private final Bucket applicationCredits;
+    private final Bucket postCredits;
+
+    private final AtomicLong acquireCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Construct a limiter that holds back no credits and allows
+     * bursts of up to 10 requests.
+     */
+    public QuotaRateLimiter() {
+        this(0, 10);
+    } // constructor
+
+    /**
+     * Construct a limiter.
+     *
+     * @param reserve number of credits of each kind never to spend,
+     *                leaving headroom for other tools sharing the same quota
+     * @param burst   how many requests may go out back to back before
+     *                pacing kicks in
+     */
+    public QuotaRateLimiter(int reserve, int burst) {
+        this.userCredits = new Bucket(reserve, burst);
+        this.applicationCredits = new Bucket(reserve, burst);
+        this.postCredits = new Bucket(reserve, burst);
+    } // constructor
+
+    /**
+     * Blocks until there are credits to spend on a request with the
+     * given HTTP method.  POSTs spend a post credit on top of the
+     * usual user and application credits.
+     *
+     * @param method the HTTP method of the request about to go out
+     * @throws InterruptedException the thread was interrupted while waiting
+     */
+    public void acquire(String method) throws InterruptedException {
+        long waited = userCredits.take();
+        waited += applicationCredits.take();
+        if ("POST".equalsIgnoreCase(method)) {
+            waited += postCredits.take();
+        } // if
+
+        acquireCount.incrementAndGet();
+        if (waited > 0) {
+            waitCount.incrementAndGet();
+            totalWaitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        } // if
+    } // acquire
+
+    /**
+     * Gives back the credits taken by {@link #acquire(String)} for a
+     * request that never went out, because the response cache answered it.
+     *
+     * @param method the HTTP method passed to acquire
+     */
+    void release(String method) {
+        userCredits.give();
+        applicationCredits.give();
+        if ("POST".equalsIgnoreCase(method)) {
+            postCredits.give();
+        } // if
+        acquireCount.decrementAndGet();
+    } // release
+
+    /**
+     * Re-syncs the buckets with the latest quota reported by Imgur.
+     * Called by the client after every response.
+     *
+     * @param quota the client's quota, freshly updated
+     */
+    protected void update(Quota quota) {
+        long now = System.currentTimeMillis();
+
+        if (quota.getUserCreditResetDate() != null) {
+            userCredits.sync(quota.getUserCreditsAvailable(),
+                    quota.getUserCreditResetDate().getTime(), now);
+        } // if
+        if (quota.getApplicationCreditsAllocated() > 0) {
+            // Imgur only says application credits are per day
+            long midnight = LocalDate.now(ZoneOffset.UTC).plusDays(1)
+                    .atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+            applicationCredits.sync(quota.getApplicationCreditsAvailable(), midnight, now);
+        } // if
+        if (quota.getPostCreditResetDate() != null) {
+            postCredits.sync(quota.getPostCreditsAvailable(),
+                    quota.getPostCreditResetDate().getTime(), now);
+        } // if
+    } // update
+
+    /**
+     * The number of requests that have passed through the limiter
+     *
+     * @return the acquire count
+     */
+    public long getAcquireCount() {
+        return acquireCount.get();
+    }
+
+    /**
+     * The number of requests that had to wait for credits
+     *
+     * @return the wait count
+     */
+    public long getWaitCount() {
+        return waitCount.get();
+    }
+
+    /**
+     * The total time requests have spent waiting for credits
+     *
+     * @return the total wait in milliseconds
+     */
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+    }
+
+    /**
+     * The longest any single request has waited for credits
+     *
+     * @return the longest wait in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    /**
+     * The average wait among requests that had to wait
+     *
+     * @return the average wait in milliseconds, or 0 if nobody waited
+     */
+    public double getAverageWaitMillis() {
+        long count = waitCount.get();
+        if (count == 0) {
+            return 0;
+        } // if
+        return totalWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public String toString() {
+        HashMap<String, Object> fields = new HashMap<>();
+        fields.put("acquireCount", getAcquireCount());
+        fields.put("waitCount", getWaitCount());
+        fields.put("totalWaitMillis", getTotalWaitMillis());
+        fields.put("maxWaitMillis", getMaxWaitMillis());
+        return Utils.toString(fields, QuotaRateLimiter.class.getSimpleName());
+    } // toString
+
+    /**
+     * One token bucket.  The refill rate is recomputed from each
+     * quota update as remaining credits over remaining time.
+     */
+    private static class Bucket {
+        private final int reserve;
+        private final int burst;
+
+        private boolean known = false;
+        private double tokens = 0;
+        private double tokensPerMilli = 0;
+        private long lastRefill = 0;
+        private long resetAt = 0;
+
+        Bucket(int reserve, int burst) {
+            this.reserve = reserve;
+            this.burst = Math.max(1, burst);
+        }
+
+        // returns the number of nanoseconds spent waiting
+        synchronized long take() throws InterruptedException {
+            long start = System.nanoTime();
+            while (true) {
+                long now = System.currentTimeMillis();
+                if (known && now >= resetAt) {
+                    known = false; // window rolled over; wait for fresh headers
+                } // if
+                if (!known) {
+                    return System.nanoTime() - start;
+                } // if
+
+                refill(now);
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return System.nanoTime() - start;
+                } // if
+
+                long waitMillis = tokensPerMilli > 0
+                        ? (long) Math.ceil((1 - tokens) / tokensPerMilli)
+                        : resetAt - now;
+                wait(Math.max(1, Math.min(waitMillis, resetAt - now)));
+            } // while
+        } // take
+
+        synchronized void give() {
+            if (!known) {
+                return; // nothing was taken
+            } // if
+            refill(System.currentTimeMillis());
+            tokens = Math.min(burst, tokens + 1);
+            notifyAll();
+        } // give
+
+        synchronized void sync(int available, long resetAt, long now) {
+            if (resetAt <= now) {
+                known = false;
+                notifyAll();
+                return;
+            } // if
+
+            int budget = Math.max(0, available - reserve);
+            if (!known) {
+                tokens = Math.min(burst, budget);
+            } else {
+                refill(now);
+                tokens = Math.min(tokens, budget);
+            } // if-else
+            this.tokensPerMilli = (double) budget / (resetAt - now);
+            this.resetAt = resetAt;
+            this.lastRefill = now;
+            this.known = true;
+            notifyAll();
+        } // sync
+
+        private void refill(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerMilli);
+                lastRefill = now;
+            } // if
+        } // refill
+    } // class Bucket
+
+} // class QuotaRateLimiter
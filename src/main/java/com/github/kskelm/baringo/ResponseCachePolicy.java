@@ -0,0 +1,125 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.util.Utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Decides how long the response cache may serve a GET response
+ * without going back to Imgur.
+ * <p>
+ * Imgur marks its API responses as uncacheable, so on its own the
+ * HTTP cache would never be used.  When the response cache is turned
+ * on with {@link BaringoClient.Builder#responseCache}, every GET whose
+ * path matches one of these rules is stored for the rule's time to
+ * live.  Once that runs out, the next request is sent as a conditional
+ * If-None-Match/If-Modified-Since request when Imgur supplied an ETag
+ * or Last-Modified, so an unchanged resource comes back as a cheap 304.
+ * GETs that match no rule are never stored.
+ * <p>
+ * Cached entries vary on the Authorization header, so one user's view
+ * of a resource is never served to another.
+ * <p>
+ * A successful write drops the cached entries for the resource it
+ * belongs to: anything written under /3/album/{id} (updating, deleting,
+ * adding or removing images, favoriting) drops the cached
+ * /3/album/{id} and everything below it, and likewise for
+ * /3/image/{id}, /3/gallery/{id} and the rest.  A write addressed by
+ * delete hash rather than id drops every cached entry of that type,
+ * since there's no telling which id the hash belongs to.
+ * <p>
+ * The defaults cover the reads that change slowly:
+ * <ul>
+ * <li>image info - 10 minutes</li>
+ * <li>album info - 5 minutes</li>
+ * <li>gallery item votes - 1 minute</li>
+ * <li>default topics, default memes, random gallery - 1 hour (Imgur only refreshes these hourly)</li>
+ * </ul>
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class ResponseCachePolicy {
+
+    private final List<Rule> rules = new ArrayList<>();
+
+    /**
+     * Creates a policy with no rules, meaning nothing is cached
+     * until rules are added with {@link #ttl}.
+     */
+    public ResponseCachePolicy() {
+    } // constructor
+
+    /**
+     * Returns a policy holding the default rules listed above
+     * @return a new policy
+     */
+    public static ResponseCachePolicy defaults() {
+        return new ResponseCachePolicy()
+                .ttl("/3/image/[^/]+", 10, TimeUnit.MINUTES)
+                .ttl("/3/album/[^/]+", 5, TimeUnit.MINUTES)
+                .ttl("/3/gallery/[^/]+/votes", 1, TimeUnit.MINUTES)
+                .ttl("/3/topics/defaults", 1, TimeUnit.HOURS)
+                .ttl("/3/memegen/defaults", 1, TimeUnit.HOURS)
+                .ttl("/3/gallery/random/random/[0-9]+", 1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Adds a rule.  Rules added later win over earlier ones, so this
+     * can be used to override a default.  A time to live of 0 stops
+     * matching paths from being cached at all.
+     *
+     * @param pathRegex a regular expression matched against the whole
+     *                  request path, e.g. "/3/image/[^/]+"
+     * @param ttl       how long a response stays fresh
+     * @param unit      the unit of ttl
+     * @return this policy
+     */
+    public ResponseCachePolicy ttl(String pathRegex, long ttl, TimeUnit unit) {
+        rules.add(0, new Rule(Pattern.compile(pathRegex), unit.toSeconds(ttl)));
+
+        return this;
+    }
+
+    /**
+     * Returns the number of seconds a response for the given path
+     * stays fresh, or 0 if it shouldn't be cached.
+     *
+     * @param path the encoded request path
+     * @return seconds to live
+     */
+    public long ttlSeconds(String path) {
+        for (Rule rule : rules) {
+            if (rule.pattern.matcher(path).matches()) {
+                return rule.ttlSeconds;
+            } // if
+        } // for
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        for (Rule rule : rules) {
+            map.put(rule.pattern.pattern(), rule.ttlSeconds + "s");
+        } // for
+        return Utils.toString(map, ResponseCachePolicy.class.getSimpleName());
+    }
+
+    private static class Rule {
+        private final Pattern pattern;
+        private final long ttlSeconds;
+
+        Rule(Pattern pattern, long ttlSeconds) {
+            this.pattern = pattern;
+            this.ttlSeconds = ttlSeconds;
+        } // constructor
+    } // class Rule
+
+} // class ResponseCachePolicy
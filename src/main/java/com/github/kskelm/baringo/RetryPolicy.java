@@ -0,0 +1,237 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.util.Utils;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which failed API calls the client quietly tries again, and
+ * how long it waits first.  Set with {@link BaringoClient.Builder#retry}.
+ * <p>
+ * Retries are off unless a policy says otherwise.  When on, a call is
+ * retried if it couldn't reach Imgur at all, or got a 429 or a 5xx:
+ * <ul>
+ * <li>only reads, unless {@link #retryWrites} says writes may go again
+ * too.  Writes are POSTs, PUTs and DELETEs, and also the favorite
+ * toggles, which Imgur makes GETs: sent twice, a toggle undoes itself.
+ * Uploads streamed from an InputStream are never retried, since the
+ * stream's been used up</li>
+ * <li>up to {@link #maxAttempts} tries in all, waiting a random time
+ * up to a limit that doubles each try ("full jitter") so a crowd of
+ * clients doesn't come back in lockstep</li>
+ * <li>a Retry-After from Imgur is waited out instead, as is the quota
+ * reset when the 429 came from running out of credits, but only if
+ * that's within {@link #maxWait}; otherwise the 429 is returned at
+ * once, so a {@link BaringoClientPool} can move on to another client</li>
+ * <li>at most {@link #budget} retries per window across the whole
+ * client, so an outage doesn't turn into a retry storm</li>
+ * </ul>
+ * Retries are counted per endpoint in the client's
+ * {@link MetricsCollector}, if it has one.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class RetryPolicy {
+
+    private int maxAttempts = 4;
+    private long baseDelayMillis = 500;
+    private long maxDelayMillis = TimeUnit.SECONDS.toMillis(30);
+    private long maxWaitMillis = TimeUnit.MINUTES.toMillis(1);
+    private boolean retryWrites = false;
+    private int budget = 100;
+    private long budgetWindowMillis = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Returns a policy with the defaults: 4 attempts, delays starting
+     * at half a second and capped at 30 seconds, waits of up to a
+     * minute for Retry-After or a quota reset, reads only, and no more
+     * than 100 retries a minute
+     * @return a new policy
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy();
+    }
+
+    /**
+     * Returns a policy that never retries, which is the default
+     * @return a new policy
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy().maxAttempts(1);
+    }
+
+    /**
+     * Sets the most times a call is tried, the first one included
+     *
+     * @param maxAttempts 1 or more; 1 means no retries
+     * @return this policy
+     */
+    public RetryPolicy maxAttempts(int maxAttempts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        return this;
+    }
+
+    /**
+     * Sets the backoff.  Before the nth retry the client waits a
+     * random time between zero and base * 2^(n-1), but never more
+     * than max.
+     *
+     * @param base the limit before the first retry
+     * @param max  the most any one wait may be
+     * @param unit the unit of base and max
+     * @return this policy
+     */
+    public RetryPolicy backoff(long base, long max, TimeUnit unit) {
+        if (base <= 0 || max < base) {
+            throw new IllegalArgumentException("need 0 < base <= max");
+        } // if
+        this.baseDelayMillis = unit.toMillis(base);
+        this.maxDelayMillis = unit.toMillis(max);
+
+        return this;
+    }
+
+    /**
+     * Sets the longest the client will wait on Imgur's say-so, from a
+     * Retry-After or the quota reset time.  Anything longer and the
+     * call fails straight away instead.
+     *
+     * @param maxWait the longest wait
+     * @param unit    the unit of maxWait
+     * @return this policy
+     */
+    public RetryPolicy maxWait(long maxWait, TimeUnit unit) {
+        this.maxWaitMillis = unit.toMillis(Math.max(0, maxWait));
+
+        return this;
+    }
+
+    /**
+     * Sets whether writes (POSTs, PUTs, DELETEs and the favorite
+     * toggle GETs) are retried too.  Defaults
+     * to false, since a write that timed out may well have happened,
+     * and doing it again could, say, post a comment twice.
+     *
+     * @param retryWrites true to retry writes
+     * @return this policy
+     */
+    public RetryPolicy retryWrites(boolean retryWrites) {
+        this.retryWrites = retryWrites;
+
+        return this;
+    }
+
+    /**
+     * Caps the retries the whole client makes in a window of time.
+     * Once they're used up, failures are returned as they are until
+     * the window rolls over.
+     *
+     * @param retries the most retries per window
+     * @param window  the length of the window
+     * @param unit    the unit of window
+     * @return this policy
+     */
+    public RetryPolicy budget(int retries, long window, TimeUnit unit) {
+        this.budget = Math.max(0, retries);
+        this.budgetWindowMillis = unit.toMillis(Math.max(1, window));
+
+        return this;
+    }
+
+    /**
+     * Returns the most times a call is tried
+     * @return the attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns the longest wait on Imgur's say-so
+     * @return the wait in milliseconds
+     */
+    public long getMaxWait() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Returns the retries allowed per budget window
+     * @return the budget
+     */
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns the length of the budget window
+     * @return the window in milliseconds
+     */
+    public long getBudgetWindow() {
+        return budgetWindowMillis;
+    }
+
+    /**
+     * Returns true if the method may be retried at all.  Doesn't know
+     * about GETs that change state; see {@link #isRetryable(boolean)}.
+     *
+     * @param method the HTTP method
+     * @return true if retryable
+     */
+    public boolean isRetryable(String method) {
+        return isRetryable(!method.equals("GET") && !method.equals("HEAD"));
+    }
+
+    /**
+     * Returns true if a call may be retried at all
+     *
+     * @param write true if the call changes something on Imgur
+     * @return true if retryable
+     */
+    public boolean isRetryable(boolean write) {
+        return !write || retryWrites;
+    }
+
+    /**
+     * Returns true if a response with this status is worth trying again
+     *
+     * @param status the HTTP status
+     * @return true for 429 and 5xx
+     */
+    public boolean isRetryableStatus(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    /**
+     * Returns how long to wait before a retry, with jitter
+     *
+     * @param retry which retry this is, starting at 1
+     * @return the delay in milliseconds
+     */
+    public long backoffMillis(int retry) {
+        long ceiling = baseDelayMillis << Math.min(30, retry - 1);
+        if (ceiling <= 0 || ceiling > maxDelayMillis) {
+            ceiling = maxDelayMillis;
+        } // if
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    @Override
+    public String toString() {
+        LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+        map.put("maxAttempts", maxAttempts);
+        map.put("baseDelayMillis", baseDelayMillis);
+        map.put("maxDelayMillis", maxDelayMillis);
+        map.put("maxWaitMillis", maxWaitMillis);
+        map.put("retryWrites", retryWrites);
+        map.put("budget", budget);
+        map.put("budgetWindowMillis", budgetWindowMillis);
+        return Utils.toString(map, RetryPolicy.class.getSimpleName());
+    }
+
+} // class RetryPolicy
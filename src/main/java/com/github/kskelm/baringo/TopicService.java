@@ -6,14 +6,15 @@ package com.github.kskelm.baringo;
 import com.github.kskelm.baringo.model.ImgurResponseWrapper;
 import com.github.kskelm.baringo.model.Topic;
 import com.github.kskelm.baringo.model.gallery.GalleryItem;
-import com.github.kskelm.baringo.model.gallery.GalleryItemProxy;
 import com.github.kskelm.baringo.util.BaringoApiException;
+import com.github.kskelm.baringo.util.Pager;
 import com.google.gson.GsonBuilder;
 import retrofit2.Call;
 import retrofit2.Response;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * API service for topics, which provide access to categorized content
@@ -26,12 +27,23 @@ import java.util.List;
 public class TopicService {
 
     private BaringoClient client = null;
+    private final Async async = new Async();
 
     // ================================================
     protected TopicService(BaringoClient imgurClient, GsonBuilder gsonBuilder) {
         this.client = imgurClient;
     } // constructor
 
+    /**
+     * Returns the non-blocking flavor of this service.  Every method
+     * mirrors its blocking counterpart but returns a CompletableFuture.
+     *
+     * @return the async topic service
+     */
+    public Async async() {
+        return async;
+    }
+
     /**
      * Return a list of the default topics available on Imgur.
      * <p>
@@ -50,21 +62,10 @@ public class TopicService {
             ImgurResponseWrapper<List<Topic>> out = res.body();
 
             client.throwOnWrapperError(res);
-            List<Topic> list = out.getData();
-
-            // convert all their #)(*$)#% proxy items into real items
-            // TODO: REFACTOR THIS
-            for (Topic topic : list) {
-                GalleryItemProxy proxy = topic.getItemProxy();
-                if (proxy == null) {
-                    continue;
-                } // if
-                topic.setConvertedItem(client.galleryService()
-                        .convertProxyItem(proxy));
-            } // for
-            return list;
+
+            return out.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
     }
 
@@ -89,7 +90,7 @@ public class TopicService {
         String sortStr = sort.name().toLowerCase();
         String windowStr = window.name().toLowerCase();
 
-        Call<ImgurResponseWrapper<List<GalleryItemProxy>>> call =
+        Call<ImgurResponseWrapper<List<GalleryItem>>> call =
                 client.getApi().listTopicItems(
                         topicId,
                         sortStr,
@@ -97,17 +98,72 @@ public class TopicService {
                         page);
 
         try {
-            Response<ImgurResponseWrapper<List<GalleryItemProxy>>> res = call.execute();
-            ImgurResponseWrapper<List<GalleryItemProxy>> list = res.body();
+            Response<ImgurResponseWrapper<List<GalleryItem>>> res = call.execute();
+            ImgurResponseWrapper<List<GalleryItem>> list = res.body();
 
             client.throwOnWrapperError(res);
 
-            // TODO: Look into refactoring this
-            return client.galleryService().convertToGalleryItems(list.getData());
+            return list.getData();
         } catch (IOException e) {
-            throw new BaringoApiException(e.getMessage());
+            throw new BaringoApiException(e.getMessage(), e);
         } // try-catch
 
     }
 
+    /**
+     * Lazily pages through a topic's items, page 0 onward.  The next
+     * page is requested in the background while the current one is
+     * being consumed.  Iteration stops at the first empty page, or
+     * see {@link Pager#maxItems}.
+     * <p>
+     * <b>ACCESS: ANONYMOUS</b>
+     * @param topicId the id of the topic to fetch
+     * @param sort    the sorting mechanism - Viral | Time | Top
+     * @param window  the windowing mechanism if Top
+     * @return a Pager of GalleryItem objects
+     */
+    public Pager<GalleryItem> pageTopic(
+            int topicId,
+            GalleryItem.Sort sort,
+            GalleryItem.Window window) {
+        return new Pager<>(page -> async.listTopic(topicId, sort, window, page));
+    }
+
+    /**
+     * Non-blocking versions of the TopicService calls.  Failures
+     * complete the future exceptionally with a BaringoApiException.
+     */
+    public class Async {
+
+        /**
+         * Asynchronous version of {@link TopicService#listDefaultTopics}.
+         *
+         * @return a future list of Topic objects
+         */
+        public CompletableFuture<List<Topic>> listDefaultTopics() {
+            return client.enqueue(client.getApi().listDefaultTopics());
+        }
+
+        /**
+         * Asynchronous version of {@link TopicService#listTopic}.
+         *
+         * @param topicId the id or URL-formatted name of the topic
+         * @param sort    the sort direction - Viral | Time | Top
+         * @param window  the windowing mechanism if Top
+         * @param page    the page number, starting at 0
+         * @return a future list of GalleryItem objects
+         */
+        public CompletableFuture<List<GalleryItem>> listTopic(
+                int topicId,
+                GalleryItem.Sort sort,
+                GalleryItem.Window window,
+                int page) {
+            return client.enqueue(client.getApi().listTopicItems(
+                            topicId,
+                            sort.name().toLowerCase(),
+                            window.name().toLowerCase(),
+                            page));
+        }
+    } // class Async
+
 }
@@ -0,0 +1,140 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import com.github.kskelm.baringo.util.Utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * The stock {@link EntityCache}: holds at most a fixed number of
+ * entries, drops the least recently used one when full, and treats
+ * anything older than its time to live as gone.
+ * <p>
+ * Lookups are all under one lock; it's a small map and the work done
+ * while holding it is trivial next to the HTTP call it saves.
+ *
+ * @param <K> the key type
+ * @param <V> the cached model type
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class TtlLruEntityCache<K, V> implements EntityCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final CacheStats stats = new CacheStats();
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    /**
+     * Construct a cache
+     * @param maxEntries the most entries to hold
+     * @param ttl        how long an entry stays valid
+     * @param unit       the unit of ttl
+     */
+    public TtlLruEntityCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        } // if
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        // access order makes iteration order least-recently-used first
+        this.map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > TtlLruEntityCache.this.maxEntries) {
+                    stats.recordEviction();
+                    return true;
+                } // if
+                return false;
+            }
+        };
+    } // constructor
+
+    @Override
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            stats.recordMiss();
+            return null;
+        } // if
+        if (System.nanoTime() - entry.storedAt > ttlNanos) {
+            map.remove(key);
+            stats.recordEviction();
+            stats.recordMiss();
+            return null;
+        } // if
+        stats.recordHit();
+        return entry.value;
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        } // if
+        map.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    @Override
+    public synchronized void invalidate(K key) {
+        if (key != null) {
+            map.remove(key);
+        } // if
+    }
+
+    @Override
+    public synchronized void invalidateIf(Predicate<? super V> predicate) {
+        Iterator<Entry<V>> it = map.values().iterator();
+        while (it.hasNext()) {
+            if (predicate.test(it.next().value)) {
+                it.remove();
+            } // if
+        } // while
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        map.clear();
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the number of entries currently held, including any
+     * that have expired but haven't been looked up since
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    @Override
+    public String toString() {
+        HashMap<String, Object> fields = new HashMap<>();
+        fields.put("size", size());
+        fields.put("maxEntries", maxEntries);
+        fields.put("ttlMillis", TimeUnit.NANOSECONDS.toMillis(ttlNanos));
+        fields.put("stats", stats);
+        return Utils.toString(fields, TtlLruEntityCache.class.getSimpleName());
+    } // toString
+
+    private static class Entry<V> {
+        private final V value;
+        private final long storedAt;
+
+        Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        } // constructor
+    } // class Entry
+
+} // class TtlLruEntityCache
@@ -0,0 +1,146 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+import okio.Sink;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The image part of an upload, streamed to the connection from
+ * wherever the caller has it rather than read into memory first,
+ * with optional progress reporting.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+abstract class UploadBody extends RequestBody {
+
+    private final MediaType contentType;
+    private final long contentLength;
+    private final UploadProgressListener listener;
+
+    protected UploadBody(MediaType contentType, long contentLength, UploadProgressListener listener) {
+        this.contentType = contentType;
+        this.contentLength = contentLength;
+        this.listener = listener;
+    } // constructor
+
+    /**
+     * Streams a file, which can be sent again if need be
+     */
+    static UploadBody of(Path path, MediaType contentType, UploadProgressListener listener) throws IOException {
+        return new UploadBody(contentType, Files.size(path), listener) {
+            @Override
+            protected void writeContent(BufferedSink sink) throws IOException {
+                try (Source source = Okio.source(path)) {
+                    sink.writeAll(source);
+                } // try
+            }
+        };
+    } // of
+
+    /**
+     * Streams whatever's left in an InputStream.  It can only be read
+     * once, so the request can't be retried.
+     *
+     * @param length the number of bytes the stream will give, or -1 to send it chunked
+     */
+    static UploadBody of(InputStream in, long length, MediaType contentType, UploadProgressListener listener) {
+        return new UploadBody(contentType, length, listener) {
+            @Override
+            protected void writeContent(BufferedSink sink) throws IOException {
+                Source source = Okio.source(in);
+                if (length < 0) {
+                    sink.writeAll(source);
+                } else {
+                    sink.write(source, length);
+                } // if-else
+            }
+
+            @Override
+            public boolean isOneShot() {
+                return true;
+            }
+        };
+    } // of
+
+    static UploadBody of(byte[] data, MediaType contentType, UploadProgressListener listener) {
+        return new UploadBody(contentType, data.length, listener) {
+            @Override
+            protected void writeContent(BufferedSink sink) throws IOException {
+                sink.write(data);
+            }
+        };
+    } // of
+
+    /**
+     * Sends the bytes between the buffer's position and limit without
+     * disturbing either, so a direct buffer is never copied onto the heap
+     * as a whole.
+     */
+    static UploadBody of(ByteBuffer data, MediaType contentType, UploadProgressListener listener) {
+        return new UploadBody(contentType, data.remaining(), listener) {
+            @Override
+            protected void writeContent(BufferedSink sink) throws IOException {
+                ByteBuffer view = data.duplicate();
+                while (view.hasRemaining()) {
+                    sink.write(view);
+                } // while
+            }
+        };
+    } // of
+
+    protected abstract void writeContent(BufferedSink sink) throws IOException;
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        if (listener == null) {
+            writeContent(sink);
+            return;
+        } // if
+
+        BufferedSink counted = Okio.buffer(new ProgressSink(sink));
+        writeContent(counted);
+        counted.emit(); // not close(); that would close the request too
+    }
+
+    // reports each segment as it's handed down to the connection
+    private class ProgressSink extends ForwardingSink {
+        private long written = 0;
+
+        ProgressSink(Sink delegate) {
+            super(delegate);
+        } // constructor
+
+        @Override
+        public void write(@NotNull Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+            written += byteCount;
+            listener.onProgress(written, contentLength);
+        }
+    } // class ProgressSink
+
+} // class UploadBody
@@ -0,0 +1,26 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo;
+
+/**
+ * Told how an image upload is coming along, for progress bars or
+ * throughput monitoring.  Called on whatever thread is writing the
+ * request, so keep it quick.
+ * <p>
+ * If a request body has to be written more than once, for instance
+ * when a request is retried, the count starts over from zero.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    /**
+     * Called each time another chunk has been written to the connection
+     * @param bytesWritten  how many bytes of the image have gone out so far
+     * @param contentLength the total size of the image, or -1 if unknown
+     */
+    void onProgress(long bytesWritten, long contentLength);
+
+} // interface UploadProgressListener
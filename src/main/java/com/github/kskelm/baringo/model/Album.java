@@ -45,6 +45,8 @@ public class Album {
     private String section;
     @SerializedName("deletehash")
     private String deleteHash;
+    @SerializedName("images_count")
+    private int imageCount;
     private String[] ids;
     private List<Image> images;
 
@@ -183,6 +185,14 @@ public class Album {
         return viewCount;
     }
 
+    /**
+     * The number of images in the album
+     * @return the image count
+     */
+    public int getImageCount() {
+        return imageCount;
+    }
+
     /**
      * The URL of the album
      * @return the link
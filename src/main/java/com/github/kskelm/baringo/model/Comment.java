@@ -19,28 +19,28 @@ public class Comment {
 
 
     // ================================================
-    private long id;
+    long id;
     @SerializedName("image_id")
-    private String imageId;
-    private String comment;
+    String imageId;
+    String comment;
     @SerializedName("author")
-    private String authorName;
+    String authorName;
     @SerializedName("author_id")
-    private int authorId;
+    int authorId;
     @SerializedName("on_album")
-    private boolean onAlbum;
+    boolean onAlbum;
     @SerializedName("album_cover")
-    private String albumCover;
-    private int ups;
-    private int downs;
-    private int points;
+    String albumCover;
+    int ups;
+    int downs;
+    int points;
     @SerializedName("datetime")
-    private Date createdAt;
+    Date createdAt;
     @SerializedName("parent_id")
-    private long parentId;
-    private boolean deleted;
-    private Vote vote;
-    private final List<Comment> children = new ArrayList<>();
+    long parentId;
+    boolean deleted;
+    Vote vote;
+    final List<Comment> children = new ArrayList<>();
 
     /**
      * The ID of the comment
@@ -0,0 +1,290 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.model;
+
+import com.github.kskelm.baringo.util.BaringoApiException;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * INTERNAL ONLY.
+ * <p>
+ * Reads comments token by token straight off the JsonReader,
+ * replies and all, instead of letting Gson build a JsonElement tree
+ * first.  Writing is left to Gson's usual reflective adapter.
+ * <p>
+ * {@link #stream} goes a step further for very large threads: each
+ * comment is handed to a consumer as soon as it's been read and isn't
+ * kept, and neither are its replies, so memory use stays flat no
+ * matter how big the thread is.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class CommentAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != Comment.class) {
+            return null;
+        } // if
+        TypeAdapter<Comment> writer = gson.getDelegateAdapter(this, TypeToken.get(Comment.class));
+        return (TypeAdapter<T>) new CommentAdapter(gson, writer);
+    }
+
+    /**
+     * Reads a comment list, or the lone comment object Imgur sends
+     * in place of a one-item list, handing every comment to the
+     * consumer.  Replies come before the comment they reply to, since
+     * a comment is only complete once its whole object has been read;
+     * use {@link Comment#getParentId()} to put threads back together.
+     * Each comment's children list is left empty.
+     * <p>
+     * A lone object carrying an error, or no id, is Imgur's error
+     * payload rather than a comment, and is raised instead of handed
+     * over.  The object is read to its end first, so the caller can go
+     * on reading the rest of the response.
+     *
+     * @param gson     a Gson this factory is registered with
+     * @param in       positioned at the list (or object)
+     * @param consumer gets each comment
+     * @return the number of comments handed over
+     * @throws IOException the JSON couldn't be read
+     * @throws BaringoApiException the data was an error, not comments
+     */
+    public static int stream(Gson gson, JsonReader in, Consumer<Comment> consumer)
+            throws IOException, BaringoApiException {
+        TypeAdapter<Comment> adapter = gson.getAdapter(Comment.class);
+        if (!(adapter instanceof CommentAdapter)) {
+            throw new IllegalStateException("CommentAdapterFactory isn't registered with this Gson");
+        } // if
+        CommentAdapter commentAdapter = (CommentAdapter) adapter;
+        int[] count = {0};
+        Consumer<Comment> counting = comment -> {
+            count[0]++;
+            consumer.accept(comment);
+        };
+
+        JsonToken token = in.peek();
+        if (token == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+            while (in.hasNext()) {
+                counting.accept(commentAdapter.read(in, counting));
+            } // while
+            in.endArray();
+        } else if (token == JsonToken.BEGIN_OBJECT) {
+            String[] error = {null};
+            Comment comment = commentAdapter.read(in, counting, error);
+            if (error[0] != null) {
+                throw new BaringoApiException(error[0]);
+            } // if
+            counting.accept(comment);
+        } else if (token == JsonToken.NULL) {
+            in.nextNull();
+        } else {
+            throw new JsonParseException("Unsupported type of comment list element: " + token);
+        } // if-else
+        return count[0];
+    } // stream
+
+    private static class CommentAdapter extends TypeAdapter<Comment> {
+
+        private final TypeAdapter<Comment> writer;
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<Vote> voteAdapter;
+
+        CommentAdapter(Gson gson, TypeAdapter<Comment> writer) {
+            this.writer = writer;
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.voteAdapter = gson.getAdapter(Vote.class);
+        } // constructor
+
+        @Override
+        public void write(JsonWriter out, Comment value) throws IOException {
+            writer.write(out, value);
+        }
+
+        @Override
+        public Comment read(JsonReader in) throws IOException {
+            return read(in, null);
+        }
+
+        /**
+         * Reads one comment.  Its replies go into its children list,
+         * or to the sink instead if there is one.
+         */
+        Comment read(JsonReader in, Consumer<Comment> sink) throws IOException {
+            return read(in, sink, null);
+        }
+
+        /**
+         * Reads one comment, or what should have been one.  If error
+         * is given and the object has an error or no id, the message
+         * goes into error[0].
+         */
+        Comment read(JsonReader in, Consumer<Comment> sink, String[] error) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            } // if
+
+            Comment comment = new Comment();
+            boolean hasId = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "id":
+                        comment.id = readLong(in);
+                        hasId = true;
+                        break;
+                    case "error":
+                        if (error != null) {
+                            error[0] = readError(in);
+                        } else {
+                            in.skipValue();
+                        } // if-else
+                        break;
+                    case "image_id":
+                        comment.imageId = readString(in);
+                        break;
+                    case "comment":
+                        comment.comment = readString(in);
+                        break;
+                    case "author":
+                        comment.authorName = readString(in);
+                        break;
+                    case "author_id":
+                        comment.authorId = readInt(in);
+                        break;
+                    case "on_album":
+                        comment.onAlbum = readBoolean(in);
+                        break;
+                    case "album_cover":
+                        comment.albumCover = readString(in);
+                        break;
+                    case "ups":
+                        comment.ups = readInt(in);
+                        break;
+                    case "downs":
+                        comment.downs = readInt(in);
+                        break;
+                    case "points":
+                        comment.points = readInt(in);
+                        break;
+                    case "datetime":
+                        comment.createdAt = dateAdapter.read(in);
+                        break;
+                    case "parent_id":
+                        comment.parentId = readLong(in);
+                        break;
+                    case "deleted":
+                        comment.deleted = readBoolean(in);
+                        break;
+                    case "vote":
+                        comment.vote = voteAdapter.read(in);
+                        break;
+                    case "children":
+                        readChildren(in, comment.children, sink);
+                        break;
+                    default:
+                        in.skipValue();
+                } // switch
+            } // while
+            in.endObject();
+            if (error != null && error[0] == null && !hasId) {
+                error[0] = "Expected a comment but got an object with no id";
+            } // if
+            return comment;
+        } // read
+
+        // Imgur's error is either a string or {"code":..., "message":...}
+        private static String readError(JsonReader in) throws IOException {
+            JsonElement element = JsonParser.parseReader(in);
+            if (element.isJsonPrimitive()) {
+                return element.getAsString();
+            } // if
+            if (element.isJsonObject()) {
+                JsonObject object = element.getAsJsonObject();
+                if (object.has("message") && object.get("message").isJsonPrimitive()) {
+                    return object.get("message").getAsString();
+                } // if
+            } // if
+            return "Unknown error: " + element;
+        } // readError
+
+        private void readChildren(JsonReader in, List<Comment> children, Consumer<Comment> sink) throws IOException {
+            if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                in.skipValue();
+                return;
+            } // if
+            in.beginArray();
+            while (in.hasNext()) {
+                Comment child = read(in, sink);
+                if (child == null) {
+                    continue;
+                } // if
+                if (sink != null) {
+                    sink.accept(child);
+                } else {
+                    children.add(child);
+                } // if-else
+            } // while
+            in.endArray();
+        } // readChildren
+
+        private static String readString(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            } else if (token == JsonToken.BOOLEAN) {
+                return Boolean.toString(in.nextBoolean());
+            } // if-else
+            return in.nextString();
+        }
+
+        private static int readInt(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return 0;
+            } // if
+            return in.nextInt();
+        }
+
+        private static long readLong(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return 0;
+            } // if
+            return in.nextLong();
+        }
+
+        private static boolean readBoolean(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return false;
+            } else if (token == JsonToken.STRING) {
+                return Boolean.parseBoolean(in.nextString());
+            } // if-else
+            return in.nextBoolean();
+        }
+    } // class CommentAdapter
+
+} // class CommentAdapterFactory
@@ -4,7 +4,6 @@
 package com.github.kskelm.baringo.model;
 
 import com.github.kskelm.baringo.model.gallery.GalleryItem;
-import com.github.kskelm.baringo.model.gallery.GalleryItemProxy;
 import com.github.kskelm.baringo.util.Utils;
 import com.google.gson.annotations.SerializedName;
 
@@ -24,9 +23,7 @@ public class TagGallery {
     @SerializedName("total_items")
     private int itemCount;
     private boolean following;
-    private List<GalleryItem> _convertedItems;
-    @SerializedName("items")
-    private List<GalleryItemProxy> _internalItems;
+    private List<GalleryItem> items;
 
 
     // ==========================================
@@ -72,7 +69,7 @@ public class TagGallery {
      * @return the items
      */
     public List<GalleryItem> getItems() {
-        return _convertedItems;
+        return items;
     }
 
     @Override
@@ -80,20 +77,4 @@ public class TagGallery {
         return Utils.toString(this);
     }
 
-    /**
-     * INTERNAL ONLY
-     * @param items converts proxy objects to real GalleryItem objects
-     */
-    public void setConvertedItems(List<GalleryItem> items) {
-        this._convertedItems = items;
-    }
-
-    /**
-     * INTERNAL ONLY
-     * @return list of proxy objects that you shouldn't use for anything
-     */
-    public List<GalleryItemProxy> getInternalItems() {
-        return _internalItems;
-    }
-
 }
@@ -4,7 +4,6 @@
 package com.github.kskelm.baringo.model;
 
 import com.github.kskelm.baringo.model.gallery.GalleryItem;
-import com.github.kskelm.baringo.model.gallery.GalleryItemProxy;
 import com.github.kskelm.baringo.util.Utils;
 import com.google.gson.annotations.SerializedName;
 
@@ -24,8 +23,7 @@ public class Topic {
     private String cssClass;
     private boolean ephemeral;
     @SerializedName("topPost")
-    private GalleryItemProxy _internalTopItem;
-    private GalleryItem _convertedTopItem;
+    private GalleryItem topItem;
 
 
     // ===================================================
@@ -78,7 +76,7 @@ public class Topic {
      * @return the topItem
      */
     public GalleryItem getTopItem() {
-        return _convertedTopItem;
+        return topItem;
     }
 
     @Override
@@ -86,20 +84,4 @@ public class Topic {
         return Utils.toString(this);
     }
 
-    /**
-     * internal filth, don't use this.
-     * @return a proxy object
-     */
-    public GalleryItemProxy getItemProxy() {
-        return _internalTopItem;
-    }
-
-    /**
-     * internal filth, don't use this
-     * @param item - an item
-     */
-    public void setConvertedItem(GalleryItem item) {
-        _convertedTopItem = item;
-    }
-
 } 
@@ -25,9 +25,7 @@ public class CustomGallery {
     private List<String> tags;
     @SerializedName("item_count")
     private int itemCount;
-    @SerializedName("items")
-    private List<GalleryItemProxy> _internalItems;
-    private List<GalleryItem> _convertedItems;
+    private List<GalleryItem> items;
 
     /**
      * Returns the name of the user that created the gallery
@@ -68,20 +66,7 @@ public class CustomGallery {
      * @return the items list of GalleryItems
      */
     public List<GalleryItem> getItems() {
-        return _convertedItems;
-    }
-
-    // internal filth only
-    public void setConvertedItems(List<GalleryItem> items) {
-        this._convertedItems = items;
-    }
-
-    /**
-     * Internal only, don't use this
-     * @return list of proxy objects
-     */
-    public List<GalleryItemProxy> getInternalItems() {
-        return _internalItems;
+        return items;
     }
 
     public String toString() {
@@ -40,15 +40,6 @@ public class GalleryAlbum extends GalleryItem {
     public GalleryAlbum() {
     }
 
-    /**
-     * Internal only
-     * @param p proxy object
-     */
-    public GalleryAlbum(GalleryItemProxy p) {
-        super(p);
-        copyFrom(p, GalleryAlbum.class);
-    } // lame copy constructor
-
     /**
      * The image ID of the cover image for this album
      * @return the cover
@@ -47,15 +47,6 @@ public class GalleryImage extends GalleryItem {
 
     // ======================================================
 
-    /**
-     * Internal only
-     * @param p proxy object
-     */
-    public GalleryImage(GalleryItemProxy p) {
-        super(p);
-        copyFrom(p, GalleryImage.class);
-    } // lame copy constructor
-
     /**
      * Return the mimeType of the image
      * @return the mimeType
@@ -7,7 +7,6 @@ import com.github.kskelm.baringo.model.Comment;
 import com.github.kskelm.baringo.util.Utils;
 import com.google.gson.annotations.SerializedName;
 
-import java.lang.reflect.Field;
 import java.util.Date;
 import java.util.List;
 
@@ -56,14 +55,8 @@ public abstract class GalleryItem {
     protected boolean album;
 
     public GalleryItem() {
-// TODO: WAT
-        System.err.println("wat");
     }
 
-    protected GalleryItem(GalleryItemProxy p) {
-        copyFrom(p, GalleryItem.class);
-    } // lame copy constructor
-
     /**
      * Returns the ID of the item
      * @return the id
@@ -233,33 +226,35 @@ public abstract class GalleryItem {
         return Utils.toString(this);
     } // toString
 
-    //	/**
-//	 * (INTERNAL) Shallow copy the fields from one object to another, given
-//	 * named fields in a specific level of the inheritance.
-//	 * This makes me sad.
-//	 * @param from destination object
-//	 * @param cls the class to enumerate fields on
-//	 */
-    public void copyFrom(GalleryItemProxy from, @SuppressWarnings("rawtypes") Class cls) {
-        for (Field toField : cls.getDeclaredFields()) {
-            try {
-                Field fromField = from.getClass().getField(toField.getName());
-                if (fromField == null) { // doesn't exist in the source
-                    continue;
-                } // if
-                Object val = fromField.get(from);
-                toField.set(this, val);
-            } catch (IllegalArgumentException e) {
-                e.printStackTrace();
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-            } catch (NoSuchFieldException e) {
-                e.printStackTrace();
-            } catch (SecurityException e) {
-                e.printStackTrace();
-            }
-        } // for
-    } // copyFrom
+    /**
+     * (INTERNAL) Copies the fields shared by every GalleryItem
+     * from another item.  Used when a gallery item turns out to
+     * be an album only after its common fields have been read.
+     * @param from the item to copy from
+     */
+    protected void copyItemFields(GalleryItem from) {
+        this.id = from.id;
+        this.title = from.title;
+        this.description = from.description;
+        this.uploadDate = from.uploadDate;
+        this.views = from.views;
+        this.link = from.link;
+        this.vote = from.vote;
+        this.ups = from.ups;
+        this.downs = from.downs;
+        this.points = from.points;
+        this.score = from.score;
+        this.favorite = from.favorite;
+        this.nsfw = from.nsfw;
+        this.commentCount = from.commentCount;
+        this.commentPreview = from.commentPreview;
+        this.topic = from.topic;
+        this.topicId = from.topicId;
+        this.userName = from.userName;
+        this.userId = from.userId;
+        this.album = from.album;
+    } // copyItemFields
+
     /**
      * When requesting a gallery, this is the section
      *
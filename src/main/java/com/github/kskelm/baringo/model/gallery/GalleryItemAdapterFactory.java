@@ -0,0 +1,285 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.model.gallery;
+
+import com.github.kskelm.baringo.model.Comment;
+import com.github.kskelm.baringo.model.Image;
+import com.github.kskelm.baringo.model.gallery.GalleryAlbum.Layout;
+import com.github.kskelm.baringo.model.gallery.GalleryAlbum.Privacy;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * INTERNAL ONLY.
+ * <p>
+ * Imgur gallery lists mix images and albums in the same array, and
+ * the only thing that tells them apart is is_album.  This factory
+ * produces a streaming adapter for the abstract GalleryItem type
+ * that reads each object exactly once, straight into a GalleryImage
+ * or GalleryAlbum, with no intermediate proxy and no reflective
+ * field copying.
+ * <p>
+ * Since is_album may show up anywhere in the object, fields are read
+ * into a GalleryImage as they arrive.  Album-only fields land in a
+ * GalleryAlbum that's only created when one of them appears, and the
+ * shared fields are handed over at the end if the item turns out to
+ * be an album.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class GalleryItemAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != GalleryItem.class) {
+            return null;
+        } // if
+        return (TypeAdapter<T>) new GalleryItemAdapter(gson);
+    }
+
+    private static class GalleryItemAdapter extends TypeAdapter<GalleryItem> {
+
+        private final Gson gson;
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<List<Comment>> commentsAdapter;
+        private final TypeAdapter<List<Image>> imagesAdapter;
+        private final TypeAdapter<GalleryItem.Section> sectionAdapter;
+        private final TypeAdapter<Privacy> privacyAdapter;
+        private final TypeAdapter<Layout> layoutAdapter;
+
+        GalleryItemAdapter(Gson gson) {
+            this.gson = gson;
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.commentsAdapter = gson.getAdapter(new TypeToken<List<Comment>>() {});
+            this.imagesAdapter = gson.getAdapter(new TypeToken<List<Image>>() {});
+            this.sectionAdapter = gson.getAdapter(GalleryItem.Section.class);
+            this.privacyAdapter = gson.getAdapter(Privacy.class);
+            this.layoutAdapter = gson.getAdapter(Layout.class);
+        } // constructor
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public void write(JsonWriter out, GalleryItem value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            } // if
+            TypeAdapter adapter = gson.getAdapter(value.getClass());
+            adapter.write(out, value);
+        }
+
+        @Override
+        public GalleryItem read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            } // if
+
+            GalleryImage image = new GalleryImage();
+            GalleryAlbum album = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    // shared by images and albums
+                    case "id":
+                        image.id = readString(in);
+                        break;
+                    case "title":
+                        image.title = readString(in);
+                        break;
+                    case "description":
+                        image.description = readString(in);
+                        break;
+                    case "datetime":
+                        image.uploadDate = dateAdapter.read(in);
+                        break;
+                    case "views":
+                        image.views = readInt(in);
+                        break;
+                    case "link":
+                        image.link = readString(in);
+                        break;
+                    case "vote":
+                        image.vote = readString(in);
+                        break;
+                    case "ups":
+                        image.ups = readInt(in);
+                        break;
+                    case "downs":
+                        image.downs = readInt(in);
+                        break;
+                    case "points":
+                        image.points = readInt(in);
+                        break;
+                    case "score":
+                        image.score = readInt(in);
+                        break;
+                    case "favorite":
+                        image.favorite = readBoolean(in);
+                        break;
+                    case "nsfw":
+                        image.nsfw = readBoolean(in);
+                        break;
+                    case "comment_count":
+                        image.commentCount = readInt(in);
+                        break;
+                    case "comment_preview":
+                        image.commentPreview = commentsAdapter.read(in);
+                        break;
+                    case "topic":
+                        image.topic = readString(in);
+                        break;
+                    case "topic_id":
+                        image.topicId = readInt(in);
+                        break;
+                    case "account_url":
+                        image.userName = readString(in);
+                        break;
+                    case "account_id":
+                        image.userId = readInt(in);
+                        break;
+                    case "is_album":
+                        image.album = readBoolean(in);
+                        break;
+
+                    // images only
+                    case "type":
+                        image.mimeType = readString(in);
+                        break;
+                    case "animated":
+                        image.animated = readBoolean(in);
+                        break;
+                    case "width":
+                        image.width = readInt(in);
+                        break;
+                    case "height":
+                        image.height = readInt(in);
+                        break;
+                    case "size":
+                        image.size = readInt(in);
+                        break;
+                    case "bandwidth":
+                        image.bandwidth = readLong(in);
+                        break;
+                    case "deletehash":
+                        image.deleteHash = readString(in);
+                        break;
+                    case "gifvLink":
+                        image.gifvLink = readString(in);
+                        break;
+                    case "mp4Link":
+                        image.mp4Link = readString(in);
+                        break;
+                    case "webmLink":
+                        image.webmLink = readString(in);
+                        break;
+                    case "looping":
+                        image.looping = readBoolean(in);
+                        break;
+                    case "section":
+                        image.section = sectionAdapter.read(in);
+                        break;
+
+                    // albums only
+                    case "coverId":
+                        album = album == null ? new GalleryAlbum() : album;
+                        album.coverId = readString(in);
+                        break;
+                    case "coverWidth":
+                        album = album == null ? new GalleryAlbum() : album;
+                        album.coverWidth = readInt(in);
+                        break;
+                    case "coverHeight":
+                        album = album == null ? new GalleryAlbum() : album;
+                        album.coverHeight = readInt(in);
+                        break;
+                    case "privacy":
+                        album = album == null ? new GalleryAlbum() : album;
+                        album.privacy = privacyAdapter.read(in);
+                        break;
+                    case "layout":
+                        album = album == null ? new GalleryAlbum() : album;
+                        album.layout = layoutAdapter.read(in);
+                        break;
+                    case "images_count":
+                        album = album == null ? new GalleryAlbum() : album;
+                        album.imageCount = readInt(in);
+                        break;
+                    case "images":
+                        album = album == null ? new GalleryAlbum() : album;
+                        album.images = imagesAdapter.read(in);
+                        break;
+
+                    default:
+                        in.skipValue();
+                } // switch
+            } // while
+            in.endObject();
+
+            if (!image.album) {
+                return image;
+            } // if
+            if (album == null) {
+                album = new GalleryAlbum();
+            } // if
+            album.copyItemFields(image);
+            return album;
+        }
+
+        // The readers below are as forgiving as Gson's own: nulls
+        // leave the field at its default, and quoted values are
+        // accepted where a number or boolean is expected.
+
+        private static String readString(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            } else if (token == JsonToken.BOOLEAN) {
+                return Boolean.toString(in.nextBoolean());
+            } // if-else
+            return in.nextString();
+        }
+
+        private static int readInt(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return 0;
+            } // if
+            return in.nextInt();
+        }
+
+        private static long readLong(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return 0;
+            } // if
+            return in.nextLong();
+        }
+
+        private static boolean readBoolean(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return false;
+            } else if (token == JsonToken.STRING) {
+                return Boolean.parseBoolean(in.nextString());
+            } // if-else
+            return in.nextBoolean();
+        }
+    } // class GalleryItemAdapter
+
+} // class GalleryItemAdapterFactory
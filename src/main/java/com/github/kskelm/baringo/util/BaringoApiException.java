@@ -29,6 +29,16 @@ public class BaringoApiException extends Exception {
         super(msg);
     }
 
+    /**
+     * Keeps the underlying failure, such as the IOException from a
+     * call that never reached Imgur
+     * @param msg The message text for the exception
+     * @param cause What went wrong underneath
+     */
+    public BaringoApiException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+
     /**
      * Adds support to include HTTP codes in the exception
      * @param msg The message text for the exception
@@ -0,0 +1,37 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.util;
+
+import java.io.Serial;
+
+/**
+ * Thrown out of a {@link Pager}'s iterator or stream when a page
+ * can't be fetched.  Iterator and Stream don't allow checked
+ * exceptions, so the underlying BaringoApiException rides along
+ * as the cause.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ *
+ */
+public class BaringoPagingException extends RuntimeException {
+
+    /**
+     *
+     */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public BaringoPagingException(BaringoApiException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    /**
+     * Returns the API exception that stopped the paging
+     * @return the underlying exception
+     */
+    public BaringoApiException getApiException() {
+        return (BaringoApiException) getCause();
+    }
+
+}
@@ -0,0 +1,24 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.util;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * INTERNAL ONLY.
+ * <p>
+ * Marks a {@link RetrofittedImgur} GET that changes something on
+ * Imgur, such as the favorite toggles.  The client treats these like
+ * writes: they're never coalesced with another caller's identical
+ * request, and only retried if writes are.
+ *
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ChangesState {
+}
@@ -0,0 +1,217 @@
+/**
+ * This file is released under the Apache License 2.0. See the LICENSE file for details.
+ **/
+package com.github.kskelm.baringo.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A lazy view over one of Imgur's page-numbered listings.
+ * <p>
+ * Pages are only fetched as the caller gets to them; creating an
+ * iterator or a stream costs nothing until the first item is asked
+ * for.  As soon as
+ * a page arrives the next one is requested in the background, so
+ * while the caller chews on the items from page N, page N+1 is
+ * already on its way.  Iteration ends at the first empty page or
+ * once the maximum number of items has been handed out.
+ * <p>
+ * A Pager is immutable and can be iterated more than once; each
+ * iterator starts over from the first page.  Because Iterator
+ * can't throw checked exceptions, a failed page fetch surfaces as
+ * a {@link BaringoPagingException} wrapping the BaringoApiException.
+ * <p>
+ * A loop that stops early leaves the prefetched page in flight.  To
+ * cancel it, use {@link #stream()} in a try-with-resources block,
+ * which closes the stream however the block is left:
+ * <pre>
+ * try (Stream&lt;GalleryItem&gt; items = client.galleryService()
+ *         .pageGallery(Section.Hot, Sort.Viral, Window.Day, true)
+ *         .maxItems(500)
+ *         .stream()) {
+ *     items.filter(item -&gt; !item.isNsfw())
+ *         .forEach(this::crawl);
+ * } // try
+ * </pre>
+ *
+ * @param <T> the type of item in each page
+ * @author Kevin Kelm (triggur@gmail.com)
+ */
+public class Pager<T> implements Iterable<T> {
+
+    /**
+     * Fetches one page of a listing.  Normally this is just a
+     * method reference to one of the services' async calls.
+     *
+     * @param <T> the type of item in the page
+     */
+    @FunctionalInterface
+    public interface PageSource<T> {
+        /**
+         * Starts fetching the given page
+         * @param page the page number
+         * @return a future for the page's items
+         */
+        CompletableFuture<List<T>> fetch(int page);
+    }
+
+    private final PageSource<T> source;
+    private final int firstPage;
+    private final long maxItems;
+
+    /**
+     * Creates a pager that starts at page 0 and runs until
+     * Imgur returns an empty page.
+     * @param source where pages come from
+     */
+    public Pager(PageSource<T> source) {
+        this(source, 0, Long.MAX_VALUE);
+    } // constructor
+
+    protected Pager(PageSource<T> source, int firstPage, long maxItems) {
+        this.source = source;
+        this.firstPage = firstPage;
+        this.maxItems = maxItems;
+    } // constructor
+
+    /**
+     * Returns a copy of this pager that starts at the given page.
+     * @param page the first page to fetch
+     * @return a new Pager
+     */
+    public Pager<T> startingAt(int page) {
+        return new Pager<>(source, page, maxItems);
+    }
+
+    /**
+     * Returns a copy of this pager that stops after handing out
+     * the given number of items.  Unlike {@link Stream#limit},
+     * this also keeps the pager from prefetching pages that will
+     * never be looked at.
+     * @param maxItems the most items to return
+     * @return a new Pager
+     */
+    public Pager<T> maxItems(long maxItems) {
+        if (maxItems < 0) {
+            throw new IllegalArgumentException("maxItems must not be negative");
+        } // if
+        return new Pager<>(source, firstPage, maxItems);
+    }
+
+    /**
+     * Returns a new iterator that starts at the first page.  Nothing
+     * is fetched until its first hasNext().  It can't be cancelled, so
+     * prefer {@link #stream()} for loops that may stop early.
+     * @return the iterator
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new PageIterator();
+    }
+
+    /**
+     * Returns a sequential Stream of the items.  Closing the stream
+     * cancels any page fetch that's still in flight, so open it in a
+     * try-with-resources block.
+     * @return the stream
+     */
+    public Stream<T> stream() {
+        PageIterator it = new PageIterator();
+        Spliterator<T> split = Spliterators.spliteratorUnknownSize(
+                it, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(split, false).onClose(it::cancel);
+    }
+
+    @Override
+    public String toString() {
+        return "Pager [ firstPage = " + firstPage + ", maxItems = " + maxItems + " ]";
+    }
+
+    private class PageIterator implements Iterator<T> {
+
+        private Iterator<T> current = Collections.emptyIterator();
+        private CompletableFuture<List<T>> next;
+        private int nextPage = firstPage;
+        private long handedOut = 0;
+        private boolean done = maxItems == 0;
+
+        @Override
+        public boolean hasNext() {
+            if (handedOut >= maxItems) {
+                cancel();
+                return false;
+            } // if
+            while (!current.hasNext()) {
+                if (done) {
+                    return false;
+                } // if
+                if (next == null) {
+                    // only the first page; later ones are prefetched below
+                    next = source.fetch(nextPage++);
+                } // if
+                List<T> page = await(next);
+                if (page == null || page.isEmpty()) {
+                    done = true;
+                    next = null;
+                    return false;
+                } // if
+                current = page.iterator();
+                // kick off the next page while this one is consumed,
+                // unless this page already covers what's left
+                if (handedOut + page.size() < maxItems) {
+                    next = source.fetch(nextPage++);
+                } else {
+                    done = true;
+                    next = null;
+                } // if-else
+            } // while
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            } // if
+            handedOut++;
+            return current.next();
+        }
+
+        void cancel() {
+            done = true;
+            if (next != null) {
+                next.cancel(true);
+                next = null;
+            } // if
+        }
+
+        private List<T> await(CompletableFuture<List<T>> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new BaringoPagingException(
+                        new BaringoApiException("Interrupted waiting for page " + (nextPage - 1)));
+            } catch (ExecutionException e) {
+                done = true;
+                next = null;
+                Throwable cause = e.getCause();
+                if (cause instanceof BaringoApiException) {
+                    throw new BaringoPagingException((BaringoApiException) cause);
+                } // if
+                throw new BaringoPagingException(new BaringoApiException(String.valueOf(cause)));
+            } // try-catch
+        }
+    } // class PageIterator
+
+} // class Pager
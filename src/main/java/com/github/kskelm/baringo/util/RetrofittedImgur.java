@@ -4,12 +4,14 @@
 package com.github.kskelm.baringo.util;
 
 import com.github.kskelm.baringo.CommentService.CommentListWrapper;
+import com.github.kskelm.baringo.ConversationService.ConversationList;
 import com.github.kskelm.baringo.model.*;
 import com.github.kskelm.baringo.model.gallery.CustomGallery;
 import com.github.kskelm.baringo.model.gallery.GalleryImage;
-import com.github.kskelm.baringo.model.gallery.GalleryItemProxy;
+import com.github.kskelm.baringo.model.gallery.GalleryItem;
 import com.github.kskelm.baringo.model.gallery.GalleryProfile;
 import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.*;
 
@@ -43,17 +45,17 @@ public interface RetrofittedImgur {
             @Path("username") String userName);
 
     @GET("/3/account/{username}/gallery_favorites/{page}/{sort}")
-    Call<ImgurResponseWrapper<List<GalleryItemProxy>>> listAccountGalleryFavorites(
+    Call<ImgurResponseWrapper<List<GalleryItem>>> listAccountGalleryFavorites(
             @Path("username") String userName,
             @Path("page") int page,
             @Path("sort") Account.GallerySort sort);
 
     @GET("/3/account/{username}/favorites")
-    Call<ImgurResponseWrapper<List<GalleryItemProxy>>> listAccountFavorites(
+    Call<ImgurResponseWrapper<List<GalleryItem>>> listAccountFavorites(
             @Path("username") String userName);
 
     @GET("/3/account/{username}/submissions/{page}")
-    Call<ImgurResponseWrapper<List<GalleryItemProxy>>> listAccountSubmissions(
+    Call<ImgurResponseWrapper<List<GalleryItem>>> listAccountSubmissions(
             @Path("username") String userName,
             @Path("page") int page);
 
@@ -153,6 +155,7 @@ public interface RetrofittedImgur {
     @DELETE("/3/album/{albumId}")
     Call<ImgurResponseWrapper<Boolean>> deleteAlbum(@Path("albumId") String albumId);
 
+    @ChangesState // a toggle, for all it's a GET
     @GET("/3/album/{albumId}/favorite")
     Call<ImgurResponseWrapper<Object>> toggleAlbumFavorite(@Path("albumId") String albumId);
 
@@ -193,6 +196,11 @@ public interface RetrofittedImgur {
     Call<ImgurResponseWrapper<CommentListWrapper>> listCommentReplies(
             @Path("id") long commentId);
 
+    @Streaming
+    @GET("/3/comment/{id}/replies")
+    Call<ResponseBody> streamCommentReplies(
+            @Path("id") long commentId);
+
     @FormUrlEncoded
     @POST("/3/comment/{parent_id}")
     Call<ImgurResponseWrapper<Map<String, Long>>> replyComment(
@@ -253,7 +261,7 @@ public interface RetrofittedImgur {
     // ============================================================
 
     @GET("/3/gallery/{section}/{sort}/{window}/{page}")
-    Call<ImgurResponseWrapper<List<GalleryItemProxy>>> listGallery(
+    Call<ImgurResponseWrapper<List<GalleryItem>>> listGallery(
             @Path("section") String section,
             @Path("sort") String sort,
             @Path("window") String window,
@@ -262,7 +270,7 @@ public interface RetrofittedImgur {
     );
 
     @GET("/3/g/memes/{sort}/{window}/{page}")
-    Call<ImgurResponseWrapper<List<GalleryItemProxy>>> listMemeGallery(
+    Call<ImgurResponseWrapper<List<GalleryItem>>> listMemeGallery(
             @Path("sort") String sort,
             @Path("window") String window,
             @Path("page") int page
@@ -274,7 +282,7 @@ public interface RetrofittedImgur {
 //			@Path("id") String id );
 
     @GET("/3/gallery/r/{subreddit}/{sort}/{window}/{page}")
-    Call<ImgurResponseWrapper<List<GalleryItemProxy>>> listSubredditGallery(
+    Call<ImgurResponseWrapper<List<GalleryItem>>> listSubredditGallery(
             @Path("subreddit") String subreddit,
             @Path("sort") String sort,
             @Path("window") String window,
@@ -306,7 +314,7 @@ public interface RetrofittedImgur {
             @Path("vote") String vote);
 
     @GET("/3/gallery/search/{sort}/{window}/{page}")
-    Call<ImgurResponseWrapper<List<GalleryItemProxy>>> searchGallery(
+    Call<ImgurResponseWrapper<List<GalleryItem>>> searchGallery(
             @Path("sort") String sort,
             @Path("window") String window,
             @Path("page") int page,
@@ -318,14 +326,14 @@ public interface RetrofittedImgur {
             @Query("q_size_px") String imageSize);
 
     @GET("/3/gallery/search/{sort}/{window}/{page}")
-    Call<ImgurResponseWrapper<List<GalleryItemProxy>>> compoundSearchGallery(
+    Call<ImgurResponseWrapper<List<GalleryItem>>> compoundSearchGallery(
             @Path("sort") String sort,
             @Path("window") String window,
             @Path("page") int page,
             @Query("q") String compoundQuery);
 
     @GET("/3/gallery/random/random/{page}")
-    Call<ImgurResponseWrapper<List<GalleryItemProxy>>> listRandomGallery(
+    Call<ImgurResponseWrapper<List<GalleryItem>>> listRandomGallery(
             @Path("page") int page);
 
     @FormUrlEncoded
@@ -355,6 +363,12 @@ public interface RetrofittedImgur {
             @Path("id") String itemId,
             @Path("sort") String sort);
 
+    @Streaming
+    @GET("/3/gallery/{id}/comments/{sort}")
+    Call<ResponseBody> streamGalleryItemComments(
+            @Path("id") String itemId,
+            @Path("sort") String sort);
+
     @GET("/3/gallery/{id}/comments/ids")
     Call<ImgurResponseWrapper<List<Long>>> getGalleryItemCommentIds(
             @Path("id") String itemId);
@@ -372,12 +386,12 @@ public interface RetrofittedImgur {
     // ============================================================
 
     @GET("/3/conversations")
-    Call<ImgurResponseWrapper<String>> getConversations();
+    Call<ImgurResponseWrapper<ConversationList>> getConversations();
 
-    @GET("/3/conversations/{id}/{page}/{offset}")
+    @GET("/3/conversations/{id}/{page}/0")
     Call<ImgurResponseWrapper<Conversation>> getConversationMessages(
             @Path("id") long conversationId,
-            @Query("title") int page);
+            @Path("page") int page);
 
     @FormUrlEncoded
     @POST("/3/conversations/{to_user_name}")
@@ -418,6 +432,11 @@ public interface RetrofittedImgur {
     Call<ImgurResponseWrapper<Boolean>> markNotificationViewed(
             @Path("id") long id);
 
+    @FormUrlEncoded
+    @POST("/3/notification")
+    Call<ImgurResponseWrapper<Boolean>> markNotificationsViewed(
+            @Field("ids") String commaSeparatedIds);
+
     // ============================================================
     // ============================================================
     // ============================================================
@@ -463,6 +482,7 @@ public interface RetrofittedImgur {
     Call<ImgurResponseWrapper<Boolean>> deleteImage(
             @Path("id") String idOrDeleteHash);
 
+    @ChangesState // a toggle, for all it's a GET
     @GET("/3/image/{imageId}/favorite")
     Call<ImgurResponseWrapper<Image>> toggleImageFavorite(
             @Path("imageId") String idOrDeleteHash);
@@ -492,7 +512,7 @@ public interface RetrofittedImgur {
 
 
     @GET("/3/topics/{topic_id}/{sort}/{window}/{page}")
-    Call<ImgurResponseWrapper<List<GalleryItemProxy>>> listTopicItems(
+    Call<ImgurResponseWrapper<List<GalleryItem>>> listTopicItems(
             @Path("topic_id") int topicId,
             @Path("sort") String sort,
             @Path("window") String window,
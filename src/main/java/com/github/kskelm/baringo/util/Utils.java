@@ -96,4 +96,60 @@ public class Utils {
         return buf.toString();
     }
 
+    /**
+     * Guesses the mime type of an image or video from its first few
+     * bytes, for uploads that come without a useful file name.
+     * Recognizes the formats Imgur accepts.
+     * @param head the start of the content; 16 bytes is plenty
+     * @param length how many bytes of head are valid
+     * @return the mime type, or null if it doesn't look like anything we know
+     */
+    public static String sniffMimeType(byte[] head, int length) {
+        if (startsWith(head, length, 0, 0x89, 'P', 'N', 'G')) {
+            return "image/png";
+        } // if
+        if (startsWith(head, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        } // if
+        if (startsWith(head, length, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        } // if
+        if (startsWith(head, length, 0, 'I', 'I', '*', 0)
+                || startsWith(head, length, 0, 'M', 'M', 0, '*')) {
+            return "image/tiff";
+        } // if
+        if (startsWith(head, length, 0, 'R', 'I', 'F', 'F')
+                && startsWith(head, length, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        } // if
+        if (startsWith(head, length, 0, 'B', 'M')) {
+            return "image/bmp";
+        } // if
+        if (startsWith(head, length, 0, '%', 'P', 'D', 'F')) {
+            return "application/pdf";
+        } // if
+        if (startsWith(head, length, 0, 'g', 'i', 'm', 'p', ' ', 'x', 'c', 'f')) {
+            return "image/xcf";
+        } // if
+        if (startsWith(head, length, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+            return "video/webm";
+        } // if
+        if (startsWith(head, length, 4, 'f', 't', 'y', 'p')) {
+            return "video/mp4";
+        } // if
+        return null;
+    } // sniffMimeType
+
+    private static boolean startsWith(byte[] head, int length, int offset, int... magic) {
+        if (length < offset + magic.length) {
+            return false;
+        } // if
+        for (int i = 0; i < magic.length; i++) {
+            if ((head[offset + i] & 0xFF) != magic[i]) {
+                return false;
+            } // if
+        } // for
+        return true;
+    } // startsWith
+
 } // Utils